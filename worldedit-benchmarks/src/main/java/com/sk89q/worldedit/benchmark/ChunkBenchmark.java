@@ -0,0 +1,111 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.benchmark;
+
+import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.worldedit.BlockVector2D;
+import com.sk89q.worldedit.world.DataException;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.chunk.AnvilChunk13;
+import com.sk89q.worldedit.world.chunk.Chunk;
+import com.sk89q.worldedit.world.storage.McRegionChunkStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding Minecraft 1.13 chunks, both from a tag that has
+ * already been read and from a whole region file as //restore does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChunkBenchmark {
+
+    private static final int REGION_WIDTH = 4;
+    private static final int HEIGHT = 64;
+
+    private CompoundTag level;
+    private byte[] regionFile;
+    private World world;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkPlatform.install();
+        level = (CompoundTag) Fixtures.chunkTag(0, 0, HEIGHT).getValue().get("Level");
+        regionFile = Fixtures.regionFile(REGION_WIDTH, HEIGHT);
+        world = new MemoryWorld();
+    }
+
+    @Benchmark
+    public Chunk decodeChunk() throws DataException {
+        return new AnvilChunk13(level);
+    }
+
+    @Benchmark
+    public void readRegion(Blackhole blackhole) throws DataException, IOException {
+        try (McRegionChunkStore store = new MemoryChunkStore(regionFile)) {
+            for (int z = 0; z < REGION_WIDTH; z++) {
+                for (int x = 0; x < REGION_WIDTH; x++) {
+                    blackhole.consume(store.getChunk(new BlockVector2D(x, z), world));
+                }
+            }
+        }
+    }
+
+    /**
+     * A chunk store with a single region file held in memory.
+     */
+    private static final class MemoryChunkStore extends McRegionChunkStore {
+        private final byte[] regionFile;
+
+        private MemoryChunkStore(byte[] regionFile) {
+            this.regionFile = regionFile;
+        }
+
+        @Override
+        protected InputStream getInputStream(String name, String worldName) {
+            return new ByteArrayInputStream(regionFile);
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+    }
+
+}
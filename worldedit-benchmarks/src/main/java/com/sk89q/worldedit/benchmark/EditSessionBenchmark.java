@@ -0,0 +1,110 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.benchmark;
+
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.MaxChangedBlocksException;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures setting and replacing the blocks of a cube through an edit
+ * session.
+ *
+ * <p>Each invocation swaps the cube between stone and dirt, so that every
+ * block is changed every time.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EditSessionBenchmark {
+
+    @Param({"32", "64"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean reorder;
+
+    private MemoryWorld world;
+    private CuboidRegion region;
+    private BlockState stone;
+    private BlockState dirt;
+    private boolean swapped;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkPlatform.install();
+        world = new MemoryWorld();
+        region = new CuboidRegion(world, new Vector(0, 0, 0), new Vector(size - 1, size - 1, size - 1));
+        stone = BlockTypes.STONE.getDefaultState();
+        dirt = BlockTypes.DIRT.getDefaultState();
+        world.fill(region, stone);
+    }
+
+    private EditSession newEditSession() {
+        EditSession editSession = WorldEdit.getInstance().getEditSessionFactory().getEditSession(world, -1);
+        if (reorder) {
+            editSession.enableQueue();
+        }
+        return editSession;
+    }
+
+    @Benchmark
+    public EditSession setBlocks() throws MaxChangedBlocksException {
+        EditSession editSession = newEditSession();
+        editSession.setBlocks(region, swapped ? stone : dirt);
+        editSession.flushQueue();
+        swapped = !swapped;
+        return editSession;
+    }
+
+    @Benchmark
+    public EditSession replaceBlocks() throws MaxChangedBlocksException {
+        EditSession editSession = newEditSession();
+        BlockStateHolder from = swapped ? dirt : stone;
+        editSession.replaceBlocks(region, Collections.singleton(from), swapped ? stone : dirt);
+        editSession.flushQueue();
+        swapped = !swapped;
+        return editSession;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.benchmark;
+
+import com.sk89q.worldedit.util.eventbus.EventBus;
+import com.sk89q.worldedit.util.eventbus.EventHandler.Priority;
+import com.sk89q.worldedit.util.eventbus.Subscribe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures posting an event to a few subscribers of different priorities,
+ * as done for every stage of every edit session.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventBusBenchmark {
+
+    private EventBus eventBus;
+    private Listener listener;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventBus = new EventBus();
+        listener = new Listener();
+        for (int i = 0; i < 4; i++) {
+            eventBus.register(new Listener());
+        }
+        eventBus.register(listener);
+    }
+
+    @Benchmark
+    public int post() {
+        eventBus.post(new Event());
+        return listener.count;
+    }
+
+    public static class Event {
+    }
+
+    public static class Listener {
+        private int count;
+
+        @Subscribe(priority = Priority.EARLY)
+        public void onEarly(Event event) {
+            count++;
+        }
+
+        @Subscribe
+        public void onEvent(Object event) {
+            count++;
+        }
+
+        @Subscribe(priority = Priority.LATE)
+        public void onLate(Event event) {
+            count++;
+        }
+    }
+
+}
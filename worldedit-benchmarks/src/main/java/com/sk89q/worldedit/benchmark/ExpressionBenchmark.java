@@ -0,0 +1,80 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.benchmark;
+
+import com.sk89q.worldedit.internal.expression.Expression;
+import com.sk89q.worldedit.internal.expression.ExpressionException;
+import com.sk89q.worldedit.internal.expression.runtime.EvaluationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures compiling and evaluating expressions like those given to
+ * //generate and //deform.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    @Param({
+            "(x * x + y * y + z * z) < 0.8",
+            "y < sin(x * 5) * cos(z * 5) * 0.3 + 0.2 && abs(x) < 0.9",
+            "a = 0; for (i = 0; i < 8; i++) { a += x * i - z } a > y"
+    })
+    String expression;
+
+    private Expression compiled;
+    private double x;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ExpressionException {
+        BenchmarkPlatform.install();
+        compiled = compile();
+        compiled.optimize();
+    }
+
+    @Benchmark
+    public Expression compile() throws ExpressionException {
+        return Expression.compile(expression, "x", "y", "z");
+    }
+
+    @Benchmark
+    public double evaluate() throws EvaluationException {
+        x = x > 1 ? -1 : x + 0.01;
+        return compiled.evaluate(x, 0.25, -0.5);
+    }
+
+}
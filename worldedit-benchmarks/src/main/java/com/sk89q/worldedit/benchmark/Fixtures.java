@@ -0,0 +1,231 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.benchmark;
+
+import com.sk89q.jnbt.ByteTag;
+import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.jnbt.IntArrayTag;
+import com.sk89q.jnbt.IntTag;
+import com.sk89q.jnbt.ListTag;
+import com.sk89q.jnbt.LongArrayTag;
+import com.sk89q.jnbt.NBTOutputStream;
+import com.sk89q.jnbt.StringTag;
+import com.sk89q.jnbt.Tag;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.registry.state.Property;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import com.sk89q.worldedit.world.storage.ChunkStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Builds the test data shared by several benchmarks.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Get the block that {@link #fillMixed(MemoryWorld, Region)} places at
+     * a position: stone with scattered ores below, then dirt, a layer of
+     * sand and air above.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @param height the height of the ground
+     * @return the block
+     */
+    static BlockState mixedBlock(int x, int y, int z, int height) {
+        int surface = height * 3 / 4;
+        if (y > surface) {
+            return BlockTypes.AIR.getDefaultState();
+        } else if (y == surface) {
+            return BlockTypes.SAND.getDefaultState();
+        } else if (y > surface - 4) {
+            return BlockTypes.DIRT.getDefaultState();
+        }
+        int hash = (x * 73856093) ^ (y * 19349663) ^ (z * 83492791);
+        switch (Math.floorMod(hash, 64)) {
+            case 0:
+                return BlockTypes.COAL_ORE.getDefaultState();
+            case 1:
+                return BlockTypes.IRON_ORE.getDefaultState();
+            case 2:
+                return BlockTypes.GRAVEL.getDefaultState();
+            default:
+                return BlockTypes.STONE.getDefaultState();
+        }
+    }
+
+    /**
+     * Fill a region with ground made of a handful of block types.
+     *
+     * @param world the world
+     * @param region the region
+     */
+    static void fillMixed(MemoryWorld world, Region region) {
+        int minY = region.getMinimumPoint().getBlockY();
+        int height = region.getHeight();
+        for (Vector position : region) {
+            int y = position.getBlockY() - minY;
+            world.setBlock(position, mixedBlock(position.getBlockX(), y, position.getBlockZ(), height), false);
+        }
+    }
+
+    /**
+     * Build the tag of a Minecraft 1.13 chunk whose lowest sections hold
+     * the blocks of {@link #mixedBlock(int, int, int, int)}.
+     *
+     * @param chunkX the X coordinate of the chunk
+     * @param chunkZ the Z coordinate of the chunk
+     * @param height the height of the ground, a multiple of 16
+     * @return the root tag of the chunk
+     */
+    static CompoundTag chunkTag(int chunkX, int chunkZ, int height) {
+        List<CompoundTag> sections = new ArrayList<>();
+        for (int sectionY = 0; sectionY < height >> 4; sectionY++) {
+            Map<BlockState, Integer> palette = new LinkedHashMap<>();
+            int[] ids = new int[16 * 16 * 16];
+            for (int i = 0; i < ids.length; i++) {
+                int x = (chunkX << 4) + (i & 15);
+                int y = (sectionY << 4) + (i >> 8);
+                int z = (chunkZ << 4) + ((i >> 4) & 15);
+                BlockState block = mixedBlock(x, y, z, height);
+                Integer id = palette.get(block);
+                if (id == null) {
+                    id = palette.size();
+                    palette.put(block, id);
+                }
+                ids[i] = id;
+            }
+
+            List<CompoundTag> paletteTags = new ArrayList<>();
+            for (BlockState block : palette.keySet()) {
+                Map<String, Tag> entry = new HashMap<>();
+                entry.put("Name", new StringTag(block.getBlockType().getId()));
+                if (!block.getStates().isEmpty()) {
+                    Map<String, Tag> properties = new HashMap<>();
+                    for (Map.Entry<Property<?>, Object> state : block.getStates().entrySet()) {
+                        properties.put(state.getKey().getName(), new StringTag(String.valueOf(state.getValue()).toLowerCase()));
+                    }
+                    entry.put("Properties", new CompoundTag(properties));
+                }
+                paletteTags.add(new CompoundTag(entry));
+            }
+
+            Map<String, Tag> section = new HashMap<>();
+            section.put("Y", new ByteTag((byte) sectionY));
+            section.put("Palette", new ListTag(CompoundTag.class, paletteTags));
+            section.put("BlockStates", new LongArrayTag(packIds(ids, palette.size())));
+            sections.add(new CompoundTag(section));
+        }
+
+        Map<String, Tag> level = new HashMap<>();
+        level.put("xPos", new IntTag(chunkX));
+        level.put("zPos", new IntTag(chunkZ));
+        level.put("Sections", new ListTag(CompoundTag.class, sections));
+        level.put("TileEntities", new ListTag(CompoundTag.class, Collections.<Tag>emptyList()));
+        level.put("Entities", new ListTag(CompoundTag.class, Collections.<Tag>emptyList()));
+        level.put("Biomes", new IntArrayTag(new int[16 * 16]));
+
+        Map<String, Tag> root = new HashMap<>();
+        root.put("DataVersion", new IntTag(ChunkStore.DATA_VERSION_MC_1_13));
+        root.put("Level", new CompoundTag(level));
+        return new CompoundTag(root);
+    }
+
+    /**
+     * Pack palette ids in the layout of Minecraft 1.13, where values may
+     * span two longs.
+     */
+    private static long[] packIds(int[] ids, int paletteSize) {
+        int bits = 4;
+        while ((1 << bits) < paletteSize) {
+            bits++;
+        }
+        long[] packed = new long[(ids.length * bits + 63) / 64];
+        for (int i = 0; i < ids.length; i++) {
+            int bitIndex = i * bits;
+            int index = bitIndex >> 6;
+            int offset = bitIndex & 63;
+            packed[index] |= (long) ids[i] << offset;
+            if (offset + bits > 64) {
+                packed[index + 1] |= (long) ids[i] >>> (64 - offset);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Build a region file in memory that holds a square of chunks from
+     * {@link #chunkTag(int, int, int)}, starting at chunk 0, 0.
+     *
+     * @param width the number of chunks along each side
+     * @param height the height of the ground, a multiple of 16
+     * @return the contents of the region file
+     * @throws IOException on I/O error
+     */
+    static byte[] regionFile(int width, int height) throws IOException {
+        int sectorBytes = 4096;
+        int[] offsets = new int[sectorBytes / 4];
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        for (int z = 0; z < width; z++) {
+            for (int x = 0; x < width; x++) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (NBTOutputStream out = new NBTOutputStream(new DeflaterOutputStream(compressed))) {
+                    out.writeNamedTag("", chunkTag(x, z, height));
+                }
+
+                int sector = 2 + chunks.size() / sectorBytes;
+                DataOutputStream out = new DataOutputStream(chunks);
+                out.writeInt(compressed.size() + 1);
+                out.writeByte(2); // Deflate
+                compressed.writeTo(out);
+                int length = 5 + compressed.size();
+                int sectors = (length + sectorBytes - 1) / sectorBytes;
+                out.write(new byte[sectors * sectorBytes - length]);
+                offsets[x + z * 32] = (sector << 8) | sectors;
+            }
+        }
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream(2 * sectorBytes + chunks.size());
+        DataOutputStream out = new DataOutputStream(file);
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        out.write(new byte[sectorBytes]); // Timestamps
+        chunks.writeTo(out);
+        return file.toByteArray();
+    }
+
+}
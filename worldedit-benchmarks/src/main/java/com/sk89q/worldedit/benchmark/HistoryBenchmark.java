@@ -0,0 +1,92 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.benchmark;
+
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.MaxChangedBlocksException;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures undoing an edit that changed every block of a cube, which
+ * replays its change set through {@code ChangeSetExecutor}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HistoryBenchmark {
+
+    @Param({"32", "64"})
+    int size;
+
+    private MemoryWorld world;
+    private CuboidRegion region;
+    private BlockState dirt;
+    private EditSession lastEdit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkPlatform.install();
+        world = new MemoryWorld();
+        region = new CuboidRegion(world, new Vector(0, 0, 0), new Vector(size - 1, size - 1, size - 1));
+        dirt = BlockTypes.DIRT.getDefaultState();
+        world.fill(region, BlockTypes.STONE.getDefaultState());
+    }
+
+    @Setup(Level.Invocation)
+    public void edit() throws MaxChangedBlocksException {
+        lastEdit = newEditSession();
+        lastEdit.setBlocks(region, dirt);
+        lastEdit.flushQueue();
+    }
+
+    private EditSession newEditSession() {
+        return WorldEdit.getInstance().getEditSessionFactory().getEditSession(world, -1);
+    }
+
+    @Benchmark
+    public EditSession undo() {
+        EditSession editSession = newEditSession();
+        lastEdit.undo(editSession);
+        editSession.flushQueue();
+        return editSession;
+    }
+
+}
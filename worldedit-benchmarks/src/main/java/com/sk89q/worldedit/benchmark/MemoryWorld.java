@@ -0,0 +1,115 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.benchmark;
+
+import com.sk89q.worldedit.BlockVector2D;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.NullWorld;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockTypes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A world that keeps its blocks in memory, in arrays of one chunk each,
+ * and has no entities, biomes or lighting.
+ */
+public class MemoryWorld extends NullWorld {
+
+    private static final int HEIGHT = 256;
+
+    private final Map<BlockVector2D, BlockState[]> chunks = new HashMap<>();
+    private final BlockState air = BlockTypes.AIR.getDefaultState();
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    /**
+     * Set every block in a region, bypassing any edit session.
+     *
+     * @param region the region
+     * @param block the block
+     */
+    public void fill(Region region, BlockStateHolder block) {
+        BlockState state = block.toImmutableState();
+        for (Vector position : region) {
+            put(position, state);
+        }
+    }
+
+    @Override
+    public boolean setBlock(Vector position, BlockStateHolder block, boolean notifyAndLight) {
+        return put(position, block.toImmutableState());
+    }
+
+    private boolean put(Vector position, BlockState block) {
+        int y = position.getBlockY();
+        if (y < 0 || y >= HEIGHT) {
+            return false;
+        }
+        int x = position.getBlockX();
+        int z = position.getBlockZ();
+        BlockState[] chunk = chunks.computeIfAbsent(new BlockVector2D(x >> 4, z >> 4), key -> new BlockState[16 * 16 * HEIGHT]);
+        int index = (y << 8) | ((z & 15) << 4) | (x & 15);
+        BlockState previous = chunk[index];
+        chunk[index] = block;
+        return previous != block;
+    }
+
+    @Override
+    public BlockState getBlock(Vector position) {
+        int y = position.getBlockY();
+        if (y < 0 || y >= HEIGHT) {
+            return air;
+        }
+        int x = position.getBlockX();
+        int z = position.getBlockZ();
+        BlockState[] chunk = chunks.get(new BlockVector2D(x >> 4, z >> 4));
+        if (chunk == null) {
+            return air;
+        }
+        BlockState block = chunk[(y << 8) | ((z & 15) << 4) | (x & 15)];
+        return block != null ? block : air;
+    }
+
+    @Override
+    public void getBlocks(ChunkSectionBuffer section) {
+        BlockState[] chunk = chunks.get(new BlockVector2D(section.getChunkX(), section.getChunkZ()));
+        int offset = section.getSectionY() * ChunkSectionBuffer.SIZE;
+        boolean present = chunk != null && offset >= 0 && offset < chunk.length;
+        for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+            BlockState block = present ? chunk[offset + i] : null;
+            section.setBlock(section.getX(i), section.getY(i), section.getZ(i), block != null ? block : air);
+        }
+    }
+
+    @Override
+    public BaseBlock getFullBlock(Vector position) {
+        return getBlock(position).toBaseBlock();
+    }
+
+}
@@ -21,15 +21,12 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.base.Function;
 import com.sk89q.worldedit.NotABlockException;
 import com.sk89q.worldedit.Vector;
-import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.blocks.BaseItemStack;
+import com.sk89q.worldedit.bukkit.adapter.BukkitImplAdapter;
 import com.sk89q.worldedit.entity.Entity;
-import com.sk89q.worldedit.extension.input.InputParseException;
-import com.sk89q.worldedit.extension.input.ParserContext;
 import com.sk89q.worldedit.util.Location;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldedit.world.block.BlockState;
@@ -48,8 +45,6 @@
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
 import javax.annotation.Nullable;
@@ -62,10 +57,16 @@ public class BukkitAdapter {
     private BukkitAdapter() {
     }
 
-    private static final ParserContext TO_BLOCK_CONTEXT = new ParserContext();
+    private static volatile BukkitBlockTable blockTable = new BukkitBlockTable();
 
-    static {
-        TO_BLOCK_CONTEXT.setRestricted(false);
+    /**
+     * Build the table that translates between WorldEdit block states and
+     * Bukkit block data, once the platform and its registries are ready.
+     *
+     * @param adapter the adapter that provides native block ids, or null
+     */
+    static void loadBlockTable(@Nullable BukkitImplAdapter adapter) {
+        blockTable = BukkitBlockTable.create(adapter);
     }
 
     /**
@@ -321,8 +322,6 @@ public static ItemType asItemType(Material material) {
         return ItemTypes.get(material.getKey().toString());
     }
 
-    private static Map<String, BlockState> blockStateCache = new HashMap<>();
-
     /**
      * Create a WorldEdit BlockState from a Bukkit BlockData
      *
@@ -331,22 +330,9 @@ public static ItemType asItemType(Material material) {
      */
     public static BlockState adapt(BlockData blockData) {
         checkNotNull(blockData);
-        return blockStateCache.computeIfAbsent(blockData.getAsString(), new Function<String, BlockState>() {
-            @Nullable
-            @Override
-            public BlockState apply(@Nullable String input) {
-                try {
-                    return WorldEdit.getInstance().getBlockFactory().parseFromInput(input, TO_BLOCK_CONTEXT).toImmutableState();
-                } catch (InputParseException e) {
-                    e.printStackTrace();
-                    return null;
-                }
-            }
-        });
+        return blockTable.getState(blockData);
     }
 
-    private static Map<String, BlockData> blockDataCache = new HashMap<>();
-
     /**
      * Create a Bukkit BlockData from a WorldEdit BlockStateHolder
      *
@@ -355,13 +341,7 @@ public BlockState apply(@Nullable String input) {
      */
     public static BlockData adapt(BlockStateHolder block) {
         checkNotNull(block);
-        return blockDataCache.computeIfAbsent(block.getAsString(), new Function<String, BlockData>() {
-            @Nullable
-            @Override
-            public BlockData apply(@Nullable String input) {
-                return Bukkit.createBlockData(block.getAsString());
-            }
-        }).clone();
+        return blockTable.getData(block);
     }
 
     /**
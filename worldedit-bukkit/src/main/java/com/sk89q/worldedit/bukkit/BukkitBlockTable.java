@@ -0,0 +1,184 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.bukkit;
+
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.bukkit.adapter.BukkitImplAdapter;
+import com.sk89q.worldedit.extension.input.InputParseException;
+import com.sk89q.worldedit.extension.input.ParserContext;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockType;
+import org.bukkit.Bukkit;
+import org.bukkit.block.data.BlockData;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Translates between WorldEdit block states and Bukkit block data.
+ *
+ * <p>When built with {@link #create(BukkitImplAdapter)}, the block data of
+ * every known state is created up front and stored in an array indexed by
+ * {@link BlockState#getInternalId()}. If the adapter provides native ids,
+ * states are also stored in an array indexed by native id. Anything else,
+ * such as modded states that WorldEdit does not know about, is translated
+ * through its string form once and then remembered in a concurrent map.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+final class BukkitBlockTable {
+
+    private static final Logger log = Logger.getLogger(BukkitBlockTable.class.getCanonicalName());
+    private static final ParserContext TO_BLOCK_CONTEXT = new ParserContext();
+
+    static {
+        TO_BLOCK_CONTEXT.setRestricted(false);
+    }
+
+    @Nullable private final BukkitImplAdapter adapter;
+    private final BlockData[] dataByStateId;
+    private final BlockState[] statesByNativeId;
+    private final ConcurrentMap<BlockData, BlockState> statesByData;
+    private final ConcurrentMap<String, BlockData> otherData = new ConcurrentHashMap<>();
+
+    /**
+     * Create an empty table, which translates every block through its
+     * string form.
+     */
+    BukkitBlockTable() {
+        this(null, new BlockData[0], new BlockState[0], new ConcurrentHashMap<>());
+    }
+
+    private BukkitBlockTable(@Nullable BukkitImplAdapter adapter, BlockData[] dataByStateId,
+                             BlockState[] statesByNativeId, ConcurrentMap<BlockData, BlockState> statesByData) {
+        this.adapter = adapter;
+        this.dataByStateId = dataByStateId;
+        this.statesByNativeId = statesByNativeId;
+        this.statesByData = statesByData;
+    }
+
+    /**
+     * Build a table of every block state that is currently registered.
+     *
+     * @param adapter the adapter that provides native ids, or null
+     * @return the table
+     */
+    static BukkitBlockTable create(@Nullable BukkitImplAdapter adapter) {
+        BlockData[] dataByStateId = new BlockData[0];
+        BlockState[] statesByNativeId = new BlockState[0];
+        ConcurrentMap<BlockData, BlockState> statesByData = new ConcurrentHashMap<>();
+
+        for (BlockType type : BlockType.REGISTRY.values()) {
+            for (BlockState state : type.getAllStates()) {
+                int id = state.getInternalId();
+                if (id < 0) {
+                    continue;
+                }
+
+                BlockData data;
+                try {
+                    data = Bukkit.createBlockData(state.getAsString());
+                } catch (IllegalArgumentException e) {
+                    log.log(Level.FINE, "No Bukkit block data for " + state.getAsString(), e);
+                    continue;
+                }
+
+                if (id >= dataByStateId.length) {
+                    dataByStateId = Arrays.copyOf(dataByStateId, Math.max(id + 1, BlockState.getInternalIdCount()));
+                }
+                dataByStateId[id] = data;
+                statesByData.put(data, state);
+
+                int nativeId = adapter != null ? adapter.getNativeId(data) : -1;
+                if (nativeId >= 0) {
+                    if (nativeId >= statesByNativeId.length) {
+                        statesByNativeId = Arrays.copyOf(statesByNativeId, Math.max(nativeId + 1, statesByNativeId.length * 2));
+                    }
+                    statesByNativeId[nativeId] = state;
+                }
+            }
+        }
+
+        return new BukkitBlockTable(adapter, dataByStateId, statesByNativeId, statesByData);
+    }
+
+    /**
+     * Get the WorldEdit state of some block data.
+     *
+     * @param data the block data
+     * @return the state, or null if it could not be parsed
+     */
+    @Nullable
+    BlockState getState(BlockData data) {
+        if (adapter != null) {
+            int nativeId = adapter.getNativeId(data);
+            if (nativeId >= 0 && nativeId < statesByNativeId.length) {
+                BlockState state = statesByNativeId[nativeId];
+                if (state != null) {
+                    return state;
+                }
+            }
+        }
+
+        BlockState state = statesByData.get(data);
+        if (state == null) {
+            state = parse(data.getAsString());
+            if (state != null) {
+                statesByData.putIfAbsent(data.clone(), state);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Get a new copy of the block data of a WorldEdit block.
+     *
+     * @param block the block
+     * @return the block data
+     */
+    BlockData getData(BlockStateHolder block) {
+        int id = block.toImmutableState().getInternalId();
+        if (id >= 0 && id < dataByStateId.length) {
+            BlockData data = dataByStateId[id];
+            if (data != null) {
+                return data.clone();
+            }
+        }
+
+        return otherData.computeIfAbsent(block.getAsString(), Bukkit::createBlockData).clone();
+    }
+
+    @Nullable
+    private static BlockState parse(String input) {
+        try {
+            return WorldEdit.getInstance().getBlockFactory().parseFromInput(input, TO_BLOCK_CONTEXT).toImmutableState();
+        } catch (InputParseException e) {
+            log.log(Level.WARNING, "Failed to translate Bukkit block data " + input, e);
+            return null;
+        }
+    }
+
+}
@@ -30,6 +30,7 @@
 import com.sk89q.worldedit.blocks.BaseItemStack;
 import com.sk89q.worldedit.bukkit.adapter.BukkitImplAdapter;
 import com.sk89q.worldedit.entity.BaseEntity;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
 import com.sk89q.worldedit.history.change.BlockChange;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.util.TreeGenerator;
@@ -39,6 +40,7 @@
 import com.sk89q.worldedit.world.block.BlockStateHolder;
 import com.sk89q.worldedit.world.weather.WeatherType;
 import com.sk89q.worldedit.world.weather.WeatherTypes;
+import org.bukkit.Chunk;
 import org.bukkit.Effect;
 import org.bukkit.TreeType;
 import org.bukkit.World;
@@ -414,6 +416,20 @@ public com.sk89q.worldedit.world.block.BlockState getBlock(Vector position) {
         return BukkitAdapter.adapt(bukkitBlock.getBlockData());
     }
 
+    @Override
+    public void getBlocks(ChunkSectionBuffer section) {
+        BukkitImplAdapter adapter = WorldEditPlugin.getInstance().getBukkitImplAdapter();
+        if (adapter != null) {
+            try {
+                adapter.getBlocks(getWorld(), section);
+                return;
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to read a chunk section at " + section.getChunkPosition() + ", reading blocks one at a time", e);
+            }
+        }
+        super.getBlocks(section);
+    }
+
     @Override
     public boolean setBlock(Vector position, BlockStateHolder block, boolean notifyAndLight) throws WorldEditException {
         BukkitImplAdapter adapter = WorldEditPlugin.getInstance().getBukkitImplAdapter();
@@ -437,6 +453,31 @@ public boolean setBlock(Vector position, BlockStateHolder block, boolean notifyA
         }
     }
 
+    @Override
+    public int setBlocks(ChunkSectionBuffer section, boolean notifyAndLight) throws WorldEditException {
+        BukkitImplAdapter adapter = WorldEditPlugin.getInstance().getBukkitImplAdapter();
+        if (adapter != null) {
+            try {
+                return adapter.setBlocks(getWorld(), section, notifyAndLight);
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to set a chunk section at " + section.getChunkPosition() + ", setting blocks one at a time", e);
+                return super.setBlocks(section, notifyAndLight);
+            }
+        } else {
+            Chunk chunk = getWorld().getChunkAt(section.getChunkX(), section.getChunkZ());
+            int changed = 0;
+            for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+                BlockStateHolder block = section.getBlock(i);
+                if (block != null) {
+                    Block bukkitBlock = chunk.getBlock(section.getX(i) & 15, section.getY(i), section.getZ(i) & 15);
+                    bukkitBlock.setBlockData(BukkitAdapter.adapt(block), notifyAndLight);
+                    changed++;
+                }
+            }
+            return changed;
+        }
+    }
+
     @Override
     public BaseBlock getFullBlock(Vector position) {
         BukkitImplAdapter adapter = WorldEditPlugin.getInstance().getBukkitImplAdapter();
@@ -32,6 +32,7 @@
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerGameModeChangeEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
@@ -59,6 +60,19 @@ public WorldEditListener(WorldEditPlugin plugin) {
         this.plugin = plugin;
     }
 
+    /**
+     * Called before a player joins, off the main thread
+     *
+     * @param event Relevant event details
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            // start reading their session so that joining doesn't wait on it
+            WorldEdit.getInstance().getSessionManager().preload(event.getUniqueId());
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onGamemode(PlayerGameModeChangeEvent event) {
         if (!plugin.getInternalPlatform().isHookingEvents()) {
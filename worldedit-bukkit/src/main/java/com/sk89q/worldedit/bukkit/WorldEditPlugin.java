@@ -103,6 +103,7 @@ public void onEnable() {
         // Forge WorldEdit and there's (probably) not going to be any other
         // platforms to be worried about... at the current time of writing
         WorldEdit.getInstance().getEventBus().post(new PlatformReadyEvent());
+        BukkitAdapter.loadBlockTable(bukkitAdapter);
 
         // Enable metrics
         new Metrics(this);
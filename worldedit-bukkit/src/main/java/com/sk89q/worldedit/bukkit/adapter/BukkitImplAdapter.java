@@ -21,13 +21,19 @@
 
 import com.sk89q.jnbt.CompoundTag;
 import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.world.block.BaseBlock;
 import com.sk89q.worldedit.entity.BaseEntity;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
 import com.sk89q.worldedit.registry.state.Property;
+import com.sk89q.worldedit.world.block.BlockState;
 import com.sk89q.worldedit.world.block.BlockStateHolder;
 import com.sk89q.worldedit.world.block.BlockType;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.block.Biome;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
@@ -78,6 +84,76 @@ public interface BukkitImplAdapter {
      */
     boolean setBlock(Location location, BlockStateHolder state, boolean notifyAndLight);
 
+    /**
+     * Get the id that the server uses internally for some block data, such
+     * as its index in the server's registry of block states.
+     *
+     * <p>Ids should be small and dense, as they are used to index an array.
+     * The default implementation returns -1, in which case block data is
+     * looked up by value instead.</p>
+     *
+     * @param blockData the block data
+     * @return the id, or -1 if it is not known
+     */
+    default int getNativeId(BlockData blockData) {
+        return -1;
+    }
+
+    /**
+     * Read every block of a chunk section into a buffer.
+     *
+     * <p>The default implementation reads the blocks one at a time from the
+     * chunk, without copying the rest of the chunk. Implementations may
+     * read the section's storage directly instead.</p>
+     *
+     * @param world the world
+     * @param section the buffer to fill
+     */
+    default void getBlocks(World world, ChunkSectionBuffer section) {
+        Chunk chunk = world.getChunkAt(section.getChunkX(), section.getChunkZ());
+
+        // Neighbouring blocks are often the same, so only adapt when the data changes
+        BlockData lastData = null;
+        BlockState lastBlock = null;
+        for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+            int x = section.getX(i);
+            int y = section.getY(i);
+            int z = section.getZ(i);
+            BlockData data = chunk.getBlock(x & 15, y, z & 15).getBlockData();
+            if (!data.equals(lastData)) {
+                lastData = data;
+                lastBlock = BukkitAdapter.adapt(data);
+            }
+            section.setBlock(x, y, z, lastBlock);
+        }
+    }
+
+    /**
+     * Set every block in a buffered chunk section.
+     *
+     * <p>The default implementation calls
+     * {@link #setBlock(Location, BlockStateHolder, boolean)} for each block.
+     * Implementations may write the whole section at once instead.</p>
+     *
+     * @param world the world
+     * @param section the buffered changes
+     * @param notifyAndLight notify and light if set
+     * @return the number of blocks that were likely changed
+     */
+    default int setBlocks(World world, ChunkSectionBuffer section, boolean notifyAndLight) {
+        int changed = 0;
+        for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+            BlockStateHolder block = section.getBlock(i);
+            if (block != null) {
+                Location location = new Location(world, section.getX(i), section.getY(i), section.getZ(i));
+                if (setBlock(location, block, notifyAndLight)) {
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
     /**
      * Get the state for the given entity.
      *
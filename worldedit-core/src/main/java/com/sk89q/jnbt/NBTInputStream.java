@@ -24,9 +24,11 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class reads <strong>NBT</strong>, or <strong>Named Binary Tag</strong>
@@ -39,6 +41,13 @@
  */
 public final class NBTInputStream implements Closeable {
 
+    /**
+     * The deepest compound whose entries may be skipped by name. The root
+     * compound is at depth 0 and the compounds directly inside it, such as
+     * the {@code Level} compound of a chunk, are at depth 1.
+     */
+    private static final int MAX_SKIP_DEPTH = 1;
+
     private final DataInputStream is;
 
     /**
@@ -59,30 +68,50 @@ public NBTInputStream(InputStream is) throws IOException {
      * @throws IOException if an I/O error occurs.
      */
     public NamedTag readNamedTag() throws IOException {
-        return readNamedTag(0);
+        return readNamedTag(Collections.<String>emptySet());
     }
 
     /**
-     * Reads an NBT from the stream.
-     * 
-     * @param depth the depth of this tag
+     * Reads an NBT tag from the stream, skipping over the payload of any
+     * entry with one of the given names in the root compound or in a
+     * compound directly inside it.
+     *
+     * <p>Skipped entries are absent from the returned tag. Nothing is
+     * allocated for them, which makes this cheaper than reading the whole
+     * tag when large parts of it are not needed. Entries with the same
+     * names deeper in the tree, such as inside tile entities, are kept.</p>
+     *
+     * @param skippedNames the names of compound entries to skip
      * @return The tag that was read.
      * @throws IOException if an I/O error occurs.
      */
-    private NamedTag readNamedTag(int depth) throws IOException {
+    public NamedTag readNamedTag(Set<String> skippedNames) throws IOException {
         int type = is.readByte() & 0xFF;
+        String name = type != NBTConstants.TYPE_END ? readName() : "";
+        return new NamedTag(name, readTagPayload(type, 0, skippedNames));
+    }
 
-        String name;
-        if (type != NBTConstants.TYPE_END) {
-            int nameLength = is.readShort() & 0xFFFF;
-            byte[] nameBytes = new byte[nameLength];
-            is.readFully(nameBytes);
-            name = new String(nameBytes, NBTConstants.CHARSET);
-        } else {
-            name = "";
-        }
+    /**
+     * Get a pull-style reader over the rest of this stream.
+     *
+     * @return a stream reader
+     * @see NBTStreamReader
+     */
+    public NBTStreamReader getStreamReader() {
+        return new NBTStreamReader(this);
+    }
 
-        return new NamedTag(name, readTagPayload(type, depth));
+    /**
+     * Reads the name of a tag.
+     *
+     * @return the name
+     * @throws IOException if an I/O error occurs.
+     */
+    String readName() throws IOException {
+        int nameLength = is.readShort() & 0xFFFF;
+        byte[] nameBytes = new byte[nameLength];
+        is.readFully(nameBytes);
+        return new String(nameBytes, NBTConstants.CHARSET);
     }
 
     /**
@@ -90,10 +119,11 @@ private NamedTag readNamedTag(int depth) throws IOException {
      * 
      * @param type the type
      * @param depth the depth
+     * @param skippedNames the names of compound entries to skip
      * @return the tag
      * @throws IOException if an I/O error occurs.
      */
-    private Tag readTagPayload(int type, int depth) throws IOException {
+    Tag readTagPayload(int type, int depth, Set<String> skippedNames) throws IOException {
         switch (type) {
         case NBTConstants.TYPE_END:
             if (depth == 0) {
@@ -130,7 +160,7 @@ private Tag readTagPayload(int type, int depth) throws IOException {
 
             List<Tag> tagList = new ArrayList<>();
             for (int i = 0; i < length; ++i) {
-                Tag tag = readTagPayload(childType, depth + 1);
+                Tag tag = readTagPayload(childType, depth + 1, skippedNames);
                 if (tag instanceof EndTag) {
                     throw new IOException("TAG_End not permitted in a list.");
                 }
@@ -141,12 +171,15 @@ private Tag readTagPayload(int type, int depth) throws IOException {
         case NBTConstants.TYPE_COMPOUND:
             Map<String, Tag> tagMap = new HashMap<>();
             while (true) {
-                NamedTag namedTag = readNamedTag(depth + 1);
-                Tag tag = namedTag.getTag();
-                if (tag instanceof EndTag) {
+                int entryType = is.readByte() & 0xFF;
+                if (entryType == NBTConstants.TYPE_END) {
                     break;
+                }
+                String name = readName();
+                if (depth <= MAX_SKIP_DEPTH && skippedNames.contains(name)) {
+                    skipTagPayload(entryType);
                 } else {
-                    tagMap.put(namedTag.getName(), tag);
+                    tagMap.put(name, readTagPayload(entryType, depth + 1, skippedNames));
                 }
             }
 
@@ -170,6 +203,78 @@ private Tag readTagPayload(int type, int depth) throws IOException {
         }
     }
 
+    /**
+     * Skips over the payload of a tag given the type.
+     *
+     * @param type the type
+     * @throws IOException if an I/O error occurs.
+     */
+    void skipTagPayload(int type) throws IOException {
+        switch (type) {
+        case NBTConstants.TYPE_BYTE:
+            skipFully(1);
+            break;
+        case NBTConstants.TYPE_SHORT:
+            skipFully(2);
+            break;
+        case NBTConstants.TYPE_INT:
+        case NBTConstants.TYPE_FLOAT:
+            skipFully(4);
+            break;
+        case NBTConstants.TYPE_LONG:
+        case NBTConstants.TYPE_DOUBLE:
+            skipFully(8);
+            break;
+        case NBTConstants.TYPE_BYTE_ARRAY:
+            skipFully(is.readInt());
+            break;
+        case NBTConstants.TYPE_STRING:
+            skipFully(is.readShort() & 0xFFFF);
+            break;
+        case NBTConstants.TYPE_LIST:
+            int childType = is.readByte();
+            int length = is.readInt();
+            for (int i = 0; i < length; i++) {
+                skipTagPayload(childType);
+            }
+            break;
+        case NBTConstants.TYPE_COMPOUND:
+            while ((childType = is.readByte() & 0xFF) != NBTConstants.TYPE_END) {
+                skipFully(is.readShort() & 0xFFFF);
+                skipTagPayload(childType);
+            }
+            break;
+        case NBTConstants.TYPE_INT_ARRAY:
+            skipFully(is.readInt() * 4L);
+            break;
+        case NBTConstants.TYPE_LONG_ARRAY:
+            skipFully(is.readInt() * 8L);
+            break;
+        default:
+            throw new IOException("Invalid tag type: " + type + ".");
+        }
+    }
+
+    private void skipFully(long count) throws IOException {
+        while (count > 0) {
+            int skipped = is.skipBytes((int) Math.min(count, Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                is.readByte(); // Throws EOFException at the end of the stream
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    /**
+     * Get the underlying stream.
+     *
+     * @return the stream
+     */
+    DataInputStream getDataInput() {
+        return is;
+    }
+
     @Override
     public void close() throws IOException {
         is.close();
@@ -82,6 +82,25 @@ public void writeNamedTag(String name, Tag tag) throws IOException {
         writeTagPayload(tag);
     }
 
+    /**
+     * Get a writer that writes tags to this stream one value at a time.
+     *
+     * @return a stream writer
+     * @see NBTStreamWriter
+     */
+    public NBTStreamWriter getStreamWriter() {
+        return new NBTStreamWriter(this);
+    }
+
+    /**
+     * Get the underlying stream.
+     *
+     * @return the stream
+     */
+    DataOutputStream getDataOutput() {
+        return os;
+    }
+
     /**
      * Writes tag payload.
      * 
@@ -90,7 +109,7 @@ public void writeNamedTag(String name, Tag tag) throws IOException {
      * @throws IOException
      *             if an I/O error occurs.
      */
-    private void writeTagPayload(Tag tag) throws IOException {
+    void writeTagPayload(Tag tag) throws IOException {
         int type = NBTUtils.getTypeCode(tag.getClass());
         switch (type) {
         case NBTConstants.TYPE_END:
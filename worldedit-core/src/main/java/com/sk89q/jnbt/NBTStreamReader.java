@@ -0,0 +1,395 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.jnbt;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Reads an NBT stream one value at a time, without building a tree of
+ * {@link Tag} objects for it.
+ *
+ * <p>The caller walks the stream by entering the root compound with
+ * {@link #beginRootCompound()} and then calling {@link #nextField()} until
+ * it returns false. For each field, exactly one of the {@code read} methods,
+ * {@link #beginCompound()}, {@link #beginList()}, {@link #skipValue()} or
+ * {@link #readTag()} must be called. Within a list, the same applies to each
+ * of its elements, after which {@link #endList()} must be called.</p>
+ *
+ * <p>Numeric arrays are returned as primitive arrays, and unwanted values
+ * can be skipped without being decoded.</p>
+ */
+public final class NBTStreamReader implements Closeable {
+
+    private static final int COMPOUND = -1;
+
+    private final NBTInputStream source;
+    private final DataInputStream in;
+    private int[] containers = new int[8];
+    private int[] remaining = new int[8];
+    private int depth;
+    private int type = NBTConstants.TYPE_END;
+    private String name = "";
+
+    /**
+     * Create a new reader.
+     *
+     * @param in the input stream
+     * @throws IOException if an I/O error occurs
+     */
+    public NBTStreamReader(InputStream in) throws IOException {
+        this(new NBTInputStream(in));
+    }
+
+    NBTStreamReader(NBTInputStream source) {
+        this.source = source;
+        this.in = source.getDataInput();
+    }
+
+    /**
+     * Read the header of the root tag, which must be a compound, and enter it.
+     *
+     * @return the name of the root tag
+     * @throws IOException if an I/O error occurs, or the root is not a compound
+     */
+    public String beginRootCompound() throws IOException {
+        if (depth != 0) {
+            throw new IllegalStateException("Already reading a tag");
+        }
+        type = in.readByte() & 0xFF;
+        if (type != NBTConstants.TYPE_COMPOUND) {
+            throw new IOException("Root tag is not a compound (type " + type + ")");
+        }
+        name = source.readName();
+        push(COMPOUND, 0);
+        return name;
+    }
+
+    /**
+     * Advance to the next field of the current compound.
+     *
+     * <p>If the end of the compound has been reached, it is exited and false
+     * is returned.</p>
+     *
+     * @return true if there is another field
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean nextField() throws IOException {
+        if (depth == 0 || containers[depth - 1] != COMPOUND) {
+            throw new IllegalStateException("Not in a compound");
+        }
+        type = in.readByte() & 0xFF;
+        if (type == NBTConstants.TYPE_END) {
+            name = "";
+            depth--;
+            consumed();
+            return false;
+        }
+        name = source.readName();
+        return true;
+    }
+
+    /**
+     * Get the type of the current value, as one of the constants in
+     * {@link NBTConstants}.
+     *
+     * @return the type
+     */
+    public int getFieldType() {
+        return type;
+    }
+
+    /**
+     * Get the name of the current field, or an empty string within a list.
+     *
+     * @return the name
+     */
+    public String getFieldName() {
+        return name;
+    }
+
+    public byte readByte() throws IOException {
+        expect(NBTConstants.TYPE_BYTE);
+        byte value = in.readByte();
+        consumed();
+        return value;
+    }
+
+    public short readShort() throws IOException {
+        expect(NBTConstants.TYPE_SHORT);
+        short value = in.readShort();
+        consumed();
+        return value;
+    }
+
+    public int readInt() throws IOException {
+        expect(NBTConstants.TYPE_INT);
+        int value = in.readInt();
+        consumed();
+        return value;
+    }
+
+    public long readLong() throws IOException {
+        expect(NBTConstants.TYPE_LONG);
+        long value = in.readLong();
+        consumed();
+        return value;
+    }
+
+    public float readFloat() throws IOException {
+        expect(NBTConstants.TYPE_FLOAT);
+        float value = in.readFloat();
+        consumed();
+        return value;
+    }
+
+    public double readDouble() throws IOException {
+        expect(NBTConstants.TYPE_DOUBLE);
+        double value = in.readDouble();
+        consumed();
+        return value;
+    }
+
+    public String readString() throws IOException {
+        expect(NBTConstants.TYPE_STRING);
+        String value = source.readName();
+        consumed();
+        return value;
+    }
+
+    public byte[] readByteArray() throws IOException {
+        expect(NBTConstants.TYPE_BYTE_ARRAY);
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        consumed();
+        return value;
+    }
+
+    /**
+     * Read the current value, which must be a byte array, as a stream
+     * rather than all at once.
+     *
+     * <p>The returned stream ends at the end of the array. It must be closed
+     * before reading on, which skips any bytes that have not been read.</p>
+     *
+     * @return a stream of the contents of the array
+     * @throws IOException if an I/O error occurs
+     */
+    public InputStream readByteArrayStream() throws IOException {
+        expect(NBTConstants.TYPE_BYTE_ARRAY);
+        return new ByteArrayStream(in.readInt());
+    }
+
+    public int[] readIntArray() throws IOException {
+        expect(NBTConstants.TYPE_INT_ARRAY);
+        int[] value = new int[in.readInt()];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = in.readInt();
+        }
+        consumed();
+        return value;
+    }
+
+    public long[] readLongArray() throws IOException {
+        expect(NBTConstants.TYPE_LONG_ARRAY);
+        long[] value = new long[in.readInt()];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = in.readLong();
+        }
+        consumed();
+        return value;
+    }
+
+    /**
+     * Enter the current value, which must be a compound. Its fields are
+     * then read with {@link #nextField()}.
+     *
+     * @throws IOException if the current value is not a compound
+     */
+    public void beginCompound() throws IOException {
+        expect(NBTConstants.TYPE_COMPOUND);
+        push(COMPOUND, 0);
+    }
+
+    /**
+     * Enter the current value, which must be a list. The type of its
+     * elements is then returned by {@link #getFieldType()}.
+     *
+     * @return the number of elements in the list
+     * @throws IOException if an I/O error occurs, or the current value is not a list
+     */
+    public int beginList() throws IOException {
+        expect(NBTConstants.TYPE_LIST);
+        int elementType = in.readByte() & 0xFF;
+        int length = in.readInt();
+        push(elementType, length);
+        type = elementType;
+        name = "";
+        return length;
+    }
+
+    /**
+     * Exit the current list, skipping any elements that have not been read.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void endList() throws IOException {
+        if (depth == 0 || containers[depth - 1] == COMPOUND) {
+            throw new IllegalStateException("Not in a list");
+        }
+        while (remaining[depth - 1] > 0) {
+            skipValue();
+        }
+        depth--;
+        consumed();
+    }
+
+    /**
+     * Skip over the current value without decoding it.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void skipValue() throws IOException {
+        source.skipTagPayload(type);
+        consumed();
+    }
+
+    /**
+     * Read the current value as a tree of tags.
+     *
+     * @return the tag
+     * @throws IOException if an I/O error occurs
+     */
+    public Tag readTag() throws IOException {
+        Tag tag = source.readTagPayload(type, 1, Collections.<String>emptySet());
+        consumed();
+        return tag;
+    }
+
+    private void expect(int expected) throws IOException {
+        if (type != expected) {
+            throw new IOException("Expected " + NBTUtils.getTypeName(NBTConstants.getClassFromType(expected))
+                    + " for '" + name + "' but got type " + type);
+        }
+    }
+
+    private void push(int container, int length) {
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            remaining = Arrays.copyOf(remaining, depth * 2);
+        }
+        containers[depth] = container;
+        remaining[depth] = length;
+        depth++;
+    }
+
+    /**
+     * Called when a whole value has been read, to move on to the next
+     * element if it was read from a list.
+     */
+    private void consumed() {
+        if (depth > 0 && containers[depth - 1] != COMPOUND) {
+            remaining[depth - 1]--;
+            type = containers[depth - 1];
+            name = "";
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * Reads the contents of a byte array from the underlying stream.
+     */
+    private final class ByteArrayStream extends FilterInputStream {
+        private int remaining;
+        private boolean closed;
+
+        private ByteArrayStream(int length) {
+            super(NBTStreamReader.this.in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(b, off, Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                while (remaining > 0) {
+                    if (skip(remaining) <= 0) {
+                        if (read() == -1) {
+                            throw new EOFException();
+                        }
+                    }
+                }
+                consumed();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.jnbt;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes an NBT stream one value at a time, without first building a tree
+ * of {@link Tag} objects for it.
+ *
+ * <p>Every compound that is begun must be ended with {@link #endCompound()}.
+ * Lists and arrays are written with their length up front, so the caller
+ * must then write exactly that many elements or bytes.</p>
+ */
+public final class NBTStreamWriter implements Closeable {
+
+    private final NBTOutputStream target;
+    private final DataOutputStream out;
+
+    /**
+     * Create a new writer.
+     *
+     * @param out the output stream
+     * @throws IOException if an I/O error occurs
+     */
+    public NBTStreamWriter(OutputStream out) throws IOException {
+        this(new NBTOutputStream(out));
+    }
+
+    NBTStreamWriter(NBTOutputStream target) {
+        this.target = target;
+        this.out = target.getDataOutput();
+    }
+
+    private void writeHeader(int type, String name) throws IOException {
+        checkNotNull(name);
+        byte[] nameBytes = name.getBytes(NBTConstants.CHARSET);
+        out.writeByte(type);
+        out.writeShort(nameBytes.length);
+        out.write(nameBytes);
+    }
+
+    /**
+     * Begin a compound, either as the root tag or as a field of the current
+     * compound.
+     *
+     * @param name the name
+     * @throws IOException if an I/O error occurs
+     */
+    public void beginCompound(String name) throws IOException {
+        writeHeader(NBTConstants.TYPE_COMPOUND, name);
+    }
+
+    /**
+     * End the current compound, whether it was begun with
+     * {@link #beginCompound(String)} or is an element of a list.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void endCompound() throws IOException {
+        out.writeByte(NBTConstants.TYPE_END);
+    }
+
+    public void writeByte(String name, byte value) throws IOException {
+        writeHeader(NBTConstants.TYPE_BYTE, name);
+        out.writeByte(value);
+    }
+
+    public void writeShort(String name, short value) throws IOException {
+        writeHeader(NBTConstants.TYPE_SHORT, name);
+        out.writeShort(value);
+    }
+
+    public void writeInt(String name, int value) throws IOException {
+        writeHeader(NBTConstants.TYPE_INT, name);
+        out.writeInt(value);
+    }
+
+    public void writeLong(String name, long value) throws IOException {
+        writeHeader(NBTConstants.TYPE_LONG, name);
+        out.writeLong(value);
+    }
+
+    public void writeFloat(String name, float value) throws IOException {
+        writeHeader(NBTConstants.TYPE_FLOAT, name);
+        out.writeFloat(value);
+    }
+
+    public void writeDouble(String name, double value) throws IOException {
+        writeHeader(NBTConstants.TYPE_DOUBLE, name);
+        out.writeDouble(value);
+    }
+
+    public void writeString(String name, String value) throws IOException {
+        writeHeader(NBTConstants.TYPE_STRING, name);
+        byte[] bytes = value.getBytes(NBTConstants.CHARSET);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    public void writeByteArray(String name, byte[] value) throws IOException {
+        writeHeader(NBTConstants.TYPE_BYTE_ARRAY, name);
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    public void writeIntArray(String name, int[] value) throws IOException {
+        writeHeader(NBTConstants.TYPE_INT_ARRAY, name);
+        out.writeInt(value.length);
+        for (int v : value) {
+            out.writeInt(v);
+        }
+    }
+
+    public void writeLongArray(String name, long[] value) throws IOException {
+        writeHeader(NBTConstants.TYPE_LONG_ARRAY, name);
+        out.writeInt(value.length);
+        for (long v : value) {
+            out.writeLong(v);
+        }
+    }
+
+    /**
+     * Begin a byte array of the given length, and return a stream that the
+     * bytes should be written to.
+     *
+     * <p>The returned stream writes straight through to this writer, and
+     * closing it has no effect.</p>
+     *
+     * @param name the name
+     * @param length the number of bytes that will be written
+     * @return a stream for the contents of the array
+     * @throws IOException if an I/O error occurs
+     */
+    public OutputStream beginByteArray(String name, int length) throws IOException {
+        writeHeader(NBTConstants.TYPE_BYTE_ARRAY, name);
+        out.writeInt(length);
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Begin a list. Its elements are then written with
+     * {@link #writeElement(Tag)}, or for a list of compounds, by writing
+     * the fields of each one followed by {@link #endCompound()}.
+     *
+     * @param name the name
+     * @param elementType the type of the elements, from {@link NBTConstants}
+     * @param length the number of elements that will be written
+     * @throws IOException if an I/O error occurs
+     */
+    public void beginList(String name, int elementType, int length) throws IOException {
+        writeHeader(NBTConstants.TYPE_LIST, name);
+        out.writeByte(elementType);
+        out.writeInt(length);
+    }
+
+    /**
+     * Write a tag as the next element of a list.
+     *
+     * @param tag the tag
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeElement(Tag tag) throws IOException {
+        target.writeTagPayload(tag);
+    }
+
+    /**
+     * Write a tag as a field of the current compound.
+     *
+     * @param name the name
+     * @param tag the tag
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTag(String name, Tag tag) throws IOException {
+        target.writeNamedTag(name, tag);
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+
+}
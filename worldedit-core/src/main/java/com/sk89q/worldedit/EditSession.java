@@ -25,7 +25,9 @@
 import static com.sk89q.worldedit.regions.Regions.maximumBlockY;
 import static com.sk89q.worldedit.regions.Regions.minimumBlockY;
 
-import com.sk89q.worldedit.function.block.BlockDistributionCounter;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.sk89q.worldedit.world.block.BaseBlock;
 import com.sk89q.worldedit.entity.BaseEntity;
 import com.sk89q.worldedit.entity.Entity;
@@ -35,20 +37,23 @@
 import com.sk89q.worldedit.extent.MaskingExtent;
 import com.sk89q.worldedit.extent.NullExtent;
 import com.sk89q.worldedit.extent.buffer.ForgetfulExtentBuffer;
-import com.sk89q.worldedit.extent.cache.LastAccessExtentCache;
+import com.sk89q.worldedit.extent.cache.ChunkSectionExtentCache;
 import com.sk89q.worldedit.extent.inventory.BlockBag;
 import com.sk89q.worldedit.extent.inventory.BlockBagExtent;
+import com.sk89q.worldedit.extent.metrics.ProfilingExtent;
 import com.sk89q.worldedit.extent.reorder.MultiStageReorder;
 import com.sk89q.worldedit.extent.validation.BlockChangeLimiter;
 import com.sk89q.worldedit.extent.validation.DataValidatorExtent;
 import com.sk89q.worldedit.extent.world.BlockQuirkExtent;
+import com.sk89q.worldedit.extent.world.ChunkBatchingExtent;
 import com.sk89q.worldedit.extent.world.ChunkLoadingExtent;
 import com.sk89q.worldedit.extent.world.FastModeExtent;
 import com.sk89q.worldedit.extent.world.SurvivalModeExtent;
 import com.sk89q.worldedit.function.GroundFunction;
 import com.sk89q.worldedit.function.RegionMaskingFilter;
 import com.sk89q.worldedit.function.block.BlockReplace;
-import com.sk89q.worldedit.function.block.Counter;
+import com.sk89q.worldedit.function.block.BlockStateCounter;
+import com.sk89q.worldedit.function.block.BlockStateCounts;
 import com.sk89q.worldedit.function.block.Naturalizer;
 import com.sk89q.worldedit.function.generator.GardenPatchGenerator;
 import com.sk89q.worldedit.function.mask.BlockMask;
@@ -75,8 +80,8 @@
 import com.sk89q.worldedit.function.visitor.RecursiveVisitor;
 import com.sk89q.worldedit.function.visitor.RegionVisitor;
 import com.sk89q.worldedit.history.UndoContext;
-import com.sk89q.worldedit.history.changeset.BlockOptimizedHistory;
 import com.sk89q.worldedit.history.changeset.ChangeSet;
+import com.sk89q.worldedit.history.changeset.PackedBlockHistory;
 import com.sk89q.worldedit.internal.expression.Expression;
 import com.sk89q.worldedit.internal.expression.ExpressionException;
 import com.sk89q.worldedit.internal.expression.runtime.RValue;
@@ -100,6 +105,7 @@
 import com.sk89q.worldedit.util.TreeGenerator;
 import com.sk89q.worldedit.util.collection.DoubleArrayList;
 import com.sk89q.worldedit.util.eventbus.EventBus;
+import com.sk89q.worldedit.util.metrics.MetricsRegistry;
 import com.sk89q.worldedit.world.NullWorld;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldedit.world.biome.BaseBiome;
@@ -119,6 +125,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -149,12 +156,13 @@ public enum Stage {
 
     @SuppressWarnings("ProtectedField")
     protected final World world;
-    private final ChangeSet changeSet = new BlockOptimizedHistory();
+    private final ChangeSet changeSet;
 
     private @Nullable FastModeExtent fastModeExtent;
+    private @Nullable ChunkBatchingExtent batchingExtent;
     private final SurvivalModeExtent survivalExtent;
     private @Nullable ChunkLoadingExtent chunkLoadingExtent;
-    private @Nullable LastAccessExtentCache cacheExtent;
+    private @Nullable ChunkSectionExtentCache cacheExtent;
     private @Nullable BlockQuirkExtent quirkExtent;
     private @Nullable DataValidatorExtent validator;
     private final BlockBagExtent blockBagExtent;
@@ -184,32 +192,44 @@ public enum Stage {
         checkNotNull(event);
 
         this.world = world;
+        this.changeSet = new PackedBlockHistory(WorldEdit.getInstance().getConfiguration().historySpillThreshold,
+                WorldEdit.getInstance().getSessionManager().getHistoryManager().getSpillDirectory());
 
         if (world != null) {
             Extent extent;
 
             // These extents are ALWAYS used
             extent = fastModeExtent = new FastModeExtent(world, false);
+            extent = batchingExtent = new ChunkBatchingExtent(fastModeExtent, false);
+            extent = profile(extent, "world");
             extent = survivalExtent = new SurvivalModeExtent(extent, world);
             extent = quirkExtent = new BlockQuirkExtent(extent, world);
             extent = chunkLoadingExtent = new ChunkLoadingExtent(extent, world);
-            extent = cacheExtent = new LastAccessExtentCache(extent);
+            extent = cacheExtent = new ChunkSectionExtentCache(extent, world);
             extent = wrapExtent(extent, eventBus, event, Stage.BEFORE_CHANGE);
+            extent = profile(extent, "before-change");
             extent = validator = new DataValidatorExtent(extent, world);
             extent = blockBagExtent = new BlockBagExtent(extent, blockBag);
+            extent = profile(extent, "block-bag");
+            Extent bypassReorderHistory = extent;
 
             // This extent can be skipped by calling rawSetBlock()
             extent = reorderExtent = new MultiStageReorder(extent, false);
+            extent = profile(extent, "reorder");
+            Extent bypassHistory = extent;
             extent = wrapExtent(extent, eventBus, event, Stage.BEFORE_REORDER);
+            extent = profile(extent, "before-reorder");
 
             // These extents can be skipped by calling smartSetBlock()
             extent = changeSetExtent = new ChangeSetExtent(extent, changeSet);
+            extent = profile(extent, "history");
             extent = maskingExtent = new MaskingExtent(extent, Masks.alwaysTrue());
             extent = changeLimiter = new BlockChangeLimiter(extent, maxBlocks);
             extent = wrapExtent(extent, eventBus, event, Stage.BEFORE_HISTORY);
+            extent = profile(extent, "before-history");
 
-            this.bypassReorderHistory = blockBagExtent;
-            this.bypassHistory = reorderExtent;
+            this.bypassReorderHistory = bypassReorderHistory;
+            this.bypassHistory = bypassHistory;
             this.bypassNone = extent;
         } else {
             Extent extent = new NullExtent();
@@ -231,6 +251,22 @@ private Extent wrapExtent(Extent extent, EventBus eventBus, EditSessionEvent eve
         return event.getExtent();
     }
 
+    /**
+     * Wrap an extent so that the time taken to set blocks through it, and
+     * to commit it, is recorded if metrics are enabled.
+     *
+     * @param extent the extent
+     * @param stage the name of the stage, which is prefixed with {@code edit.}
+     * @return the extent to use in its place
+     */
+    private static Extent profile(Extent extent, String stage) {
+        MetricsRegistry metrics = WorldEdit.getInstance().getMetrics();
+        if (metrics.isEnabled()) {
+            return new ProfilingExtent(extent, metrics.histogram("edit." + stage), metrics.histogram("edit." + stage + ".commit"));
+        }
+        return extent;
+    }
+
     /**
      * Get the world.
      *
@@ -278,10 +314,14 @@ public boolean isQueueEnabled() {
     }
 
     /**
-     * Queue certain types of block for better reproduction of those blocks.
+     * Queue certain types of block for better reproduction of those blocks,
+     * and write changes to the world a chunk section at a time.
      */
     public void enableQueue() {
         reorderExtent.setEnabled(true);
+        if (batchingExtent != null) {
+            batchingExtent.setEnabled(true);
+        }
     }
 
     /**
@@ -291,7 +331,10 @@ public void disableQueue() {
         if (isQueueEnabled()) {
             flushQueue();
         }
-        reorderExtent.setEnabled(true);
+        reorderExtent.setEnabled(false);
+        if (batchingExtent != null) {
+            batchingExtent.setEnabled(false);
+        }
     }
 
     /**
@@ -604,11 +647,24 @@ public void flushQueue() {
      */
     public int countBlocks(Region region, Set<BlockStateHolder> searchBlocks) {
         BlockMask mask = new BlockMask(this, searchBlocks);
-        Counter count = new Counter();
-        RegionMaskingFilter filter = new RegionMaskingFilter(mask, count);
-        RegionVisitor visitor = new RegionVisitor(region, filter);
-        Operations.completeBlindly(visitor); // We can't throw exceptions, nor do we expect any
-        return count.getCount();
+        // Counting on the calling thread completes the future before it is returned
+        ListenableFuture<BlockStateCounts> counts = BlockStateCounter.count(world, region, MoreExecutors.directExecutor());
+        return (int) Futures.getUnchecked(counts).getCount(mask.getStateIds());
+    }
+
+    /**
+     * Count the number of blocks of each state in a region.
+     *
+     * <p>Chunk sections are copied from the world on the calling thread,
+     * but are counted in the background, so the returned future may not be
+     * complete yet. Changes that are still queued in this session are not
+     * counted.</p>
+     *
+     * @param region the region
+     * @return a future for the counts
+     */
+    public ListenableFuture<BlockStateCounts> countBlockStates(Region region) {
+        return BlockStateCounter.count(world, region, ForkJoinPool.commonPool());
     }
 
     /**
@@ -1655,10 +1711,7 @@ public int makeForest(Vector basePosition, int size, double density, TreeGenerat
      * @return the results
      */
     public List<Countable<BlockStateHolder>> getBlockDistribution(Region region, boolean fuzzy) {
-        BlockDistributionCounter count = new BlockDistributionCounter(this, fuzzy);
-        RegionVisitor visitor = new RegionVisitor(region, count);
-        Operations.completeBlindly(visitor);
-        return count.getDistribution();
+        return Futures.getUnchecked(countBlockStates(region)).getDistribution(fuzzy);
     }
 
     public int makeShape(final Region region, final Vector zero, final Vector unit, final Pattern pattern, final String expressionString, final boolean hollow) throws ExpressionException, MaxChangedBlocksException {
@@ -109,6 +109,8 @@ public abstract class LocalConfiguration {
     public int maxPolyhedronPoints = 20;
     public String shellSaveType = "";
     public SnapshotRepository snapshotRepo = null;
+    public int snapshotRestoreThreads = 2;
+    public int snapshotReadAhead = 16;
     public int maxRadius = -1;
     public int maxSuperPickaxeSize = 5;
     public int maxBrushRadius = 6;
@@ -128,8 +130,17 @@ public abstract class LocalConfiguration {
     public int navigationWandMaxDistance = 50;
     public int scriptTimeout = 3000;
     public int calculationTimeout = 100;
+    public int historySpillThreshold = 1000000;
+    public int historyMaxMemory = -1;
+    public int historyMaxSessionMemory = -1;
+    public String sessionFormat = "json";
+    public int operationTickBudget = 0;
+    public boolean metricsEnabled = false;
+    public boolean metricsJmx = false;
+    public String metricsFile = "";
     public Set<String> allowedDataCycleBlocks = new HashSet<>();
     public String saveDir = "schematics";
+    public int schematicThreads = 2;
     public String scriptsDir = "craftscripts";
     public boolean showHelpInfo = true;
     public int butcherDefaultRadius = -1;
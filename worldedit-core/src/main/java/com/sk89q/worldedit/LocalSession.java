@@ -36,6 +36,7 @@
 import com.sk89q.worldedit.extension.platform.Actor;
 import com.sk89q.worldedit.extent.inventory.BlockBag;
 import com.sk89q.worldedit.function.mask.Mask;
+import com.sk89q.worldedit.history.changeset.ChangeSet;
 import com.sk89q.worldedit.internal.cui.CUIEvent;
 import com.sk89q.worldedit.internal.cui.CUIRegion;
 import com.sk89q.worldedit.internal.cui.SelectionShapeEvent;
@@ -45,6 +46,7 @@
 import com.sk89q.worldedit.regions.selector.CuboidRegionSelector;
 import com.sk89q.worldedit.regions.selector.RegionSelectorType;
 import com.sk89q.worldedit.session.ClipboardHolder;
+import com.sk89q.worldedit.session.HistoryManager;
 import com.sk89q.worldedit.session.request.Request;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldedit.world.block.BaseBlock;
@@ -52,12 +54,16 @@
 import com.sk89q.worldedit.world.item.ItemTypes;
 import com.sk89q.worldedit.world.snapshot.Snapshot;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.annotation.Nullable;
 
@@ -66,10 +72,13 @@
  */
 public class LocalSession {
 
+    private static final Logger log = Logger.getLogger(LocalSession.class.getCanonicalName());
+
     public transient static int MAX_HISTORY_SIZE = 15;
 
     // Non-session related fields
     private transient LocalConfiguration config;
+    private transient HistoryManager historyManager;
     private transient final AtomicBoolean dirty = new AtomicBoolean();
     private transient int failedCuiAttempts = 0;
 
@@ -126,6 +135,16 @@ public void setConfiguration(LocalConfiguration config) {
         this.config = config;
     }
 
+    /**
+     * Set the history manager that keeps the history of this session
+     * within a memory budget.
+     *
+     * @param historyManager the history manager, or {@code null} for none
+     */
+    public void setHistoryManager(@Nullable HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
     /**
      * Called on post load of the session from persistent storage.
      */
@@ -185,6 +204,9 @@ public void setTimezone(TimeZone timezone) {
      * Clear history.
      */
     public void clearHistory() {
+        for (EditSession editSession : history) {
+            discard(editSession);
+        }
         history.clear();
         historyPointer = 0;
     }
@@ -203,13 +225,53 @@ public void remember(EditSession editSession) {
 
         // Destroy any sessions after this undo point
         while (historyPointer < history.size()) {
-            history.remove(historyPointer);
+            discard(history.remove(historyPointer));
         }
         history.add(editSession);
         while (history.size() > MAX_HISTORY_SIZE) {
-            history.remove(0);
+            discard(history.remove(0));
         }
         historyPointer = history.size();
+        if (historyManager != null) {
+            historyManager.remember(this, editSession);
+        }
+    }
+
+    /**
+     * Forget the oldest edit session in the history. If every edit session
+     * has been undone, the whole history is cleared instead, because the
+     * remaining edit sessions could not be redone without it.
+     */
+    public void discardOldestHistory() {
+        if (history.isEmpty()) {
+            return;
+        }
+        if (historyPointer == 0) {
+            clearHistory();
+        } else {
+            discard(history.removeFirst());
+            --historyPointer;
+        }
+    }
+
+    /**
+     * Release any resources, such as temporary files, held by the history
+     * of an edit session that is no longer remembered.
+     *
+     * @param editSession the edit session
+     */
+    private void discard(EditSession editSession) {
+        if (historyManager != null) {
+            historyManager.forget(editSession);
+        }
+        ChangeSet changeSet = editSession.getChangeSet();
+        if (changeSet instanceof Closeable) {
+            try {
+                ((Closeable) changeSet).close();
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to release edit history", e);
+            }
+        }
     }
 
     /**
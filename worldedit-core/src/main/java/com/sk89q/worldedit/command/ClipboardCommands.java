@@ -23,7 +23,10 @@
 import static com.sk89q.minecraft.util.commands.Logging.LogMode.PLACEMENT;
 import static com.sk89q.minecraft.util.commands.Logging.LogMode.REGION;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.sk89q.minecraft.util.commands.Command;
+import com.sk89q.minecraft.util.commands.CommandContext;
 import com.sk89q.minecraft.util.commands.CommandPermissions;
 import com.sk89q.minecraft.util.commands.Logging;
 import com.sk89q.worldedit.EditSession;
@@ -32,13 +35,16 @@
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.entity.Player;
-import com.sk89q.worldedit.extent.clipboard.BlockArrayClipboard;
+import com.sk89q.worldedit.extension.platform.CommandManager;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.PaletteClipboard;
 import com.sk89q.worldedit.function.block.BlockReplace;
 import com.sk89q.worldedit.function.mask.Mask;
 import com.sk89q.worldedit.function.operation.ForwardExtentCopy;
 import com.sk89q.worldedit.function.operation.Operation;
+import com.sk89q.worldedit.function.operation.OperationScheduler;
 import com.sk89q.worldedit.function.operation.Operations;
+import com.sk89q.worldedit.function.operation.ScheduledOperation;
 import com.sk89q.worldedit.function.pattern.Pattern;
 import com.sk89q.worldedit.internal.annotation.Direction;
 import com.sk89q.worldedit.internal.annotation.Selection;
@@ -50,6 +56,10 @@
 import com.sk89q.worldedit.util.command.binding.Switch;
 import com.sk89q.worldedit.util.command.parametric.Optional;
 
+import java.util.concurrent.CancellationException;
+
+import javax.annotation.Nullable;
+
 /**
  * Clipboard commands.
  */
@@ -84,7 +94,7 @@ public void copy(Player player, LocalSession session, EditSession editSession,
                      @Selection Region region, @Switch('e') boolean copyEntities,
                      @Switch('m') Mask mask) throws WorldEditException {
 
-        BlockArrayClipboard clipboard = new BlockArrayClipboard(region);
+        PaletteClipboard clipboard = new PaletteClipboard(region);
         clipboard.setOrigin(session.getPlacementPosition(player));
         ForwardExtentCopy copy = new ForwardExtentCopy(editSession, region, clipboard, region.getMinimumPoint());
         copy.setCopyingEntities(copyEntities);
@@ -115,7 +125,7 @@ public void cut(Player player, LocalSession session, EditSession editSession,
                     @Selection Region region, @Optional("air") Pattern leavePattern, @Switch('e') boolean copyEntities,
                     @Switch('m') Mask mask) throws WorldEditException {
 
-        BlockArrayClipboard clipboard = new BlockArrayClipboard(region);
+        PaletteClipboard clipboard = new PaletteClipboard(region);
         clipboard.setOrigin(session.getPlacementPosition(player));
         ForwardExtentCopy copy = new ForwardExtentCopy(editSession, region, clipboard, region.getMinimumPoint());
         copy.setSourceFunction(new BlockReplace(editSession, leavePattern));
@@ -146,7 +156,7 @@ public void cut(Player player, LocalSession session, EditSession editSession,
     )
     @CommandPermissions("worldedit.clipboard.paste")
     @Logging(PLACEMENT)
-    public void paste(Player player, LocalSession session, EditSession editSession,
+    public void paste(Player player, LocalSession session, EditSession editSession, CommandContext args,
                       @Switch('a') boolean ignoreAirBlocks, @Switch('o') boolean atOrigin,
                       @Switch('s') boolean selectPasted) throws WorldEditException {
 
@@ -160,7 +170,42 @@ public void paste(Player player, LocalSession session, EditSession editSession,
                 .to(to)
                 .ignoreAirBlocks(ignoreAirBlocks)
                 .build();
-        Operations.completeLegacy(operation);
+
+        OperationScheduler scheduler = worldEdit.getOperationScheduler();
+        boolean scheduled = scheduler.isEnabled();
+        if (scheduled) {
+            // The paste keeps using this edit session after the command
+            // returns, so it is remembered and flushed once the paste is done
+            // rather than by the command manager
+            CommandManager.detachEditSession(args.getLocals());
+            ScheduledOperation paste = scheduler.submit(operation, player);
+            Futures.addCallback(paste.getFuture(), new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(@Nullable Void result) {
+                    finish();
+                    player.print("The clipboard has been pasted at " + to);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    finish();
+                    if (t instanceof CancellationException) {
+                        player.printError("The paste was cancelled.");
+                    } else {
+                        player.printError("The paste failed: " + t.getMessage());
+                    }
+                }
+
+                private void finish() {
+                    session.remember(editSession);
+                    editSession.flushQueue();
+                    worldEdit.getSessionManager().getHistoryManager().update(editSession);
+                    worldEdit.flushBlockBag(player, editSession);
+                }
+            });
+        } else {
+            Operations.completeLegacy(operation);
+        }
 
         if (selectPasted) {
             Vector clipboardOffset = clipboard.getRegion().getMinimumPoint().subtract(clipboard.getOrigin());
@@ -172,7 +217,11 @@ public void paste(Player player, LocalSession session, EditSession editSession,
             selector.explainRegionAdjust(player, session);
         }
 
-        player.print("The clipboard has been pasted at " + to);
+        if (scheduled) {
+            player.print("Pasting in the background. Use /we jobs to see its progress.");
+        } else {
+            player.print("The clipboard has been pasted at " + to);
+        }
     }
 
     @Command(
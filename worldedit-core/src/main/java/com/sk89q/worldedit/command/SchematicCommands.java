@@ -21,9 +21,15 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.sk89q.minecraft.util.commands.Command;
 import com.sk89q.minecraft.util.commands.CommandContext;
-import com.sk89q.minecraft.util.commands.CommandException;
 import com.sk89q.minecraft.util.commands.CommandPermissions;
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.LocalConfiguration;
@@ -32,29 +38,25 @@
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.entity.Player;
 import com.sk89q.worldedit.extension.platform.Actor;
-import com.sk89q.worldedit.extent.clipboard.BlockArrayClipboard;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.PaletteClipboard;
 import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
 import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardWriter;
 import com.sk89q.worldedit.function.operation.Operations;
 import com.sk89q.worldedit.math.transform.Transform;
 import com.sk89q.worldedit.session.ClipboardHolder;
 import com.sk89q.worldedit.util.command.binding.Switch;
 import com.sk89q.worldedit.util.command.parametric.Optional;
-import com.sk89q.worldedit.util.io.Closer;
 import com.sk89q.worldedit.util.io.file.FilenameException;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -70,6 +72,7 @@ public class SchematicCommands {
     private static final int SCHEMATICS_PER_PAGE = 9;
     private static final Logger log = Logger.getLogger(SchematicCommands.class.getCanonicalName());
     private final WorldEdit worldEdit;
+    private final SetMultimap<UUID, Future<?>> pending = Multimaps.synchronizedSetMultimap(HashMultimap.create());
 
     /**
      * Create a new instance.
@@ -108,20 +111,33 @@ public void load(Player player, LocalSession session, @Optional("sponge") String
             return;
         }
 
-        try (Closer closer = Closer.create()) {
-            FileInputStream fis = closer.register(new FileInputStream(f));
-            BufferedInputStream bis = closer.register(new BufferedInputStream(fis));
-            ClipboardReader reader = closer.register(format.getReader(bis));
-
-            Clipboard clipboard = reader.read();
-            session.setClipboard(new ClipboardHolder(clipboard));
-
-            log.info(player.getName() + " loaded " + f.getCanonicalPath());
-            player.print(filename + " loaded. Paste it with //paste");
-        } catch (IOException e) {
-            player.printError("Schematic could not read or it does not exist: " + e.getMessage());
-            log.log(Level.WARNING, "Failed to load a saved clipboard", e);
+        ListenableFuture<Clipboard> future;
+        try {
+            future = worldEdit.getClipboardIO().load(f, format);
+        } catch (RejectedExecutionException e) {
+            player.printError("Too many schematics are being loaded or saved. Try again later.");
+            return;
         }
+        track(player, future, "Loading " + filename + "...");
+
+        Futures.addCallback(future, new FutureCallback<Clipboard>() {
+            @Override
+            public void onSuccess(Clipboard clipboard) {
+                session.setClipboard(new ClipboardHolder(clipboard));
+                log.info(player.getName() + " loaded " + f.getAbsolutePath());
+                player.print(filename + " loaded. Paste it with //paste");
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof CancellationException) {
+                    player.print("Cancelled loading " + filename + ".");
+                } else {
+                    player.printError("Schematic could not read or it does not exist: " + t.getMessage());
+                    log.log(Level.WARNING, "Failed to load a saved clipboard", t);
+                }
+            }
+        }, worldEdit.getOperationScheduler());
     }
 
     @Command(
@@ -131,7 +147,7 @@ public void load(Player player, LocalSession session, @Optional("sponge") String
             min = 1, max = 2
     )
     @CommandPermissions({ "worldedit.clipboard.save", "worldedit.schematic.save" })
-    public void save(Player player, LocalSession session, @Optional("sponge") String formatName, String filename) throws CommandException, WorldEditException {
+    public void save(Player player, LocalSession session, @Optional("sponge") String formatName, String filename) throws WorldEditException {
         LocalConfiguration config = worldEdit.getConfiguration();
 
         File dir = worldEdit.getWorkingDirectoryFile(config.saveDir);
@@ -144,39 +160,91 @@ public void save(Player player, LocalSession session, @Optional("sponge") String
 
         File f = worldEdit.getSafeSaveFile(player, dir, filename, format.getPrimaryFileExtension());
 
+        // The holder is replaced rather than changed by other commands, so
+        // the clipboard and transform can be copied on the worker thread
         ClipboardHolder holder = session.getClipboard();
         Clipboard clipboard = holder.getClipboard();
         Transform transform = holder.getTransform();
-        Clipboard target;
-
-        // If we have a transform, bake it into the copy
-        if (!transform.isIdentity()) {
-            FlattenedClipboardTransform result = FlattenedClipboardTransform.transform(clipboard, transform);
-            target = new BlockArrayClipboard(result.getTransformedRegion());
-            target.setOrigin(clipboard.getOrigin());
-            Operations.completeLegacy(result.copyTo(target));
-        } else {
-            target = clipboard;
+
+        ListenableFuture<File> future;
+        try {
+            future = worldEdit.getClipboardIO().save(f, format, () -> bakeTransform(clipboard, transform));
+        } catch (RejectedExecutionException e) {
+            player.printError("Too many schematics are being loaded or saved. Try again later.");
+            return;
         }
+        track(player, future, "Saving " + filename + "...");
+
+        Futures.addCallback(future, new FutureCallback<File>() {
+            @Override
+            public void onSuccess(File result) {
+                log.info(player.getName() + " saved " + f.getAbsolutePath());
+                player.print(filename + " saved.");
+            }
 
-        try (Closer closer = Closer.create()) {
-            // Create parent directories
-            File parent = f.getParentFile();
-            if (parent != null && !parent.exists()) {
-                if (!parent.mkdirs()) {
-                    throw new CommandException("Could not create folder for schematics!");
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof CancellationException) {
+                    player.print("Cancelled saving " + filename + ".");
+                } else {
+                    player.printError("Schematic could not written: " + t.getMessage());
+                    log.log(Level.WARNING, "Failed to write a saved clipboard", t);
                 }
             }
+        }, worldEdit.getOperationScheduler());
+    }
+
+    /**
+     * Copy a clipboard with a transform applied, if the transform is not
+     * the identity transform.
+     *
+     * @param clipboard the clipboard
+     * @param transform the transform
+     * @return the transformed clipboard
+     * @throws WorldEditException thrown if the copy fails
+     */
+    private static Clipboard bakeTransform(Clipboard clipboard, Transform transform) throws WorldEditException {
+        if (transform.isIdentity()) {
+            return clipboard;
+        }
+        FlattenedClipboardTransform result = FlattenedClipboardTransform.transform(clipboard, transform);
+        Clipboard target = new PaletteClipboard(result.getTransformedRegion());
+        target.setOrigin(clipboard.getOrigin());
+        Operations.completeLegacy(result.copyTo(target));
+        return target;
+    }
+
+    /**
+     * Remember a player's load or save until it completes, so that it can
+     * be cancelled, and tell them if it is not complete yet.
+     *
+     * @param player the player
+     * @param future the load or save
+     * @param message the message to send if it is not complete
+     */
+    private void track(Player player, ListenableFuture<?> future, String message) {
+        UUID id = player.getUniqueId();
+        pending.put(id, future);
+        future.addListener(() -> pending.remove(id, future), MoreExecutors.directExecutor());
+        if (!future.isDone()) {
+            player.print(message);
+        }
+    }
 
-            FileOutputStream fos = closer.register(new FileOutputStream(f));
-            BufferedOutputStream bos = closer.register(new BufferedOutputStream(fos));
-            ClipboardWriter writer = closer.register(format.getWriter(bos));
-            writer.write(target);
-            log.info(player.getName() + " saved " + f.getCanonicalPath());
-            player.print(filename + " saved.");
-        } catch (IOException e) {
-            player.printError("Schematic could not written: " + e.getMessage());
-            log.log(Level.WARNING, "Failed to write a saved clipboard", e);
+    @Command(
+            aliases = { "cancel" },
+            usage = "",
+            desc = "Cancel loading or saving schematics",
+            max = 0
+    )
+    @CommandPermissions({ "worldedit.clipboard.load", "worldedit.schematic.load", "worldedit.clipboard.save", "worldedit.schematic.save" })
+    public void cancel(Player player) throws WorldEditException {
+        boolean cancelled = false;
+        for (Future<?> future : pending.removeAll(player.getUniqueId())) {
+            cancelled |= future.cancel(true);
+        }
+        if (!cancelled) {
+            player.printError("You are not loading or saving a schematic.");
         }
     }
 
@@ -22,6 +22,9 @@
 import static com.sk89q.minecraft.util.commands.Logging.LogMode.POSITION;
 import static com.sk89q.minecraft.util.commands.Logging.LogMode.REGION;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.sk89q.minecraft.util.commands.Command;
 import com.sk89q.minecraft.util.commands.CommandContext;
 import com.sk89q.minecraft.util.commands.CommandException;
@@ -38,6 +41,8 @@
 import com.sk89q.worldedit.extension.input.ParserContext;
 import com.sk89q.worldedit.extension.platform.permission.ActorSelectorLimits;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.function.block.BlockStateCounts;
+import com.sk89q.worldedit.function.mask.BlockMask;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.regions.RegionOperationException;
 import com.sk89q.worldedit.regions.RegionSelector;
@@ -641,8 +646,20 @@ public void count(Player player, LocalSession session, EditSession editSession,
         context.setRestricted(false);
 
         Set<BlockStateHolder> searchBlocks = we.getBlockFactory().parseFromListInput(args.getString(0), context);
-        int count = editSession.countBlocks(session.getSelection(player.getWorld()), searchBlocks);
-        player.print("Counted: " + count);
+        BlockMask mask = new BlockMask(editSession, searchBlocks);
+        ListenableFuture<BlockStateCounts> future = editSession.countBlockStates(session.getSelection(player.getWorld()));
+
+        Futures.addCallback(future, new FutureCallback<BlockStateCounts>() {
+            @Override
+            public void onSuccess(BlockStateCounts counts) {
+                player.print("Counted: " + counts.getCount(mask.getStateIds()));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                player.printError("Blocks could not be counted: " + t.getMessage());
+            }
+        }, we.getOperationScheduler());
     }
 
     @Command(
@@ -660,18 +677,33 @@ public void count(Player player, LocalSession session, EditSession editSession,
     @CommandPermissions("worldedit.analysis.distr")
     public void distr(Player player, LocalSession session, EditSession editSession, CommandContext args) throws WorldEditException, CommandException {
 
-        int size;
         boolean useData = args.hasFlag('d');
-        List<Countable<BlockStateHolder>> distribution;
+        Region region;
 
         if (args.hasFlag('c')) {
             // TODO: Update for new clipboard
             throw new CommandException("Needs to be re-written again");
         } else {
-            distribution = editSession.getBlockDistribution(session.getSelection(player.getWorld()), !useData);
-            size = session.getSelection(player.getWorld()).getArea();
+            region = session.getSelection(player.getWorld());
         }
 
+        int size = region.getArea();
+        ListenableFuture<BlockStateCounts> future = editSession.countBlockStates(region);
+
+        Futures.addCallback(future, new FutureCallback<BlockStateCounts>() {
+            @Override
+            public void onSuccess(BlockStateCounts counts) {
+                printDistribution(player, counts.getDistribution(!useData), size, useData);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                player.printError("Blocks could not be counted: " + t.getMessage());
+            }
+        }, we.getOperationScheduler());
+    }
+
+    private static void printDistribution(Player player, List<Countable<BlockStateHolder>> distribution, int size, boolean useData) {
         if (distribution.isEmpty()) {  // *Should* always be false
             player.printError("No blocks counted.");
             return;
@@ -129,7 +129,7 @@ public void restore(Player player, LocalSession session, EditSession editSession
             SnapshotRestore restore = new SnapshotRestore(chunkStore, editSession, region);
             //player.print(restore.getChunksAffected() + " chunk(s) will be loaded.");
 
-            restore.restore();
+            restore.restore(config.snapshotRestoreThreads, config.snapshotReadAhead);
 
             if (restore.hadTotalFailure()) {
                 String error = restore.getLastErrorMessage();
@@ -32,10 +32,15 @@
 import com.sk89q.worldedit.extension.platform.Capability;
 import com.sk89q.worldedit.extension.platform.Platform;
 import com.sk89q.worldedit.extension.platform.PlatformManager;
+import com.sk89q.worldedit.function.operation.ScheduledOperation;
+import com.sk89q.worldedit.session.HistoryManager;
+import com.sk89q.worldedit.util.metrics.MetricsRegistry;
+import com.sk89q.worldedit.util.report.DataReport;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.List;
 import java.util.TimeZone;
 
 public class WorldEditCommands {
@@ -113,6 +118,95 @@ public void tz(Player player, LocalSession session, EditSession editSession, Com
                 + dateFormat.format(Calendar.getInstance(tz).getTime()));
     }
 
+    @Command(
+        aliases = { "jobs" },
+        usage = "",
+        desc = "List your operations that are running in the background",
+        min = 0,
+        max = 0
+    )
+    public void jobs(Actor actor) throws WorldEditException {
+        List<ScheduledOperation> operations = we.getOperationScheduler().getOperations(actor);
+        if (operations.isEmpty()) {
+            actor.print("You have no operations running.");
+            return;
+        }
+
+        for (ScheduledOperation operation : operations) {
+            actor.print("#" + operation.getId() + " (" + operation.getTicks() + " ticks): "
+                    + String.join(", ", operation.getStatusMessages()));
+        }
+    }
+
+    @Command(
+        aliases = { "cancel" },
+        usage = "",
+        desc = "Cancel your operations that are running in the background",
+        min = 0,
+        max = 0
+    )
+    public void cancel(Actor actor) throws WorldEditException {
+        int cancelled = we.getOperationScheduler().cancel(actor);
+        actor.print(cancelled + " operation(s) cancelled.");
+    }
+
+    @Command(
+        aliases = { "metrics" },
+        usage = "",
+        flags = "r",
+        desc = "Show how long commands and edits have taken",
+        help = "Shows the number of calls and their mean, median, 99th percentile\n" +
+                "and maximum times in microseconds. The times of each stage of an\n" +
+                "edit include the time spent in the stages below it.\n" +
+                "Flags:\n" +
+                "  -r resets the timings after showing them",
+        min = 0,
+        max = 0
+    )
+    @CommandPermissions("worldedit.metrics")
+    public void metrics(Actor actor, CommandContext args) throws WorldEditException {
+        MetricsRegistry metrics = we.getMetrics();
+        if (!metrics.isEnabled()) {
+            actor.printError("Metrics are not enabled in the configuration.");
+            return;
+        }
+
+        DataReport report = metrics.createReport();
+        actor.printDebug("----------- " + report.getTitle() + " -----------");
+        for (String line : report.toString().split("\n")) {
+            actor.printDebug(line);
+        }
+
+        if (args.hasFlag('r')) {
+            metrics.reset();
+            actor.print("Metrics reset.");
+        }
+    }
+
+    @Command(
+        aliases = { "history" },
+        usage = "",
+        desc = "Show how much memory edit history is using",
+        help = "Shows the memory used by the undo history of all sessions and\n" +
+                "of your own session, and the limits that apply to it.",
+        min = 0,
+        max = 0
+    )
+    @CommandPermissions("worldedit.history.usage")
+    public void history(Actor actor) throws WorldEditException {
+        HistoryManager history = we.getSessionManager().getHistoryManager();
+        DataReport report = history.createReport();
+        actor.printDebug("----------- " + report.getTitle() + " -----------");
+        for (String line : report.toString().split("\n")) {
+            actor.printDebug(line);
+        }
+
+        LocalSession session = we.getSessionManager().getIfPresent(actor);
+        if (session != null) {
+            actor.print("Your history is using " + history.getMemoryUsage(session) / 1024 + " KB.");
+        }
+    }
+
     @Command(
         aliases = { "help" },
         usage = "[<command>]",
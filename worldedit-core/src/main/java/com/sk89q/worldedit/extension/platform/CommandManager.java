@@ -67,6 +67,7 @@
 import com.sk89q.worldedit.internal.command.WorldEditBinding;
 import com.sk89q.worldedit.internal.command.WorldEditExceptionConverter;
 import com.sk89q.worldedit.session.request.Request;
+import com.sk89q.worldedit.util.command.CommandMapping;
 import com.sk89q.worldedit.util.command.Dispatcher;
 import com.sk89q.worldedit.util.command.InvalidUsageException;
 import com.sk89q.worldedit.util.command.composition.ProvidedValue;
@@ -79,6 +80,7 @@
 import com.sk89q.worldedit.util.formatting.component.CommandUsageBox;
 import com.sk89q.worldedit.util.logging.DynamicStreamHandler;
 import com.sk89q.worldedit.util.logging.LogFormat;
+import com.sk89q.worldedit.util.metrics.MetricsRegistry;
 
 import java.io.File;
 import java.io.IOException;
@@ -245,6 +247,23 @@ public String[] commandDetection(String[] split) {
         return split;
     }
 
+    /**
+     * Take the edit session of a running command out of the command's
+     * locals, so that it is not remembered, flushed or reported when the
+     * command returns.
+     *
+     * <p>This is for commands that keep changing blocks through their edit
+     * session after they return, such as pastes that run over several
+     * ticks. Those commands must remember and flush the edit session
+     * themselves once they are done.</p>
+     *
+     * @param locals the command's locals
+     */
+    public static void detachEditSession(CommandLocals locals) {
+        checkNotNull(locals);
+        locals.put(EditSession.class, null);
+    }
+
     @Subscribe
     public void handleCommand(CommandEvent event) {
         Request.reset();
@@ -265,6 +284,7 @@ public void handleCommand(CommandEvent event) {
         locals.put("arguments", event.getArguments());
 
         long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         try {
             // This is a bit of a hack, since the call method can only throw CommandExceptions
@@ -317,6 +337,8 @@ public void handleCommand(CommandEvent event) {
             if (editSession != null) {
                 session.remember(editSession);
                 editSession.flushQueue();
+                // Extents that held back changes may have added them to history while flushing
+                worldEdit.getSessionManager().getHistoryManager().update(editSession);
 
                 if (config.profile) {
                     long time = System.currentTimeMillis() - start;
@@ -333,6 +355,13 @@ public void handleCommand(CommandEvent event) {
 
                 worldEdit.flushBlockBag(actor, editSession);
             }
+
+            MetricsRegistry metrics = worldEdit.getMetrics();
+            if (metrics.isEnabled()) {
+                CommandMapping mapping = dispatcher.get(split[0]);
+                String name = mapping != null ? mapping.getPrimaryAlias() : split[0];
+                metrics.histogram("command." + name.toLowerCase()).recordSince(startNanos);
+            }
         }
 
         event.setCancelled(true);
@@ -120,10 +120,20 @@ protected Operation commitBefore() {
         return null;
     }
 
+    /**
+     * Get the operation that commits the extent below this one, which is
+     * run after the operation from {@link #commitBefore()}.
+     *
+     * @return an operation or null
+     */
+    protected @Nullable Operation commitExtent() {
+        return extent.commit();
+    }
+
     @Override
     public final @Nullable Operation commit() {
         Operation ours = commitBefore();
-        Operation other = extent.commit();
+        Operation other = commitExtent();
         if (ours != null && other != null) {
             return new OperationQueue(ours, other);
         } else if (ours != null) {
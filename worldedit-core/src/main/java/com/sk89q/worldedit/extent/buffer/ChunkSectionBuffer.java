@@ -0,0 +1,208 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.buffer;
+
+import com.sk89q.worldedit.BlockVector2D;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds pending block changes for a single 16x16x16 chunk section.
+ *
+ * <p>Blocks are indexed in the same order as the sections of a chunk are
+ * stored on disk: {@code (y << 8) | (z << 4) | x}, using coordinates local
+ * to the section. Entries that are {@code null} have no pending change.</p>
+ */
+public class ChunkSectionBuffer {
+
+    /**
+     * The number of blocks in a chunk section.
+     */
+    public static final int SIZE = 16 * 16 * 16;
+
+    private final int chunkX;
+    private final int sectionY;
+    private final int chunkZ;
+    private final BlockStateHolder[] blocks = new BlockStateHolder[SIZE];
+    private int size;
+
+    /**
+     * Create a new buffer.
+     *
+     * @param chunkX the X coordinate of the chunk
+     * @param sectionY the Y index of the section within the chunk
+     * @param chunkZ the Z coordinate of the chunk
+     */
+    public ChunkSectionBuffer(int chunkX, int sectionY, int chunkZ) {
+        this.chunkX = chunkX;
+        this.sectionY = sectionY;
+        this.chunkZ = chunkZ;
+    }
+
+    /**
+     * Get the index of a block position within its section.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return the index
+     */
+    public static int getIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    /**
+     * Get the X coordinate of the chunk.
+     *
+     * @return the chunk X coordinate
+     */
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    /**
+     * Get the Y index of the section within the chunk.
+     *
+     * @return the section Y index
+     */
+    public int getSectionY() {
+        return sectionY;
+    }
+
+    /**
+     * Get the Z coordinate of the chunk.
+     *
+     * @return the chunk Z coordinate
+     */
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    /**
+     * Get the position of the chunk that contains this section.
+     *
+     * @return the chunk position
+     */
+    public BlockVector2D getChunkPosition() {
+        return new BlockVector2D(chunkX, chunkZ);
+    }
+
+    /**
+     * Get the number of pending changes.
+     *
+     * @return the number of changes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return whether there are no pending changes.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the pending change at the given index.
+     *
+     * @param index the index
+     * @return the block, or null if there is no change at the index
+     */
+    @Nullable
+    public BlockStateHolder getBlock(int index) {
+        return blocks[index];
+    }
+
+    /**
+     * Get the pending change at the given world position.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return the block, or null if there is no change at the position
+     */
+    @Nullable
+    public BlockStateHolder getBlock(int x, int y, int z) {
+        return blocks[getIndex(x, y, z)];
+    }
+
+    /**
+     * Set a pending change at the given world position, replacing any
+     * previous change at that position.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @param block the block
+     */
+    public void setBlock(int x, int y, int z, BlockStateHolder block) {
+        int index = getIndex(x, y, z);
+        if (blocks[index] == null) {
+            size++;
+        }
+        blocks[index] = block;
+    }
+
+    /**
+     * Get the world X coordinate of the block at the given index.
+     *
+     * @param index the index
+     * @return the X coordinate
+     */
+    public int getX(int index) {
+        return (chunkX << 4) | (index & 15);
+    }
+
+    /**
+     * Get the world Y coordinate of the block at the given index.
+     *
+     * @param index the index
+     * @return the Y coordinate
+     */
+    public int getY(int index) {
+        return (sectionY << 4) | (index >> 8);
+    }
+
+    /**
+     * Get the world Z coordinate of the block at the given index.
+     *
+     * @param index the index
+     * @return the Z coordinate
+     */
+    public int getZ(int index) {
+        return (chunkZ << 4) | ((index >> 4) & 15);
+    }
+
+    /**
+     * Get the world position of the block at the given index.
+     *
+     * @param index the index
+     * @return the position
+     */
+    public Vector getPosition(int index) {
+        return new Vector(getX(index), getY(index), getZ(index));
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extent.AbstractDelegateExtent;
+import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Answers {@link #getBlock(Vector)} from whole chunk sections, which are
+ * read from the world with {@link World#getBlocks(ChunkSectionBuffer)}.
+ *
+ * <p>Up to {@link #getMaxCachedSections()} sections are kept, and the
+ * least recently used section is dropped when another one is needed.
+ * Blocks set through this extent update the cached section that holds
+ * them.</p>
+ *
+ * <p>The extents below this one may hold changes that have not reached
+ * the world yet. Sections that were written to while they were not cached,
+ * or that were dropped after being written to, are therefore read through
+ * the extent below, one block at a time, rather than from the world.</p>
+ */
+public class ChunkSectionExtentCache extends AbstractDelegateExtent {
+
+    /**
+     * The default number of sections that are kept.
+     */
+    public static final int DEFAULT_MAX_CACHED_SECTIONS = 64;
+
+    private final World world;
+    private final int maxY;
+    private final Map<Long, CachedSection> sections;
+    private final Set<Long> written = new HashSet<>();
+    private int maxCachedSections = DEFAULT_MAX_CACHED_SECTIONS;
+    @Nullable private CachedSection lastSection;
+    private long lastKey;
+
+    /**
+     * Create a new instance.
+     *
+     * @param extent the extent
+     * @param world the world to read sections from
+     */
+    public ChunkSectionExtentCache(Extent extent, World world) {
+        super(extent);
+        checkNotNull(world);
+        this.world = world;
+        this.maxY = world.getMaxY();
+        this.sections = new LinkedHashMap<Long, CachedSection>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedSection> eldest) {
+                if (size() > maxCachedSections) {
+                    if (eldest.getValue().written) {
+                        written.add(eldest.getKey());
+                    }
+                    if (eldest.getValue() == lastSection) {
+                        lastSection = null;
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the number of sections that are kept.
+     *
+     * @return the maximum number of cached sections
+     */
+    public int getMaxCachedSections() {
+        return maxCachedSections;
+    }
+
+    /**
+     * Set the number of sections that are kept.
+     *
+     * @param maxCachedSections the maximum number of cached sections
+     */
+    public void setMaxCachedSections(int maxCachedSections) {
+        checkArgument(maxCachedSections >= 1, "maxCachedSections >= 1 required");
+        this.maxCachedSections = maxCachedSections;
+    }
+
+    /**
+     * Forget every cached section.
+     */
+    public void clear() {
+        for (Map.Entry<Long, CachedSection> entry : sections.entrySet()) {
+            if (entry.getValue().written) {
+                written.add(entry.getKey());
+            }
+        }
+        sections.clear();
+        lastSection = null;
+    }
+
+    private static long getKey(int x, int y, int z) {
+        return ((long) (x >> 4) & 0xFFFFFF) << 32 | ((long) (z >> 4) & 0xFFFFFF) << 8 | (y >> 4) & 0xFF;
+    }
+
+    @Nullable
+    private CachedSection getSection(long key) {
+        if (key == lastKey && lastSection != null) {
+            return lastSection;
+        }
+        CachedSection section = sections.get(key);
+        if (section != null) {
+            lastKey = key;
+            lastSection = section;
+        }
+        return section;
+    }
+
+    private CachedSection loadSection(long key, int x, int y, int z) {
+        ChunkSectionBuffer buffer = new ChunkSectionBuffer(x >> 4, y >> 4, z >> 4);
+        boolean written = this.written.remove(key);
+        if (written) {
+            Extent extent = getExtent();
+            for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+                Vector position = buffer.getPosition(i);
+                buffer.setBlock(position.getBlockX(), position.getBlockY(), position.getBlockZ(), extent.getBlock(position));
+            }
+        } else {
+            world.getBlocks(buffer);
+        }
+        CachedSection section = new CachedSection(buffer, written);
+        sections.put(key, section);
+        lastKey = key;
+        lastSection = section;
+        return section;
+    }
+
+    @Override
+    public BlockState getBlock(Vector position) {
+        int x = position.getBlockX();
+        int y = position.getBlockY();
+        int z = position.getBlockZ();
+        if (y < 0 || y > maxY) {
+            return super.getBlock(position);
+        }
+
+        long key = getKey(x, y, z);
+        CachedSection section = getSection(key);
+        if (section == null) {
+            section = loadSection(key, x, y, z);
+        }
+        BlockStateHolder block = section.buffer.getBlock(x, y, z);
+        return block != null ? block.toImmutableState() : super.getBlock(position);
+    }
+
+    @Override
+    public boolean setBlock(Vector location, BlockStateHolder block) throws WorldEditException {
+        boolean changed = super.setBlock(location, block);
+
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        if (changed && y >= 0 && y <= maxY) {
+            long key = getKey(x, y, z);
+            CachedSection section = getSection(key);
+            if (section != null) {
+                section.buffer.setBlock(x, y, z, block.toImmutableState());
+                section.written = true;
+            } else {
+                written.add(key);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * A section that has been read, and whether it has been written to
+     * since.
+     */
+    private static final class CachedSection {
+        private final ChunkSectionBuffer buffer;
+        private boolean written;
+
+        private CachedSection(ChunkSectionBuffer buffer, boolean written) {
+            this.buffer = buffer;
+            this.written = written;
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.clipboard;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.Vector2D;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.entity.BaseEntity;
+import com.sk89q.worldedit.entity.Entity;
+import com.sk89q.worldedit.function.operation.Operation;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.util.Location;
+import com.sk89q.worldedit.util.collection.PackedIntArray;
+import com.sk89q.worldedit.world.biome.BaseBiome;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockStatePalette;
+import com.sk89q.worldedit.world.block.BlockTypes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores block data as a palette of {@link BlockState}s and a packed array
+ * of palette indices, with NBT data kept in a sparse map.
+ *
+ * <p>Compared to {@link BlockArrayClipboard}, which keeps one reference per
+ * block, each block only costs as many bits as are needed to index the
+ * palette, which is usually a handful.</p>
+ */
+public class PaletteClipboard implements Clipboard {
+
+    private final Region region;
+    private final Vector minimumPoint;
+    private final int width;
+    private final int height;
+    private final int length;
+    private Vector origin;
+    private final BlockStatePalette<BlockState> palette = new BlockStatePalette<>();
+    private final PackedIntArray blocks;
+    private final Map<Integer, CompoundTag> nbtData = new HashMap<>();
+    private final List<ClipboardEntity> entities = new ArrayList<>();
+
+    /**
+     * Create a new instance.
+     *
+     * <p>The origin will be placed at the region's lowest minimum point.</p>
+     *
+     * @param region the bounding region
+     */
+    public PaletteClipboard(Region region) {
+        checkNotNull(region);
+        this.region = region.clone();
+        this.minimumPoint = region.getMinimumPoint();
+        this.origin = minimumPoint;
+
+        Vector dimensions = getDimensions();
+        this.width = dimensions.getBlockX();
+        this.height = dimensions.getBlockY();
+        this.length = dimensions.getBlockZ();
+
+        long volume = (long) width * height * length;
+        checkArgument(volume <= Integer.MAX_VALUE, "Region is too large for a clipboard");
+
+        // Index 0 is always air, so a new clipboard is filled with air
+        palette.getId(BlockTypes.AIR.getDefaultState());
+        blocks = new PackedIntArray((int) volume, 1);
+    }
+
+    @Override
+    public Region getRegion() {
+        return region.clone();
+    }
+
+    @Override
+    public Vector getOrigin() {
+        return origin;
+    }
+
+    @Override
+    public void setOrigin(Vector origin) {
+        this.origin = origin;
+    }
+
+    @Override
+    public Vector getDimensions() {
+        return region.getMaximumPoint().subtract(region.getMinimumPoint()).add(1, 1, 1);
+    }
+
+    @Override
+    public Vector getMinimumPoint() {
+        return region.getMinimumPoint();
+    }
+
+    @Override
+    public Vector getMaximumPoint() {
+        return region.getMaximumPoint();
+    }
+
+    /**
+     * Get the number of distinct block states stored in this clipboard.
+     *
+     * @return the palette size
+     */
+    public int getPaletteSize() {
+        return palette.size();
+    }
+
+    @Override
+    public List<? extends Entity> getEntities(Region region) {
+        List<Entity> filtered = new ArrayList<>();
+        for (Entity entity : entities) {
+            if (region.contains(entity.getLocation().toVector())) {
+                filtered.add(entity);
+            }
+        }
+        return Collections.unmodifiableList(filtered);
+    }
+
+    @Override
+    public List<? extends Entity> getEntities() {
+        return Collections.unmodifiableList(entities);
+    }
+
+    @Nullable
+    @Override
+    public Entity createEntity(Location location, BaseEntity entity) {
+        ClipboardEntity ret = new ClipboardEntity(location, entity);
+        entities.add(ret);
+        return ret;
+    }
+
+    /**
+     * Get the index of a position within the packed array, or -1 if the
+     * position is not within the region.
+     *
+     * <p>Blocks are ordered by Y, then Z, then X.</p>
+     *
+     * @param position the position
+     * @return the index, or -1
+     */
+    private int getIndex(Vector position) {
+        if (!region.contains(position)) {
+            return -1;
+        }
+        int x = position.getBlockX() - minimumPoint.getBlockX();
+        int y = position.getBlockY() - minimumPoint.getBlockY();
+        int z = position.getBlockZ() - minimumPoint.getBlockZ();
+        return (y * length + z) * width + x;
+    }
+
+    private int getPaletteId(BlockState state) {
+        int id = palette.getId(state);
+        if (id > blocks.getMaxValue()) {
+            blocks.grow(PackedIntArray.bitsFor(id));
+        }
+        return id;
+    }
+
+    @Override
+    public BlockState getBlock(Vector position) {
+        int index = getIndex(position);
+        if (index != -1) {
+            return palette.get(blocks.get(index));
+        }
+
+        return BlockTypes.AIR.getDefaultState();
+    }
+
+    @Override
+    public BaseBlock getFullBlock(Vector position) {
+        int index = getIndex(position);
+        if (index != -1) {
+            BlockState state = palette.get(blocks.get(index));
+            return state.toBaseBlock(nbtData.get(index));
+        }
+
+        return BlockTypes.AIR.getDefaultState().toBaseBlock();
+    }
+
+    @Override
+    public boolean setBlock(Vector position, BlockStateHolder block) throws WorldEditException {
+        int index = getIndex(position);
+        if (index == -1) {
+            return false;
+        }
+
+        blocks.set(index, getPaletteId(block.toImmutableState()));
+        CompoundTag tag = block instanceof BaseBlock ? ((BaseBlock) block).getNbtData() : null;
+        if (tag != null) {
+            nbtData.put(index, tag);
+        } else if (!nbtData.isEmpty()) {
+            nbtData.remove(index);
+        }
+        return true;
+    }
+
+    @Override
+    public BaseBiome getBiome(Vector2D position) {
+        return new BaseBiome(0);
+    }
+
+    @Override
+    public boolean setBiome(Vector2D position, BaseBiome biome) {
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public Operation commit() {
+        return null;
+    }
+
+    /**
+     * Stores entity data.
+     */
+    private class ClipboardEntity extends StoredEntity {
+        ClipboardEntity(Location location, BaseEntity entity) {
+            super(location, entity);
+        }
+
+        @Override
+        public boolean remove() {
+            return entities.remove(this);
+        }
+
+        @Nullable
+        @Override
+        public <T> T getFacet(Class<? extends T> cls) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.clipboard.io;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.util.concurrency.EvenMoreExecutors;
+import com.sk89q.worldedit.util.io.Closer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Loads and saves clipboards on a bounded pool of worker threads.
+ *
+ * <p>The number of threads is set by
+ * {@link com.sk89q.worldedit.LocalConfiguration#schematicThreads}. With no
+ * threads, work is done immediately on the calling thread instead.</p>
+ *
+ * <p>Loads of the same file in the same format that overlap share one read,
+ * and so one clipboard. Saves are written to a temporary file that then
+ * replaces the target, so that a failed or cancelled save never leaves a
+ * partial schematic behind.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class AsyncClipboardIO {
+
+    private static final int QUEUE_SIZE = 16;
+
+    private final WorldEdit worldEdit;
+    private final ConcurrentMap<String, ListenableFuture<Clipboard>> loads = new ConcurrentHashMap<>();
+    @Nullable private ListeningExecutorService executor;
+
+    /**
+     * Create a new instance.
+     *
+     * @param worldEdit the WorldEdit instance
+     */
+    public AsyncClipboardIO(WorldEdit worldEdit) {
+        checkNotNull(worldEdit);
+        this.worldEdit = worldEdit;
+    }
+
+    private synchronized ListeningExecutorService getExecutor() {
+        if (executor == null) {
+            int threads = worldEdit.getConfiguration().schematicThreads;
+            if (threads > 0) {
+                executor = MoreExecutors.listeningDecorator(EvenMoreExecutors.newBoundedCachedThreadPool(threads, threads, QUEUE_SIZE));
+            } else {
+                executor = MoreExecutors.newDirectExecutorService();
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Read a clipboard from a file.
+     *
+     * <p>Cancelling the returned future does not stop a read that is
+     * shared with other callers.</p>
+     *
+     * @param file the file
+     * @param format the format of the file
+     * @return a future that completes with the clipboard
+     * @throws RejectedExecutionException if too many loads and saves are waiting
+     */
+    public ListenableFuture<Clipboard> load(File file, ClipboardFormat format) {
+        checkNotNull(file);
+        checkNotNull(format);
+
+        String key = format.getName() + ":" + file.getAbsolutePath();
+        ListenableFuture<Clipboard> future = loads.computeIfAbsent(key, k -> getExecutor().submit(() -> read(file, format)));
+        future.addListener(() -> loads.remove(key, future), MoreExecutors.directExecutor());
+        return Futures.nonCancellationPropagating(future);
+    }
+
+    /**
+     * Write a clipboard to a file.
+     *
+     * <p>The clipboard is obtained on the worker thread, so that any
+     * copying needed to take a snapshot of it is not done on the calling
+     * thread.</p>
+     *
+     * @param file the file
+     * @param format the format to write
+     * @param clipboard called to get the clipboard to write
+     * @return a future that completes once the file has been written
+     * @throws RejectedExecutionException if too many loads and saves are waiting
+     */
+    public ListenableFuture<File> save(File file, ClipboardFormat format, Callable<? extends Clipboard> clipboard) {
+        checkNotNull(file);
+        checkNotNull(format);
+        checkNotNull(clipboard);
+
+        return getExecutor().submit(() -> {
+            write(file, format, clipboard.call());
+            return file;
+        });
+    }
+
+    private static Clipboard read(File file, ClipboardFormat format) throws IOException {
+        try (Closer closer = Closer.create()) {
+            FileInputStream fis = closer.register(new FileInputStream(file));
+            BufferedInputStream bis = closer.register(new BufferedInputStream(fis));
+            ClipboardReader reader = closer.register(format.getReader(bis));
+            return reader.read();
+        }
+    }
+
+    private static void write(File file, ClipboardFormat format, Clipboard clipboard) throws IOException {
+        // Create parent directories
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create folder for schematics!");
+        }
+
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (Closer closer = Closer.create()) {
+                FileOutputStream fos = closer.register(new FileOutputStream(temp));
+                BufferedOutputStream bos = closer.register(new BufferedOutputStream(fos));
+                ClipboardWriter writer = closer.register(format.getWriter(bos));
+                writer.write(clipboard);
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedIOException("Saving was cancelled");
+            }
+
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            if (temp.exists()) {
+                temp.delete();
+            }
+        }
+    }
+
+}
@@ -20,18 +20,17 @@
 package com.sk89q.worldedit.extent.clipboard.io;
 
 import com.google.common.collect.ImmutableSet;
-import com.sk89q.jnbt.CompoundTag;
 import com.sk89q.jnbt.NBTInputStream;
 import com.sk89q.jnbt.NBTOutputStream;
-import com.sk89q.jnbt.NamedTag;
-import com.sk89q.jnbt.Tag;
+import com.sk89q.jnbt.NBTStreamReader;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Map;
 import java.util.Set;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -53,7 +52,7 @@ public String getPrimaryFileExtension() {
 
         @Override
         public ClipboardReader getReader(InputStream inputStream) throws IOException {
-            NBTInputStream nbtStream = new NBTInputStream(new GZIPInputStream(inputStream));
+            NBTInputStream nbtStream = new NBTInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)));
             return new MCEditSchematicReader(nbtStream);
         }
 
@@ -64,22 +63,7 @@ public ClipboardWriter getWriter(OutputStream outputStream) throws IOException {
 
         @Override
         public boolean isFormat(File file) {
-            try (NBTInputStream str = new NBTInputStream(new GZIPInputStream(new FileInputStream(file)))) {
-                NamedTag rootTag = str.readNamedTag();
-                if (!rootTag.getName().equals("Schematic")) {
-                    return false;
-                }
-                CompoundTag schematicTag = (CompoundTag) rootTag.getTag();
-
-                // Check
-                Map<String, Tag> schematic = schematicTag.getValue();
-                if (!schematic.containsKey("Materials")) {
-                    return false;
-                }
-            } catch (Exception e) {
-                return false;
-            }
-            return true;
+            return hasRootField(file, "Materials");
         }
     },
     SPONGE_SCHEMATIC("sponge", "schem") {
@@ -91,37 +75,47 @@ public String getPrimaryFileExtension() {
 
         @Override
         public ClipboardReader getReader(InputStream inputStream) throws IOException {
-            NBTInputStream nbtStream = new NBTInputStream(new GZIPInputStream(inputStream));
+            NBTInputStream nbtStream = new NBTInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)));
             return new SpongeSchematicReader(nbtStream);
         }
 
         @Override
         public ClipboardWriter getWriter(OutputStream outputStream) throws IOException {
-            NBTOutputStream nbtStream = new NBTOutputStream(new GZIPOutputStream(outputStream));
+            NBTOutputStream nbtStream = new NBTOutputStream(new BufferedOutputStream(new GZIPOutputStream(outputStream)));
             return new SpongeSchematicWriter(nbtStream);
         }
 
         @Override
         public boolean isFormat(File file) {
-            try (NBTInputStream str = new NBTInputStream(new GZIPInputStream(new FileInputStream(file)))) {
-                NamedTag rootTag = str.readNamedTag();
-                if (!rootTag.getName().equals("Schematic")) {
-                    return false;
-                }
-                CompoundTag schematicTag = (CompoundTag) rootTag.getTag();
+            return hasRootField(file, "Version");
+        }
+    };
 
-                // Check
-                Map<String, Tag> schematic = schematicTag.getValue();
-                if (!schematic.containsKey("Version")) {
-                    return false;
-                }
-            } catch (Exception e) {
+    /**
+     * Check whether a file holds a compound named 'Schematic' with a field
+     * of the given name, without reading any more of the file than needed.
+     *
+     * @param file the file
+     * @param name the name of the field
+     * @return true if the field exists
+     */
+    private static boolean hasRootField(File file, String name) {
+        try (NBTInputStream str = new NBTInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            NBTStreamReader reader = str.getStreamReader();
+            if (!reader.beginRootCompound().equals("Schematic")) {
                 return false;
             }
-
-            return true;
+            while (reader.nextField()) {
+                if (reader.getFieldName().equals(name)) {
+                    return true;
+                }
+                reader.skipValue();
+            }
+        } catch (Exception e) {
+            return false;
         }
-    };
+        return false;
+    }
 
     private final ImmutableSet<String> aliases;
 
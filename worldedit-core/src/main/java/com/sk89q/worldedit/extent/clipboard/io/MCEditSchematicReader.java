@@ -21,6 +21,7 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableSet;
 import com.sk89q.jnbt.ByteArrayTag;
 import com.sk89q.jnbt.CompoundTag;
 import com.sk89q.jnbt.IntTag;
@@ -34,8 +35,8 @@
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.entity.BaseEntity;
-import com.sk89q.worldedit.extent.clipboard.BlockArrayClipboard;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.PaletteClipboard;
 import com.sk89q.worldedit.extent.clipboard.io.legacycompat.NBTCompatibilityHandler;
 import com.sk89q.worldedit.extent.clipboard.io.legacycompat.SignCompatibilityHandler;
 import com.sk89q.worldedit.regions.CuboidRegion;
@@ -52,6 +53,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -67,6 +69,11 @@ public class MCEditSchematicReader extends NBTSchematicReader {
         // TODO Add a handler for skulls, flower pots, note blocks, etc.
     }
 
+    /**
+     * Tags that are not read, and so are skipped rather than decoded.
+     */
+    private static final Set<String> UNUSED_TAGS = ImmutableSet.of("Biomes", "BlockIDs", "ItemIDs", "SchematicaMapping");
+
     private static final Logger log = Logger.getLogger(MCEditSchematicReader.class.getCanonicalName());
     private final NBTInputStream inputStream;
 
@@ -83,7 +90,7 @@ public MCEditSchematicReader(NBTInputStream inputStream) {
     @Override
     public Clipboard read() throws IOException {
         // Schematic tag
-        NamedTag rootTag = inputStream.readNamedTag();
+        NamedTag rootTag = inputStream.readNamedTag(UNUSED_TAGS);
         if (!rootTag.getName().equals("Schematic")) {
             throw new IOException("Tag 'Schematic' does not exist or is not first");
         }
@@ -210,7 +217,7 @@ public Clipboard read() throws IOException {
             tileEntitiesMap.put(vec, values);
         }
 
-        BlockArrayClipboard clipboard = new BlockArrayClipboard(region);
+        PaletteClipboard clipboard = new PaletteClipboard(region);
         clipboard.setOrigin(origin);
 
         // Don't log a torrent of errors
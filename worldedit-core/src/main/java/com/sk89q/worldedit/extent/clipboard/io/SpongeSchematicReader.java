@@ -27,8 +27,9 @@
 import com.sk89q.jnbt.IntArrayTag;
 import com.sk89q.jnbt.IntTag;
 import com.sk89q.jnbt.ListTag;
+import com.sk89q.jnbt.NBTConstants;
 import com.sk89q.jnbt.NBTInputStream;
-import com.sk89q.jnbt.NamedTag;
+import com.sk89q.jnbt.NBTStreamReader;
 import com.sk89q.jnbt.ShortTag;
 import com.sk89q.jnbt.Tag;
 import com.sk89q.worldedit.BlockVector;
@@ -37,23 +38,30 @@
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.extension.input.InputParseException;
 import com.sk89q.worldedit.extension.input.ParserContext;
-import com.sk89q.worldedit.extent.clipboard.BlockArrayClipboard;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.PaletteClipboard;
 import com.sk89q.worldedit.extent.clipboard.io.legacycompat.NBTCompatibilityHandler;
 import com.sk89q.worldedit.regions.CuboidRegion;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.world.block.BlockState;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
 
 /**
  * Reads schematic files using the Sponge Schematic Specification.
+ *
+ * <p>The schematic is read field by field rather than as a whole tag. If
+ * the block data comes after the dimensions and palette, as it does in
+ * files written by WorldEdit, it is decoded straight from the stream.</p>
  */
 public class SpongeSchematicReader extends NBTSchematicReader {
 
@@ -78,148 +86,308 @@ public SpongeSchematicReader(NBTInputStream inputStream) {
 
     @Override
     public Clipboard read() throws IOException {
-        NamedTag rootTag = inputStream.readNamedTag();
-        if (!rootTag.getName().equals("Schematic")) {
+        NBTStreamReader reader = inputStream.getStreamReader();
+        if (!reader.beginRootCompound().equals("Schematic")) {
             throw new IOException("Tag 'Schematic' does not exist or is not first");
         }
-        CompoundTag schematicTag = (CompoundTag) rootTag.getTag();
-
-        // Check
-        Map<String, Tag> schematic = schematicTag.getValue();
-        int version = requireTag(schematic, "Version", IntTag.class).getValue();
-        switch (version) {
-            case 1:
-                return readVersion1(schematic);
-            default:
-                throw new IOException("This schematic version is currently not supported");
-        }
-    }
-
-    private Clipboard readVersion1(Map<String, Tag> schematic) throws IOException {
-        Vector origin;
-        Region region;
 
-        Map<String, Tag> metadata = requireTag(schematic, "Metadata", CompoundTag.class).getValue();
-
-        int width = requireTag(schematic, "Width", ShortTag.class).getValue();
-        int height = requireTag(schematic, "Height", ShortTag.class).getValue();
-        int length = requireTag(schematic, "Length", ShortTag.class).getValue();
-
-        int[] offsetParts = requireTag(schematic, "Offset", IntArrayTag.class).getValue();
-        if (offsetParts.length != 3) {
-            throw new IOException("Invalid offset specified in schematic.");
+        boolean hasVersion = false;
+        Version1Reader schematic = new Version1Reader();
+        while (reader.nextField()) {
+            if (reader.getFieldName().equals("Version")) {
+                expectTag(reader, IntTag.class);
+                int version = reader.readInt();
+                switch (version) {
+                    case 1:
+                        hasVersion = true;
+                        break;
+                    default:
+                        throw new IOException("This schematic version is currently not supported");
+                }
+            } else {
+                schematic.readField(reader);
+            }
         }
 
-        Vector min = new Vector(offsetParts[0], offsetParts[1], offsetParts[2]);
-
-        if (metadata.containsKey("WEOffsetX")) {
-            // We appear to have WorldEdit Metadata
-            int offsetX = requireTag(metadata, "WEOffsetX", IntTag.class).getValue();
-            int offsetY = requireTag(metadata, "WEOffsetY", IntTag.class).getValue();
-            int offsetZ = requireTag(metadata, "WEOffsetZ", IntTag.class).getValue();
-            Vector offset = new Vector(offsetX, offsetY, offsetZ);
-            origin = min.subtract(offset);
-            region = new CuboidRegion(min, min.add(width, height, length).subtract(Vector.ONE));
-        } else {
-            origin = min;
-            region = new CuboidRegion(origin, origin.add(width, height, length).subtract(Vector.ONE));
+        if (!hasVersion) {
+            throw missingTag("Version");
         }
+        return schematic.finish();
+    }
 
-        int paletteMax = requireTag(schematic, "PaletteMax", IntTag.class).getValue();
-        Map<String, Tag> paletteObject = requireTag(schematic, "Palette", CompoundTag.class).getValue();
-        if (paletteObject.size() != paletteMax) {
-            throw new IOException("Differing given palette size to actual size");
+    private static void expectTag(NBTStreamReader reader, Class<? extends Tag> expected) throws IOException {
+        if (NBTConstants.getClassFromType(reader.getFieldType()) != expected) {
+            throw new IOException(reader.getFieldName() + " tag is not of tag type " + expected.getName());
         }
+    }
 
-        Map<Integer, BlockState> palette = new HashMap<>();
+    private static IOException missingTag(String key) {
+        return new IOException("Schematic file is missing a \"" + key + "\" tag");
+    }
 
-        ParserContext parserContext = new ParserContext();
-        parserContext.setRestricted(false);
-        parserContext.setTryLegacy(false);
-        parserContext.setPreferringWildcard(false);
+    /**
+     * Collects the fields of a version 1 schematic as they are read.
+     */
+    private static final class Version1Reader {
+        @Nullable private Map<String, Tag> metadata;
+        private int width = -1;
+        private int height = -1;
+        private int length = -1;
+        @Nullable private int[] offsetParts;
+        private int paletteMax = -1;
+        @Nullable private BlockState[] palette;
+        private int paletteSize;
+        @Nullable private byte[] blockData;
+        private boolean hasTileEntities;
+        private final Map<BlockVector, Map<String, Tag>> tileEntitiesMap = new HashMap<>();
 
-        for (String palettePart : paletteObject.keySet()) {
-            int id = requireTag(paletteObject, palettePart, IntTag.class).getValue();
-            BlockState state;
-            try {
-                state = WorldEdit.getInstance().getBlockFactory().parseFromInput(palettePart, parserContext).toImmutableState();
-            } catch (InputParseException e) {
-                throw new IOException("Invalid BlockState in schematic: " + palettePart + ". Are you missing a mod of using a schematic made in a newer version of Minecraft?");
+        @Nullable private PaletteClipboard clipboard;
+        private Vector min;
+        private boolean blocksRead;
+        private int index;
+        private int value;
+        private int varintLength;
+
+        private void readField(NBTStreamReader reader) throws IOException {
+            switch (reader.getFieldName()) {
+                case "Metadata":
+                    expectTag(reader, CompoundTag.class);
+                    metadata = ((CompoundTag) reader.readTag()).getValue();
+                    break;
+                case "Width":
+                    expectTag(reader, ShortTag.class);
+                    width = reader.readShort() & 0xFFFF;
+                    break;
+                case "Height":
+                    expectTag(reader, ShortTag.class);
+                    height = reader.readShort() & 0xFFFF;
+                    break;
+                case "Length":
+                    expectTag(reader, ShortTag.class);
+                    length = reader.readShort() & 0xFFFF;
+                    break;
+                case "Offset":
+                    expectTag(reader, IntArrayTag.class);
+                    offsetParts = reader.readIntArray();
+                    if (offsetParts.length != 3) {
+                        throw new IOException("Invalid offset specified in schematic.");
+                    }
+                    break;
+                case "PaletteMax":
+                    expectTag(reader, IntTag.class);
+                    paletteMax = reader.readInt();
+                    break;
+                case "Palette":
+                    expectTag(reader, CompoundTag.class);
+                    readPalette(reader);
+                    break;
+                case "BlockData":
+                    expectTag(reader, ByteArrayTag.class);
+                    if (width >= 0 && height >= 0 && length >= 0 && offsetParts != null && palette != null) {
+                        try (InputStream in = reader.readByteArrayStream()) {
+                            readBlocks(in);
+                        }
+                    } else {
+                        // Not everything needed to place the blocks is known yet
+                        blockData = reader.readByteArray();
+                    }
+                    break;
+                case "TileEntities":
+                    expectTag(reader, ListTag.class);
+                    readTileEntities(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
             }
-            palette.put(id, state);
         }
 
-        byte[] blocks = requireTag(schematic, "BlockData", ByteArrayTag.class).getValue();
+        private void readPalette(NBTStreamReader reader) throws IOException {
+            ParserContext parserContext = new ParserContext();
+            parserContext.setRestricted(false);
+            parserContext.setTryLegacy(false);
+            parserContext.setPreferringWildcard(false);
 
-        Map<BlockVector, Map<String, Tag>> tileEntitiesMap = new HashMap<>();
-        try {
-            List<Map<String, Tag>> tileEntityTags = requireTag(schematic, "TileEntities", ListTag.class).getValue().stream()
-                    .map(tag -> (CompoundTag) tag)
-                    .map(CompoundTag::getValue)
-                    .collect(Collectors.toList());
+            palette = new BlockState[Math.max(16, paletteMax)];
+            paletteSize = 0;
+            reader.beginCompound();
+            while (reader.nextField()) {
+                String palettePart = reader.getFieldName();
+                expectTag(reader, IntTag.class);
+                int id = reader.readInt();
+                if (id < 0) {
+                    throw new IOException("Invalid palette index in schematic: " + id);
+                }
+                BlockState state;
+                try {
+                    state = WorldEdit.getInstance().getBlockFactory().parseFromInput(palettePart, parserContext).toImmutableState();
+                } catch (InputParseException e) {
+                    throw new IOException("Invalid BlockState in schematic: " + palettePart + ". Are you missing a mod of using a schematic made in a newer version of Minecraft?");
+                }
+                if (id >= palette.length) {
+                    palette = Arrays.copyOf(palette, Math.max(id + 1, palette.length * 2));
+                }
+                palette[id] = state;
+                paletteSize++;
+            }
+        }
 
-            for (Map<String, Tag> tileEntity : tileEntityTags) {
-                int[] pos = requireTag(tileEntity, "Pos", IntArrayTag.class).getValue();
-                tileEntitiesMap.put(new BlockVector(pos[0], pos[1], pos[2]).toBlockVector(), tileEntity);
+        private void readTileEntities(NBTStreamReader reader) throws IOException {
+            hasTileEntities = true;
+            int count = reader.beginList();
+            for (int i = 0; i < count; i++) {
+                BlockVector pt;
+                Map<String, Tag> tileEntity;
+                try {
+                    tileEntity = ((CompoundTag) reader.readTag()).getValue();
+                    int[] pos = requireTag(tileEntity, "Pos", IntArrayTag.class).getValue();
+                    pt = new BlockVector(pos[0], pos[1], pos[2]);
+                } catch (Exception e) {
+                    throw new IOException("Failed to load Tile Entities: " + e.getMessage());
+                }
+                if (blocksRead) {
+                    setTileEntity(pt, tileEntity);
+                } else {
+                    tileEntitiesMap.put(pt, tileEntity);
+                }
             }
-        } catch (Exception e) {
-            throw new IOException("Failed to load Tile Entities: " + e.getMessage());
+            reader.endList();
         }
 
-        BlockArrayClipboard clipboard = new BlockArrayClipboard(region);
-        clipboard.setOrigin(origin);
+        private void createClipboard() {
+            min = new Vector(offsetParts[0], offsetParts[1], offsetParts[2]);
+            Region region = new CuboidRegion(min, min.add(width, height, length).subtract(Vector.ONE));
+            clipboard = new PaletteClipboard(region);
+        }
 
-        int index = 0;
-        int i = 0;
-        int value = 0;
-        int varintLength = 0;
-        while (i < blocks.length) {
-            value = 0;
-            varintLength = 0;
+        private void readBlocks(InputStream in) throws IOException {
+            createClipboard();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                readBlocks(buffer, read);
+            }
+            finishBlocks();
+        }
 
-            while (true) {
-                value |= (blocks[i] & 127) << (varintLength++ * 7);
+        /**
+         * Decode block data, which may end partway through a varint that
+         * is continued by the next call.
+         *
+         * @param data the block data
+         * @param count the number of bytes to decode
+         * @throws IOException if a block can't be placed
+         */
+        private void readBlocks(byte[] data, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                value |= (data[i] & 127) << (varintLength++ * 7);
                 if (varintLength > 5) {
                     throw new RuntimeException("VarInt too big (probably corrupted data)");
                 }
-                if ((blocks[i] & 128) != 128) {
-                    i++;
-                    break;
+                if ((data[i] & 128) != 128) {
+                    setBlock(index++, value);
+                    value = 0;
+                    varintLength = 0;
                 }
-                i++;
             }
+        }
+
+        private void setBlock(int index, int id) throws IOException {
             // index = (y * length + z) * width + x
             int y = index / (width * length);
             int z = (index % (width * length)) / width;
             int x = (index % (width * length)) % width;
-            BlockState state = palette.get(value);
-            BlockVector pt = new BlockVector(x, y, z);
+            BlockState state = id < palette.length ? palette[id] : null;
+            if (state == null) {
+                throw new IOException("Invalid palette index in block data: " + id);
+            }
             try {
-                if (tileEntitiesMap.containsKey(pt)) {
-                    Map<String, Tag> values = Maps.newHashMap(tileEntitiesMap.get(pt));
-                    for (NBTCompatibilityHandler handler : COMPATIBILITY_HANDLERS) {
-                        if (handler.isAffectedBlock(state)) {
-                            handler.updateNBT(state, values);
-                        }
-                    }
-                    values.put("x", new IntTag(pt.getBlockX()));
-                    values.put("y", new IntTag(pt.getBlockY()));
-                    values.put("z", new IntTag(pt.getBlockZ()));
-                    values.put("id", values.get("Id"));
-                    values.remove("Id");
-                    values.remove("Pos");
-                    clipboard.setBlock(clipboard.getMinimumPoint().add(pt), state.toBaseBlock(new CompoundTag(values)));
-                } else {
-                    clipboard.setBlock(clipboard.getMinimumPoint().add(pt), state);
-                }
+                clipboard.setBlock(min.add(x, y, z), state);
             } catch (WorldEditException e) {
                 throw new IOException("Failed to load a block in the schematic");
             }
+        }
 
-            index++;
+        private void finishBlocks() throws IOException {
+            blocksRead = true;
+            for (Map.Entry<BlockVector, Map<String, Tag>> entry : tileEntitiesMap.entrySet()) {
+                setTileEntity(entry.getKey(), entry.getValue());
+            }
+            tileEntitiesMap.clear();
+        }
+
+        private void setTileEntity(BlockVector pt, Map<String, Tag> tileEntity) throws IOException {
+            Vector position = min.add(pt);
+            BlockState state = clipboard.getBlock(position);
+            Map<String, Tag> values = Maps.newHashMap(tileEntity);
+            for (NBTCompatibilityHandler handler : COMPATIBILITY_HANDLERS) {
+                if (handler.isAffectedBlock(state)) {
+                    handler.updateNBT(state, values);
+                }
+            }
+            values.put("x", new IntTag(pt.getBlockX()));
+            values.put("y", new IntTag(pt.getBlockY()));
+            values.put("z", new IntTag(pt.getBlockZ()));
+            values.put("id", values.get("Id"));
+            values.remove("Id");
+            values.remove("Pos");
+            try {
+                clipboard.setBlock(position, state.toBaseBlock(new CompoundTag(values)));
+            } catch (WorldEditException e) {
+                throw new IOException("Failed to load a block in the schematic");
+            }
         }
 
-        return clipboard;
+        private Clipboard finish() throws IOException {
+            if (metadata == null) {
+                throw missingTag("Metadata");
+            }
+            if (width < 0) {
+                throw missingTag("Width");
+            }
+            if (height < 0) {
+                throw missingTag("Height");
+            }
+            if (length < 0) {
+                throw missingTag("Length");
+            }
+            if (offsetParts == null) {
+                throw missingTag("Offset");
+            }
+            if (paletteMax < 0) {
+                throw missingTag("PaletteMax");
+            }
+            if (palette == null) {
+                throw missingTag("Palette");
+            }
+            if (paletteSize != paletteMax) {
+                throw new IOException("Differing given palette size to actual size");
+            }
+            if (clipboard == null) {
+                if (blockData == null) {
+                    throw missingTag("BlockData");
+                }
+                createClipboard();
+                readBlocks(blockData, blockData.length);
+                finishBlocks();
+            }
+            if (!hasTileEntities) {
+                throw new IOException("Failed to load Tile Entities: " + missingTag("TileEntities").getMessage());
+            }
+
+            if (metadata.containsKey("WEOffsetX")) {
+                // We appear to have WorldEdit Metadata
+                int offsetX = requireTag(metadata, "WEOffsetX", IntTag.class).getValue();
+                int offsetY = requireTag(metadata, "WEOffsetY", IntTag.class).getValue();
+                int offsetZ = requireTag(metadata, "WEOffsetZ", IntTag.class).getValue();
+                Vector offset = new Vector(offsetX, offsetY, offsetZ);
+                clipboard.setOrigin(min.subtract(offset));
+            } else {
+                clipboard.setOrigin(min);
+            }
+
+            return clipboard;
+        }
     }
 
     @Override
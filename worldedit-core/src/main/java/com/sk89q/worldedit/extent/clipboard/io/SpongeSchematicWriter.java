@@ -21,26 +21,25 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.sk89q.jnbt.ByteArrayTag;
 import com.sk89q.jnbt.CompoundTag;
 import com.sk89q.jnbt.IntArrayTag;
-import com.sk89q.jnbt.IntTag;
-import com.sk89q.jnbt.ListTag;
+import com.sk89q.jnbt.NBTConstants;
 import com.sk89q.jnbt.NBTOutputStream;
-import com.sk89q.jnbt.ShortTag;
+import com.sk89q.jnbt.NBTStreamWriter;
 import com.sk89q.jnbt.StringTag;
 import com.sk89q.jnbt.Tag;
 import com.sk89q.worldedit.BlockVector;
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStatePalette;
 import com.sk89q.worldedit.extent.clipboard.Clipboard;
 import com.sk89q.worldedit.regions.Region;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -64,17 +63,22 @@ public SpongeSchematicWriter(NBTOutputStream outputStream) {
     @Override
     public void write(Clipboard clipboard) throws IOException {
         // For now always write the latest version. Maybe provide support for earlier if more appear.
-        outputStream.writeNamedTag("Schematic", new CompoundTag(write1(clipboard)));
+        write1(clipboard, outputStream.getStreamWriter());
     }
 
     /**
      * Writes a version 1 schematic file.
      *
+     * <p>The clipboard is read twice: once to build the palette and work out
+     * the length of the block data, and again to write the block data
+     * straight to the stream. Blocks with NBT data are then read a third
+     * time to write them out one at a time.</p>
+     *
      * @param clipboard The clipboard
-     * @return The schematic map
+     * @param writer The writer
      * @throws IOException If an error occurs
      */
-    private Map<String, Tag> write1(Clipboard clipboard) throws IOException {
+    private void write1(Clipboard clipboard, NBTStreamWriter writer) throws IOException {
         Region region = clipboard.getRegion();
         Vector origin = clipboard.getOrigin();
         Vector min = region.getMinimumPoint();
@@ -92,95 +96,142 @@ private Map<String, Tag> write1(Clipboard clipboard) throws IOException {
         if (length > MAX_SIZE) {
             throw new IllegalArgumentException("Length of region too large for a .schematic");
         }
+        if ((long) width * height * length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Region too large for a .schematic");
+        }
 
-        Map<String, Tag> schematic = new HashMap<>();
-        schematic.put("Version", new IntTag(1));
+        BlockStatePalette<BlockState> palette = new BlockStatePalette<>();
+        int[] tileEntities = new int[16];
+        int tileEntityCount = 0;
+        long dataLength = 0;
 
-        Map<String, Tag> metadata = new HashMap<>();
-        metadata.put("WEOffsetX", new IntTag(offset.getBlockX()));
-        metadata.put("WEOffsetY", new IntTag(offset.getBlockY()));
-        metadata.put("WEOffsetZ", new IntTag(offset.getBlockZ()));
+        int index = 0;
+        for (int y = 0; y < height; y++) {
+            int y0 = min.getBlockY() + y;
+            for (int z = 0; z < length; z++) {
+                int z0 = min.getBlockZ() + z;
+                for (int x = 0; x < width; x++) {
+                    int x0 = min.getBlockX() + x;
+                    BaseBlock block = clipboard.getFullBlock(new BlockVector(x0, y0, z0));
+                    if (block.getNbtData() != null) {
+                        if (tileEntityCount == tileEntities.length) {
+                            tileEntities = Arrays.copyOf(tileEntities, tileEntityCount * 2);
+                        }
+                        tileEntities[tileEntityCount++] = index;
+                    }
+                    dataLength += getVarIntSize(palette.getId(block.toImmutableState()));
+                    index++;
+                }
+            }
+        }
 
-        schematic.put("Metadata", new CompoundTag(metadata));
+        if (dataLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Region too large for a .schematic");
+        }
 
-        schematic.put("Width", new ShortTag((short) width));
-        schematic.put("Height", new ShortTag((short) height));
-        schematic.put("Length", new ShortTag((short) length));
+        writer.beginCompound("Schematic");
+        writer.writeInt("Version", 1);
+
+        writer.beginCompound("Metadata");
+        writer.writeInt("WEOffsetX", offset.getBlockX());
+        writer.writeInt("WEOffsetY", offset.getBlockY());
+        writer.writeInt("WEOffsetZ", offset.getBlockZ());
+        writer.endCompound();
+
+        writer.writeShort("Width", (short) width);
+        writer.writeShort("Height", (short) height);
+        writer.writeShort("Length", (short) length);
 
         // The Sponge format Offset refers to the 'min' points location in the world. That's our 'Origin'
-        schematic.put("Offset", new IntArrayTag(new int[]{
+        writer.writeIntArray("Offset", new int[]{
                 min.getBlockX(),
                 min.getBlockY(),
                 min.getBlockZ(),
-        }));
-
-        int paletteMax = 0;
-        Map<String, Integer> palette = new HashMap<>();
-
-        List<CompoundTag> tileEntities = new ArrayList<>();
+        });
 
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream(width * height * length);
+        int paletteMax = palette.size();
+        writer.writeInt("PaletteMax", paletteMax);
+        writer.beginCompound("Palette");
+        for (int i = 0; i < paletteMax; i++) {
+            writer.writeInt(palette.get(i).getAsString(), i);
+        }
+        writer.endCompound();
 
+        OutputStream blockData = writer.beginByteArray("BlockData", (int) dataLength);
+        byte[] buffer = new byte[8192];
+        int position = 0;
+        long written = 0;
         for (int y = 0; y < height; y++) {
             int y0 = min.getBlockY() + y;
             for (int z = 0; z < length; z++) {
                 int z0 = min.getBlockZ() + z;
                 for (int x = 0; x < width; x++) {
                     int x0 = min.getBlockX() + x;
-                    BlockVector point = new BlockVector(x0, y0, z0);
-                    BaseBlock block = clipboard.getFullBlock(point);
-                    if (block.getNbtData() != null) {
-                        Map<String, Tag> values = new HashMap<>();
-                        for (Map.Entry<String, Tag> entry : block.getNbtData().getValue().entrySet()) {
-                            values.put(entry.getKey(), entry.getValue());
-                        }
-
-                        values.remove("id"); // Remove 'id' if it exists. We want 'Id'
-
-                        // Positions are kept in NBT, we don't want that.
-                        values.remove("x");
-                        values.remove("y");
-                        values.remove("z");
+                    int blockId = palette.getId(clipboard.getBlock(new BlockVector(x0, y0, z0)));
 
-                        values.put("Id", new StringTag(block.getNbtId()));
-                        values.put("Pos", new IntArrayTag(new int[]{
-                                x,
-                                y,
-                                z
-                        }));
-
-                        tileEntities.add(new CompoundTag(values));
-                    }
-
-                    String blockKey = block.toImmutableState().getAsString();
-                    int blockId;
-                    if (palette.containsKey(blockKey)) {
-                        blockId = palette.get(blockKey);
-                    } else {
-                        blockId = paletteMax;
-                        palette.put(blockKey, blockId);
-                        paletteMax++;
+                    if (position > buffer.length - 5) {
+                        blockData.write(buffer, 0, position);
+                        written += position;
+                        position = 0;
                     }
-
                     while ((blockId & -128) != 0) {
-                        buffer.write(blockId & 127 | 128);
+                        buffer[position++] = (byte) (blockId & 127 | 128);
                         blockId >>>= 7;
                     }
-                    buffer.write(blockId);
+                    buffer[position++] = (byte) blockId;
                 }
             }
         }
+        blockData.write(buffer, 0, position);
+        written += position;
 
-        schematic.put("PaletteMax", new IntTag(paletteMax));
+        if (written != dataLength || palette.size() != paletteMax) {
+            throw new IOException("The clipboard was changed while it was being saved");
+        }
 
-        Map<String, Tag> paletteTag = new HashMap<>();
-        palette.forEach((key, value) -> paletteTag.put(key, new IntTag(value)));
+        writer.beginList("TileEntities", NBTConstants.TYPE_COMPOUND, tileEntityCount);
+        for (int i = 0; i < tileEntityCount; i++) {
+            // index = (y * length + z) * width + x
+            int y = tileEntities[i] / (width * length);
+            int z = (tileEntities[i] % (width * length)) / width;
+            int x = (tileEntities[i] % (width * length)) % width;
+            BaseBlock block = clipboard.getFullBlock(min.add(x, y, z));
+            CompoundTag nbtData = block.getNbtData();
+
+            Map<String, Tag> values = new HashMap<>();
+            if (nbtData != null) {
+                for (Map.Entry<String, Tag> entry : nbtData.getValue().entrySet()) {
+                    values.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            values.remove("id"); // Remove 'id' if it exists. We want 'Id'
 
-        schematic.put("Palette", new CompoundTag(paletteTag));
-        schematic.put("BlockData", new ByteArrayTag(buffer.toByteArray()));
-        schematic.put("TileEntities", new ListTag(CompoundTag.class, tileEntities));
+            // Positions are kept in NBT, we don't want that.
+            values.remove("x");
+            values.remove("y");
+            values.remove("z");
 
-        return schematic;
+            values.put("Id", new StringTag(block.getNbtId()));
+            values.put("Pos", new IntArrayTag(new int[]{
+                    x,
+                    y,
+                    z
+            }));
+
+            writer.writeElement(new CompoundTag(values));
+        }
+
+        writer.endCompound();
+    }
+
+    private static int getVarIntSize(int value) {
+        int size = 1;
+        while ((value & -128) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
     }
 
     @Override
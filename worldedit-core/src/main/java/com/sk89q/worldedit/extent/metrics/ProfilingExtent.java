@@ -0,0 +1,127 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extent.AbstractDelegateExtent;
+import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.function.operation.Operation;
+import com.sk89q.worldedit.function.operation.RunContext;
+import com.sk89q.worldedit.util.metrics.LatencyHistogram;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Records how long calls to {@link #setBlock(Vector, BlockStateHolder)}
+ * take, and how long it takes to commit the extents below this one.
+ *
+ * <p>The time includes every extent below this one, so the time spent in a
+ * single stage is the difference between its time and that of the stage
+ * beneath it.</p>
+ *
+ * <p>A commit may run over several calls to
+ * {@link Operation#resume(RunContext)}, so the time of those calls is added
+ * up and recorded once the commit has completed.</p>
+ */
+public class ProfilingExtent extends AbstractDelegateExtent {
+
+    private final LatencyHistogram histogram;
+    private final LatencyHistogram commitHistogram;
+
+    /**
+     * Create a new instance.
+     *
+     * @param extent the extent
+     * @param histogram the histogram to record calls to set blocks into
+     * @param commitHistogram the histogram to record commits into
+     */
+    public ProfilingExtent(Extent extent, LatencyHistogram histogram, LatencyHistogram commitHistogram) {
+        super(extent);
+        checkNotNull(histogram);
+        checkNotNull(commitHistogram);
+        this.histogram = histogram;
+        this.commitHistogram = commitHistogram;
+    }
+
+    @Override
+    public boolean setBlock(Vector location, BlockStateHolder block) throws WorldEditException {
+        long start = System.nanoTime();
+        try {
+            return super.setBlock(location, block);
+        } finally {
+            histogram.recordSince(start);
+        }
+    }
+
+    @Override
+    protected @Nullable Operation commitExtent() {
+        Operation operation = super.commitExtent();
+        return operation != null ? new TimedOperation(operation) : null;
+    }
+
+    /**
+     * Runs an operation and records the total time spent in it.
+     */
+    private class TimedOperation implements Operation {
+
+        private Operation operation;
+        private long elapsed;
+
+        private TimedOperation(Operation operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public Operation resume(RunContext run) throws WorldEditException {
+            long start = System.nanoTime();
+            Operation next;
+            try {
+                next = operation.resume(run);
+            } finally {
+                elapsed += System.nanoTime() - start;
+            }
+
+            if (next == null) {
+                commitHistogram.record(elapsed);
+                return null;
+            }
+            operation = next;
+            return this;
+        }
+
+        @Override
+        public void cancel() {
+            operation.cancel();
+        }
+
+        @Override
+        public void addStatusMessages(List<String> messages) {
+            operation.addStatusMessages(messages);
+        }
+
+    }
+
+}
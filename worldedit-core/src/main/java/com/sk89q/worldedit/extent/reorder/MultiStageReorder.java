@@ -19,40 +19,46 @@
 
 package com.sk89q.worldedit.extent.reorder;
 
-import com.google.common.collect.Iterators;
 import com.sk89q.worldedit.BlockVector;
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.blocks.Blocks;
 import com.sk89q.worldedit.extent.AbstractDelegateExtent;
 import com.sk89q.worldedit.extent.Extent;
-import com.sk89q.worldedit.function.operation.BlockMapEntryPlacer;
+import com.sk89q.worldedit.extent.reorder.ReorderStage.Bucket;
 import com.sk89q.worldedit.function.operation.Operation;
-import com.sk89q.worldedit.function.operation.OperationQueue;
 import com.sk89q.worldedit.function.operation.RunContext;
 import com.sk89q.worldedit.registry.state.Property;
-import com.sk89q.worldedit.util.collection.TupleArrayList;
 import com.sk89q.worldedit.world.block.BlockCategories;
 import com.sk89q.worldedit.world.block.BlockState;
 import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockStatePalette;
+import com.sk89q.worldedit.world.block.BlockType;
 import com.sk89q.worldedit.world.block.BlockTypes;
 
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+
+import javax.annotation.Nullable;
 
 /**
  * Re-orders blocks into several stages.
+ *
+ * <p>The blocks of each stage are grouped by chunk and stored as packed
+ * positions and palette ids. On commit, each stage is placed in turn, one
+ * chunk at a time.</p>
  */
 public class MultiStageReorder extends AbstractDelegateExtent implements ReorderingExtent {
 
-    private TupleArrayList<BlockVector, BlockStateHolder> stage1 = new TupleArrayList<>();
-    private TupleArrayList<BlockVector, BlockStateHolder> stage2 = new TupleArrayList<>();
-    private TupleArrayList<BlockVector, BlockStateHolder> stage3 = new TupleArrayList<>();
+    private static final byte ATTACHMENT_UNKNOWN = 0;
+    private static final byte ATTACHMENT_NONE = 1;
+    private static final byte ATTACHMENT_ABOVE = 2;
+    private static final byte ATTACHMENT_BELOW = 3;
+
+    private final ReorderStage stage1 = new ReorderStage();
+    private final ReorderStage stage2 = new ReorderStage();
+    private final ReorderStage stage3 = new ReorderStage();
     private boolean enabled;
 
     /**
@@ -101,107 +107,156 @@ public boolean setBlock(Vector location, BlockStateHolder block) throws WorldEdi
             return super.setBlock(location, block);
         }
 
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
         if (Blocks.shouldPlaceLast(block.getBlockType())) {
             // Place torches, etc. last
-            stage2.put(location.toBlockVector(), block);
+            stage2.add(x, y, z, block);
             return !existing.equalsFuzzy(block);
         } else if (Blocks.shouldPlaceFinal(block.getBlockType())) {
             // Place signs, reed, etc even later
-            stage3.put(location.toBlockVector(), block);
+            stage3.add(x, y, z, block);
             return !existing.equalsFuzzy(block);
         } else if (Blocks.shouldPlaceLast(existing.getBlockType())) {
             // Destroy torches, etc. first
             super.setBlock(location, BlockTypes.AIR.getDefaultState());
             return super.setBlock(location, block);
         } else {
-            stage1.put(location.toBlockVector(), block);
+            stage1.add(x, y, z, block);
             return !existing.equalsFuzzy(block);
         }
     }
 
     @Override
     public Operation commitBefore() {
-        return new OperationQueue(
-                new BlockMapEntryPlacer(
-                        getExtent(),
-                        Iterators.concat(stage1.iterator(), stage2.iterator())),
-                new Stage3Committer());
+        return new StageCommitter();
     }
 
-    private class Stage3Committer implements Operation {
+    /**
+     * Get which neighbouring block, if any, should be placed before the
+     * given block, for blocks in the final stage.
+     *
+     * @param block the block
+     * @return one of the {@code ATTACHMENT_} constants
+     */
+    private static byte getAttachment(BlockStateHolder block) {
+        BlockType type = block.getBlockType();
+        if (BlockCategories.DOORS.contains(type)) {
+            Property<Object> halfProperty = type.getProperty("half");
+            if (block.getState(halfProperty).equals("lower")) {
+                // Deal with lower door halves being attached to the floor AND the upper half
+                return ATTACHMENT_ABOVE;
+            }
+        } else if (BlockCategories.RAILS.contains(type)) {
+            return ATTACHMENT_BELOW;
+        }
+        return ATTACHMENT_NONE;
+    }
+
+    /**
+     * Places the stages in order, one chunk at a time, stopping between
+     * chunks when the run should not continue.
+     */
+    private class StageCommitter implements Operation {
+
+        private final ReorderStage[] stages = { stage1, stage2, stage3 };
+        private int stage;
+        @Nullable private long[] keys;
+        private int next;
+
+        @Nullable private BlockStatePalette<BlockStateHolder> attachmentPalette;
+        private byte[] attachments = new byte[0];
 
         @Override
         public Operation resume(RunContext run) throws WorldEditException {
             Extent extent = getExtent();
 
-            final Set<BlockVector> blocks = new HashSet<>();
-            final Map<BlockVector, BlockStateHolder> blockTypes = new HashMap<>();
-            for (Map.Entry<BlockVector, BlockStateHolder> entry : stage3) {
-                final BlockVector pt = entry.getKey();
-                blocks.add(pt);
-                blockTypes.put(pt, entry.getValue());
-            }
+            while (stage < stages.length) {
+                if (keys == null) {
+                    keys = stages[stage].getChunkKeys();
+                    next = 0;
+                }
 
-            while (!blocks.isEmpty()) {
-                BlockVector current = blocks.iterator().next();
-                if (!blocks.contains(current)) {
-                    continue;
+                while (next < keys.length) {
+                    Bucket bucket = stages[stage].remove(keys[next++]);
+                    if (bucket != null) {
+                        if (stages[stage] == stage3) {
+                            placeAttached(extent, bucket);
+                        } else {
+                            place(extent, bucket);
+                        }
+                    }
+
+                    if (!run.shouldContinue() && (next < keys.length || stage < stages.length - 1)) {
+                        return this;
+                    }
                 }
 
-                final Deque<BlockVector> walked = new LinkedList<>();
+                keys = null;
+                stage++;
+            }
 
-                while (true) {
-                    walked.addFirst(current);
+            return null;
+        }
 
-                    assert (blockTypes.containsKey(current));
+        private void place(Extent extent, Bucket bucket) throws WorldEditException {
+            for (int i = 0; i < bucket.size(); i++) {
+                extent.setBlock(new BlockVector(bucket.getX(i), bucket.getY(i), bucket.getZ(i)), bucket.getBlock(i));
+            }
+        }
 
-                    final BlockStateHolder blockStateHolder = blockTypes.get(current);
+        /**
+         * Place the blocks of the final stage, placing the block that a
+         * door or rail is attached to immediately before it.
+         */
+        private void placeAttached(Extent extent, Bucket bucket) throws WorldEditException {
+            bucket.sortByPosition();
+            BitSet placed = new BitSet(bucket.size());
 
-                    if (BlockCategories.DOORS.contains(blockStateHolder.getBlockType())) {
-                        Property<Object> halfProperty = blockStateHolder.getBlockType().getProperty("half");
-                        if (blockStateHolder.getState(halfProperty).equals("lower")) {
-                            // Deal with lower door halves being attached to the floor AND the upper half
-                            BlockVector upperBlock = current.add(0, 1, 0).toBlockVector();
-                            if (blocks.contains(upperBlock) && !walked.contains(upperBlock)) {
-                                walked.addFirst(upperBlock);
-                            }
-                        }
-                    } else if (BlockCategories.RAILS.contains(blockStateHolder.getBlockType())) {
-                        BlockVector lowerBlock = current.add(0, -1, 0).toBlockVector();
-                        if (blocks.contains(lowerBlock) && !walked.contains(lowerBlock)) {
-                            walked.addFirst(lowerBlock);
-                        }
-                    }
+            for (int i = 0; i < bucket.size(); i++) {
+                if (placed.get(i)) {
+                    continue;
+                }
 
-                    if (!blockStateHolder.getBlockType().getMaterial().isFragileWhenPushed()) {
-                        // Block is not attached to anything => we can place it
+                int x = bucket.getX(i);
+                int y = bucket.getY(i);
+                int z = bucket.getZ(i);
+                int attached = -1;
+                switch (getAttachment(bucket, i)) {
+                    case ATTACHMENT_ABOVE:
+                        attached = bucket.indexOf(x, y + 1, z);
                         break;
-                    }
-
-//                    current = current.add(attachment.vector()).toBlockVector();
-//
-//                    if (!blocks.contains(current)) {
-//                        // We ran outside the remaining set => assume we can place blocks on this
-//                        break;
-//                    }
-//
-                    if (walked.contains(current)) {
-                        // Cycle detected => This will most likely go wrong, but there's nothing we can do about it.
+                    case ATTACHMENT_BELOW:
+                        attached = bucket.indexOf(x, y - 1, z);
+                        break;
+                    default:
                         break;
-                    }
                 }
 
-                for (BlockVector pt : walked) {
-                    extent.setBlock(pt, blockTypes.get(pt));
-                    blocks.remove(pt);
+                if (attached >= 0 && !placed.get(attached)) {
+                    extent.setBlock(new BlockVector(x, bucket.getY(attached), z), bucket.getBlock(attached));
+                    placed.set(attached);
                 }
+                extent.setBlock(new BlockVector(x, y, z), bucket.getBlock(i));
+                placed.set(i);
             }
+        }
 
-            stage1.clear();
-            stage2.clear();
-            stage3.clear();
-
-            return null;
+        private byte getAttachment(Bucket bucket, int index) {
+            if (bucket.getPalette() != attachmentPalette) {
+                attachmentPalette = bucket.getPalette();
+                attachments = new byte[attachmentPalette.size()];
+            }
+            int id = bucket.getId(index);
+            if (id >= attachments.length) {
+                attachments = Arrays.copyOf(attachments, attachmentPalette.size());
+            }
+            byte attachment = attachments[id];
+            if (attachment == ATTACHMENT_UNKNOWN) {
+                attachment = attachments[id] = MultiStageReorder.getAttachment(bucket.getBlock(index));
+            }
+            return attachment;
         }
 
         @Override
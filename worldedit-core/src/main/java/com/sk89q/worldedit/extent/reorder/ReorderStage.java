@@ -0,0 +1,220 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.reorder;
+
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockStatePalette;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds the blocks of one stage of a {@link MultiStageReorder}, grouped
+ * by chunk.
+ *
+ * <p>Each chunk keeps the positions of its blocks, relative to the chunk,
+ * and the palette ids of the blocks in two parallel arrays, in the order
+ * that they were added.</p>
+ */
+final class ReorderStage {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<Long, Bucket> buckets = new HashMap<>();
+    private BlockStatePalette<BlockStateHolder> palette = new BlockStatePalette<>();
+    @Nullable private Bucket lastBucket;
+    private long lastKey;
+
+    private static long getKey(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | chunkZ & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Add a block.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @param block the block
+     */
+    void add(int x, int y, int z, BlockStateHolder block) {
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        long key = getKey(chunkX, chunkZ);
+        Bucket bucket = lastBucket;
+        if (bucket == null || key != lastKey) {
+            bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(palette, chunkX, chunkZ);
+                buckets.put(key, bucket);
+            }
+            lastKey = key;
+            lastBucket = bucket;
+        }
+        bucket.add((y << 8) | ((z & 15) << 4) | (x & 15), palette.getId(block));
+    }
+
+    /**
+     * Get the keys of the chunks that have blocks, in ascending order.
+     *
+     * @return the keys
+     */
+    long[] getChunkKeys() {
+        long[] keys = new long[buckets.size()];
+        int i = 0;
+        for (long key : buckets.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Remove the blocks of a chunk.
+     *
+     * <p>Once every chunk has been removed, blocks that are added
+     * afterwards start a new palette.</p>
+     *
+     * @param key the key of the chunk
+     * @return the blocks, or null if the chunk has none
+     */
+    @Nullable
+    Bucket remove(long key) {
+        Bucket bucket = buckets.remove(key);
+        if (bucket == lastBucket) {
+            lastBucket = null;
+        }
+        if (buckets.isEmpty()) {
+            palette = new BlockStatePalette<>();
+        }
+        return bucket;
+    }
+
+    /**
+     * The blocks of one chunk.
+     */
+    static final class Bucket {
+        private final BlockStatePalette<BlockStateHolder> palette;
+        private final int chunkX;
+        private final int chunkZ;
+        private int[] positions = new int[INITIAL_CAPACITY];
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private Bucket(BlockStatePalette<BlockStateHolder> palette, int chunkX, int chunkZ) {
+            this.palette = palette;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        private void add(int position, int id) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            positions[size] = position;
+            ids[size] = id;
+            size++;
+        }
+
+        /**
+         * Sort the blocks by position, from the bottom up, and keep only
+         * the block that was added last at each position.
+         */
+        void sortByPosition() {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (long) positions[i] << 32 | i;
+            }
+            Arrays.sort(order);
+
+            int[] sortedPositions = new int[size];
+            int[] sortedIds = new int[size];
+            int count = 0;
+            for (long entry : order) {
+                int position = (int) (entry >> 32);
+                int id = ids[(int) entry];
+                if (count > 0 && sortedPositions[count - 1] == position) {
+                    sortedIds[count - 1] = id;
+                } else {
+                    sortedPositions[count] = position;
+                    sortedIds[count] = id;
+                    count++;
+                }
+            }
+            positions = sortedPositions;
+            ids = sortedIds;
+            size = count;
+        }
+
+        /**
+         * Find the index of the block at the given position, once the
+         * blocks have been sorted with {@link #sortByPosition()}.
+         *
+         * @param x the X coordinate
+         * @param y the Y coordinate
+         * @param z the Z coordinate
+         * @return the index, or a negative number if there is no block there
+         */
+        int indexOf(int x, int y, int z) {
+            if (x >> 4 != chunkX || z >> 4 != chunkZ) {
+                return -1;
+            }
+            return Arrays.binarySearch(positions, 0, size, (y << 8) | ((z & 15) << 4) | (x & 15));
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Get the palette that the ids of the blocks refer to.
+         *
+         * @return the palette
+         */
+        BlockStatePalette<BlockStateHolder> getPalette() {
+            return palette;
+        }
+
+        int getId(int index) {
+            return ids[index];
+        }
+
+        BlockStateHolder getBlock(int index) {
+            return palette.get(ids[index]);
+        }
+
+        int getX(int index) {
+            return (chunkX << 4) | (positions[index] & 15);
+        }
+
+        int getY(int index) {
+            return positions[index] >> 8;
+        }
+
+        int getZ(int index) {
+            return (chunkZ << 4) | ((positions[index] >> 4) & 15);
+        }
+    }
+
+}
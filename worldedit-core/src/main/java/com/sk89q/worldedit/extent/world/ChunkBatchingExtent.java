@@ -0,0 +1,254 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.world;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extent.AbstractDelegateExtent;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
+import com.sk89q.worldedit.function.operation.Operation;
+import com.sk89q.worldedit.function.operation.RunContext;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Groups block changes by chunk section and passes whole sections to
+ * {@link World#setBlocks(ChunkSectionBuffer, boolean)} through a
+ * {@link FastModeExtent}.
+ *
+ * <p>Sections are written when this extent is committed, or all at once
+ * when more than {@link #getMaxBufferedSections()} sections are pending.
+ * Reads of positions with a pending change are answered from the buffer.</p>
+ *
+ * <p>{@link #setBlock(Vector, BlockStateHolder)} reports whether the block
+ * differs from the pending change at that position or, if there is none,
+ * from the block returned by the extent below.</p>
+ */
+public class ChunkBatchingExtent extends AbstractDelegateExtent {
+
+    /**
+     * The default number of sections that may be buffered before they
+     * are written.
+     */
+    public static final int DEFAULT_MAX_BUFFERED_SECTIONS = 256;
+
+    private final FastModeExtent extent;
+    private final int maxY;
+    private final Map<Long, ChunkSectionBuffer> sections = new HashMap<>();
+    private boolean enabled;
+    private int maxBufferedSections = DEFAULT_MAX_BUFFERED_SECTIONS;
+    @Nullable private ChunkSectionBuffer lastSection;
+    private long lastKey;
+
+    /**
+     * Create a new instance.
+     *
+     * @param extent the fast mode extent that writes to the world
+     * @param enabled true to enable batching
+     */
+    public ChunkBatchingExtent(FastModeExtent extent, boolean enabled) {
+        super(extent);
+        checkNotNull(extent);
+        this.extent = extent;
+        this.enabled = enabled;
+        this.maxY = extent.getMaximumPoint().getBlockY();
+    }
+
+    /**
+     * Return whether batching is enabled.
+     *
+     * @return true if batching is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set whether batching is enabled.
+     *
+     * <p>Changes that are already buffered are kept until the next
+     * commit.</p>
+     *
+     * @param enabled true to enable batching
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the number of sections that may be buffered before they are
+     * written.
+     *
+     * @return the maximum number of buffered sections
+     */
+    public int getMaxBufferedSections() {
+        return maxBufferedSections;
+    }
+
+    /**
+     * Set the number of sections that may be buffered before they are
+     * written.
+     *
+     * @param maxBufferedSections the maximum number of buffered sections
+     */
+    public void setMaxBufferedSections(int maxBufferedSections) {
+        checkArgument(maxBufferedSections >= 1, "maxBufferedSections >= 1 required");
+        this.maxBufferedSections = maxBufferedSections;
+    }
+
+    private static long getKey(int x, int y, int z) {
+        return ((long) (x >> 4) & 0xFFFFFF) << 32 | ((long) (z >> 4) & 0xFFFFFF) << 8 | (y >> 4) & 0xFF;
+    }
+
+    @Nullable
+    private ChunkSectionBuffer getSection(long key) {
+        if (key == lastKey && lastSection != null) {
+            return lastSection;
+        }
+        ChunkSectionBuffer section = sections.get(key);
+        if (section != null) {
+            lastKey = key;
+            lastSection = section;
+        }
+        return section;
+    }
+
+    @Nullable
+    private BlockStateHolder getPending(Vector position) {
+        if (sections.isEmpty()) {
+            return null;
+        }
+        int x = position.getBlockX();
+        int y = position.getBlockY();
+        int z = position.getBlockZ();
+        ChunkSectionBuffer section = getSection(getKey(x, y, z));
+        return section != null ? section.getBlock(x, y, z) : null;
+    }
+
+    @Override
+    public BlockState getBlock(Vector position) {
+        BlockStateHolder pending = getPending(position);
+        if (pending != null) {
+            return pending.toImmutableState();
+        }
+        return super.getBlock(position);
+    }
+
+    @Override
+    public BaseBlock getFullBlock(Vector position) {
+        BlockStateHolder pending = getPending(position);
+        if (pending != null) {
+            return pending.toBaseBlock();
+        }
+        return super.getFullBlock(position);
+    }
+
+    @Override
+    public boolean setBlock(Vector location, BlockStateHolder block) throws WorldEditException {
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+
+        if (!enabled || y < 0 || y > maxY) {
+            return super.setBlock(location, block);
+        }
+
+        long key = getKey(x, y, z);
+        ChunkSectionBuffer section = getSection(key);
+        if (section == null) {
+            if (sections.size() >= maxBufferedSections) {
+                flush();
+            }
+            section = new ChunkSectionBuffer(x >> 4, y >> 4, z >> 4);
+            sections.put(key, section);
+            lastKey = key;
+            lastSection = section;
+        }
+
+        BlockStateHolder previous = section.getBlock(x, y, z);
+        if (previous == null) {
+            previous = getExtent().getBlock(location);
+        }
+        section.setBlock(x, y, z, block);
+        return !isSameBlock(previous, block);
+    }
+
+    private static boolean isSameBlock(BlockStateHolder previous, BlockStateHolder block) {
+        if (hasNbtData(previous) || hasNbtData(block)) {
+            return false;
+        }
+        return previous.toImmutableState().equals(block.toImmutableState());
+    }
+
+    private static boolean hasNbtData(BlockStateHolder block) {
+        return block instanceof BaseBlock && ((BaseBlock) block).hasNbtData();
+    }
+
+    /**
+     * Write every buffered section to the world, in chunk order.
+     *
+     * @throws WorldEditException thrown on an error
+     */
+    public void flush() throws WorldEditException {
+        long[] keys = new long[sections.size()];
+        int i = 0;
+        for (long key : sections.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+
+        lastSection = null;
+        for (long key : keys) {
+            extent.setBlocks(sections.remove(key));
+        }
+    }
+
+    @Override
+    protected Operation commitBefore() {
+        return new Operation() {
+            @Override
+            public Operation resume(RunContext run) throws WorldEditException {
+                flush();
+                return null;
+            }
+
+            @Override
+            public void cancel() {
+            }
+
+            @Override
+            public void addStatusMessages(List<String> messages) {
+            }
+        };
+    }
+
+}
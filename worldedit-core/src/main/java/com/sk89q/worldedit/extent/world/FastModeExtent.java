@@ -25,6 +25,7 @@
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.extent.AbstractDelegateExtent;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
 import com.sk89q.worldedit.function.operation.Operation;
 import com.sk89q.worldedit.function.operation.RunContext;
 import com.sk89q.worldedit.world.World;
@@ -93,6 +94,22 @@ public boolean setBlock(Vector location, BlockStateHolder block) throws WorldEdi
         }
     }
 
+    /**
+     * Write a buffered chunk section to the world.
+     *
+     * @param section the buffered changes
+     * @return the number of blocks that were probably changed
+     * @throws WorldEditException thrown on an error
+     */
+    public int setBlocks(ChunkSectionBuffer section) throws WorldEditException {
+        if (enabled) {
+            dirtyChunks.add(section.getChunkPosition());
+            return world.setBlocks(section, false);
+        } else {
+            return world.setBlocks(section, true);
+        }
+    }
+
     @Override
     protected Operation commitBefore() {
         return new Operation() {
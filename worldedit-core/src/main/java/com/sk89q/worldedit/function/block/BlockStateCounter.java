@@ -0,0 +1,176 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.function.block;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sk89q.worldedit.BlockVector;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Counts the states of the blocks in a region.
+ *
+ * <p>Each chunk section that the region touches is copied from the world
+ * with {@link World#getBlocks(ChunkSectionBuffer)} on the calling thread.
+ * Blocks outside the height of the world are not counted.
+ * The copy is handed to an executor, which picks out the blocks that are
+ * within the region and counts them into a histogram that belongs to the
+ * counting thread. The histograms are added together once every section
+ * has been counted.</p>
+ */
+public final class BlockStateCounter {
+
+    private final Region region;
+    private final boolean cuboid;
+    private final Vector min;
+    private final Vector max;
+    private final Executor executor;
+    private final Queue<Histogram> histograms = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Histogram> localHistogram = ThreadLocal.withInitial(() -> {
+        Histogram histogram = new Histogram();
+        histograms.add(histogram);
+        return histogram;
+    });
+    private final List<ListenableFuture<?>> sections = new ArrayList<>();
+
+    private BlockStateCounter(Region region, Executor executor) {
+        this.region = region.clone();
+        this.cuboid = region instanceof CuboidRegion;
+        this.min = region.getMinimumPoint();
+        this.max = region.getMaximumPoint();
+        this.executor = executor;
+    }
+
+    /**
+     * Count the states of the blocks in a region.
+     *
+     * <p>This method returns once every chunk section has been copied from
+     * the world, which must be safe to read from the calling thread. The
+     * returned future may complete on a thread of the executor.</p>
+     *
+     * @param world the world to read from
+     * @param region the region
+     * @param executor the executor to count on
+     * @return a future for the counts
+     */
+    public static ListenableFuture<BlockStateCounts> count(World world, Region region, Executor executor) {
+        checkNotNull(world);
+        checkNotNull(region);
+        checkNotNull(executor);
+        return new BlockStateCounter(region, executor).count(world);
+    }
+
+    private ListenableFuture<BlockStateCounts> count(World world) {
+        int maxSectionY = world.getMaxY() >> 4;
+        for (Vector cube : region.getChunkCubes()) {
+            if (cube.getBlockY() < 0 || cube.getBlockY() > maxSectionY) {
+                continue;
+            }
+            ChunkSectionBuffer section = new ChunkSectionBuffer(cube.getBlockX(), cube.getBlockY(), cube.getBlockZ());
+            world.getBlocks(section);
+            ListenableFutureTask<?> task = ListenableFutureTask.create(() -> localHistogram.get().add(section), null);
+            sections.add(task);
+            executor.execute(task);
+        }
+
+        return Futures.transform(Futures.allAsList(sections), ignored -> merge(), MoreExecutors.directExecutor());
+    }
+
+    private BlockStateCounts merge() {
+        long[] counts = new long[0];
+        Map<BlockState, Long> otherCounts = new HashMap<>();
+        for (Histogram histogram : histograms) {
+            if (histogram.counts.length > counts.length) {
+                counts = Arrays.copyOf(counts, histogram.counts.length);
+            }
+            for (int i = 0; i < histogram.counts.length; i++) {
+                counts[i] += histogram.counts[i];
+            }
+            histogram.otherCounts.forEach((block, count) -> otherCounts.merge(block, count, Long::sum));
+        }
+        return new BlockStateCounts(counts, otherCounts);
+    }
+
+    /**
+     * The counts of one thread, indexed by internal state id.
+     */
+    private final class Histogram {
+        private long[] counts = new long[0];
+        private final Map<BlockState, Long> otherCounts = new HashMap<>();
+
+        private void add(ChunkSectionBuffer section) {
+            int baseX = section.getChunkX() << 4;
+            int baseY = section.getSectionY() << 4;
+            int baseZ = section.getChunkZ() << 4;
+            int minX = Math.max(min.getBlockX(), baseX);
+            int minY = Math.max(min.getBlockY(), baseY);
+            int minZ = Math.max(min.getBlockZ(), baseZ);
+            int maxX = Math.min(max.getBlockX(), baseX + 15);
+            int maxY = Math.min(max.getBlockY(), baseY + 15);
+            int maxZ = Math.min(max.getBlockZ(), baseZ + 15);
+
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        if (!cuboid && !region.contains(new BlockVector(x, y, z))) {
+                            continue;
+                        }
+                        BlockStateHolder holder = section.getBlock(x, y, z);
+                        if (holder != null) {
+                            add(holder.toImmutableState());
+                        }
+                    }
+                }
+            }
+        }
+
+        private void add(BlockState block) {
+            int id = block.getInternalId();
+            if (id < 0) {
+                otherCounts.merge(block, 1L, Long::sum);
+                return;
+            }
+            if (id >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(id + 1, BlockState.getInternalIdCount()));
+            }
+            counts[id]++;
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.function.block;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.util.Countable;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The number of blocks of each state in a region, as counted by
+ * {@link BlockStateCounter}.
+ */
+public class BlockStateCounts {
+
+    private final long[] counts;
+    private final Map<BlockState, Long> otherCounts;
+
+    /**
+     * Create a new instance.
+     *
+     * @param counts the counts, indexed by the internal id of the state
+     * @param otherCounts the counts of states that have no internal id
+     */
+    BlockStateCounts(long[] counts, Map<BlockState, Long> otherCounts) {
+        this.counts = checkNotNull(counts);
+        this.otherCounts = checkNotNull(otherCounts);
+    }
+
+    /**
+     * Get the number of blocks with the given state.
+     *
+     * @param state the state
+     * @return the number of blocks
+     */
+    public long getCount(BlockState state) {
+        int id = state.getInternalId();
+        if (id < 0) {
+            return otherCounts.getOrDefault(state, 0L);
+        }
+        return id < counts.length ? counts[id] : 0;
+    }
+
+    /**
+     * Get the number of blocks with any of the given states.
+     *
+     * @param stateIds the internal ids of the states
+     * @return the number of blocks
+     */
+    public long getCount(BitSet stateIds) {
+        long total = 0;
+        for (int id = stateIds.nextSetBit(0); id >= 0 && id < counts.length; id = stateIds.nextSetBit(id + 1)) {
+            total += counts[id];
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of blocks with each state, most common first.
+     *
+     * @param fuzzy true to count the states of each block type together
+     * @return the distribution
+     */
+    public List<Countable<BlockStateHolder>> getDistribution(boolean fuzzy) {
+        Map<BlockStateHolder, Long> totals = new LinkedHashMap<>();
+        Map<BlockType, BlockStateHolder> fuzzyStates = new LinkedHashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] != 0) {
+                add(totals, fuzzyStates, BlockState.getByInternalId(id), counts[id], fuzzy);
+            }
+        }
+        for (Map.Entry<BlockState, Long> entry : otherCounts.entrySet()) {
+            add(totals, fuzzyStates, entry.getKey(), entry.getValue(), fuzzy);
+        }
+
+        List<Countable<BlockStateHolder>> distribution = new ArrayList<>(totals.size());
+        for (Map.Entry<BlockStateHolder, Long> entry : totals.entrySet()) {
+            distribution.add(new Countable<>(entry.getKey(), (int) Math.min(Integer.MAX_VALUE, entry.getValue())));
+        }
+        Collections.sort(distribution);
+        Collections.reverse(distribution);
+        return distribution;
+    }
+
+    private static void add(Map<BlockStateHolder, Long> totals, Map<BlockType, BlockStateHolder> fuzzyStates,
+                            BlockState state, long count, boolean fuzzy) {
+        BlockStateHolder key = state;
+        if (fuzzy) {
+            key = fuzzyStates.computeIfAbsent(state.getBlockType(), type -> state.toFuzzy());
+        }
+        totals.merge(key, count, Long::sum);
+    }
+
+}
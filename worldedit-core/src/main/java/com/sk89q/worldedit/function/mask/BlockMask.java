@@ -23,10 +23,13 @@
 
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.world.block.BlockState;
 import com.sk89q.worldedit.world.block.BlockStateHolder;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -38,10 +41,15 @@
  *
  * <p>This mask checks for both an exact block type and state value match,
  * respecting fuzzy status of the BlockState.</p>
+ *
+ * <p>The blocks are compiled to the set of concrete states that they match
+ * when the mask is first tested, so that testing a block is a single
+ * lookup.</p>
  */
-public class BlockMask extends AbstractExtentMask {
+public class BlockMask extends AbstractExtentMask implements BlockStateIdMask {
 
     private final Set<BlockStateHolder> blocks = new HashSet<>();
+    @Nullable private volatile BitSet stateIds;
 
     /**
      * Create a new block mask.
@@ -73,6 +81,7 @@ public BlockMask(Extent extent, BlockStateHolder... block) {
     public void add(Collection<BlockStateHolder> blocks) {
         checkNotNull(blocks);
         this.blocks.addAll(blocks);
+        this.stateIds = null;
     }
 
     /**
@@ -87,15 +96,41 @@ public void add(BlockStateHolder... block) {
     /**
      * Get the list of blocks that are tested with.
      *
-     * @return a list of blocks
+     * @return an unmodifiable list of blocks
      */
     public Collection<BlockStateHolder> getBlocks() {
-        return blocks;
+        return Collections.unmodifiableSet(blocks);
+    }
+
+    @Override
+    public BitSet getStateIds() {
+        BitSet ids = stateIds;
+        if (ids == null) {
+            ids = new BitSet();
+            for (BlockStateHolder testBlock : blocks) {
+                BlockState state = testBlock.toImmutableState();
+                if (state.getInternalId() >= 0) {
+                    ids.set(state.getInternalId());
+                } else {
+                    for (BlockState candidate : state.getBlockType().getAllStates()) {
+                        if (state.equalsFuzzy(candidate)) {
+                            ids.set(candidate.getInternalId());
+                        }
+                    }
+                }
+            }
+            stateIds = ids;
+        }
+        return ids;
     }
 
     @Override
     public boolean test(Vector vector) {
-        BlockStateHolder block = getExtent().getBlock(vector);
+        BlockState block = getExtent().getBlock(vector);
+        if (block.getInternalId() >= 0) {
+            return getStateIds().get(block.getInternalId());
+        }
+
         for (BlockStateHolder testBlock : blocks) {
             if (testBlock.equalsFuzzy(block)) {
                 return true;
@@ -0,0 +1,50 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.function.mask;
+
+import com.sk89q.worldedit.extent.Extent;
+
+import java.util.BitSet;
+
+/**
+ * A mask that matches the block at a position against a fixed set of
+ * {@link com.sk89q.worldedit.world.block.BlockState}s, which can be
+ * compiled to a set of internal state ids.
+ */
+interface BlockStateIdMask extends Mask {
+
+    /**
+     * Get the extent that blocks are read from.
+     *
+     * @return the extent
+     */
+    Extent getExtent();
+
+    /**
+     * Get the internal ids of the states that are matched.
+     *
+     * <p>The returned set must not be modified. A new set is returned after
+     * the criteria of the mask change.</p>
+     *
+     * @return the ids
+     */
+    BitSet getStateIds();
+
+}
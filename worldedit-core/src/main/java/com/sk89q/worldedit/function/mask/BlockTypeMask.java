@@ -23,10 +23,13 @@
 
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.world.block.BlockState;
 import com.sk89q.worldedit.world.block.BlockType;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -39,9 +42,10 @@
  * <p>This mask checks for ONLY the block type. If state should also be checked,
  * use {@link BlockMask}.</p>
  */
-public class BlockTypeMask extends AbstractExtentMask {
+public class BlockTypeMask extends AbstractExtentMask implements BlockStateIdMask {
 
     private final Set<BlockType> blocks = new HashSet<>();
+    @Nullable private volatile BitSet stateIds;
 
     /**
      * Create a new block mask.
@@ -73,6 +77,7 @@ public BlockTypeMask(Extent extent, BlockType... block) {
     public void add(Collection<BlockType> blocks) {
         checkNotNull(blocks);
         this.blocks.addAll(blocks);
+        this.stateIds = null;
     }
 
     /**
@@ -87,15 +92,34 @@ public void add(BlockType... block) {
     /**
      * Get the list of blocks that are tested with.
      *
-     * @return a list of blocks
+     * @return an unmodifiable list of blocks
      */
     public Collection<BlockType> getBlocks() {
-        return blocks;
+        return Collections.unmodifiableSet(blocks);
+    }
+
+    @Override
+    public BitSet getStateIds() {
+        BitSet ids = stateIds;
+        if (ids == null) {
+            ids = new BitSet();
+            for (BlockType type : blocks) {
+                for (BlockState state : type.getAllStates()) {
+                    ids.set(state.getInternalId());
+                }
+            }
+            stateIds = ids;
+        }
+        return ids;
     }
 
     @Override
     public boolean test(Vector vector) {
-        return blocks.contains(getExtent().getBlock(vector).getBlockType());
+        BlockState block = getExtent().getBlock(vector);
+        if (block.getInternalId() >= 0) {
+            return getStateIds().get(block.getInternalId());
+        }
+        return blocks.contains(block.getBlockType());
     }
 
     @Nullable
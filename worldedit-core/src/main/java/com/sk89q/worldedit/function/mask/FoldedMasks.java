@@ -0,0 +1,160 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.function.mask;
+
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.world.block.BlockState;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * The masks of an intersection or union, with the block masks that read
+ * from the same extent folded into one set of state ids, so that the block
+ * is only read and looked up once.
+ */
+final class FoldedMasks {
+
+    private final boolean union;
+    @Nullable private final Extent extent;
+    private final BlockStateIdMask[] blockMasks;
+    private final BitSet[] blockStateIds;
+    @Nullable private final BitSet stateIds;
+    private final Mask[] otherMasks;
+
+    private FoldedMasks(Collection<Mask> masks, boolean union) {
+        this.union = union;
+
+        Extent extent = null;
+        List<BlockStateIdMask> blockMasks = new ArrayList<>();
+        List<Mask> otherMasks = new ArrayList<>();
+        for (Mask mask : masks) {
+            if (mask instanceof BlockStateIdMask
+                    && (extent == null || ((BlockStateIdMask) mask).getExtent() == extent)) {
+                extent = ((BlockStateIdMask) mask).getExtent();
+                blockMasks.add((BlockStateIdMask) mask);
+            } else {
+                otherMasks.add(mask);
+            }
+        }
+
+        this.extent = extent;
+        this.blockMasks = blockMasks.toArray(new BlockStateIdMask[blockMasks.size()]);
+        this.blockStateIds = new BitSet[this.blockMasks.length];
+        this.otherMasks = otherMasks.toArray(new Mask[otherMasks.size()]);
+
+        BitSet stateIds = null;
+        for (int i = 0; i < this.blockMasks.length; i++) {
+            blockStateIds[i] = this.blockMasks[i].getStateIds();
+            if (stateIds == null) {
+                stateIds = (BitSet) blockStateIds[i].clone();
+            } else if (union) {
+                stateIds.or(blockStateIds[i]);
+            } else {
+                stateIds.and(blockStateIds[i]);
+            }
+        }
+        this.stateIds = stateIds;
+    }
+
+    /**
+     * Fold the given masks.
+     *
+     * @param masks the masks
+     * @param union true to combine the block masks with OR, false for AND
+     * @return the folded masks
+     */
+    static FoldedMasks fold(Collection<Mask> masks, boolean union) {
+        return new FoldedMasks(masks, union);
+    }
+
+    /**
+     * Check whether the block masks that were folded still have the same
+     * criteria. Changes to the collection of masks itself are not
+     * detected, so the owner must fold again after adding to it.
+     *
+     * @return true if the folded masks can still be used
+     */
+    boolean isCurrent() {
+        for (int i = 0; i < blockMasks.length; i++) {
+            if (blockMasks[i].getExtent() != extent || blockMasks[i].getStateIds() != blockStateIds[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Test whether all of the masks match.
+     *
+     * @param vector the position
+     * @return true if all match
+     */
+    boolean testAll(Vector vector) {
+        if (stateIds != null && !testBlock(vector)) {
+            return false;
+        }
+        for (Mask mask : otherMasks) {
+            if (!mask.test(vector)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Test whether any of the masks match.
+     *
+     * @param vector the position
+     * @return true if any match
+     */
+    boolean testAny(Vector vector) {
+        if (stateIds != null && testBlock(vector)) {
+            return true;
+        }
+        for (Mask mask : otherMasks) {
+            if (mask.test(vector)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean testBlock(Vector vector) {
+        BlockState block = extent.getBlock(vector);
+        if (block.getInternalId() >= 0) {
+            return stateIds.get(block.getInternalId());
+        }
+
+        // Blocks without an id are tested against each mask instead
+        for (BlockStateIdMask mask : blockMasks) {
+            if (mask.test(vector) == union) {
+                return union;
+            }
+        }
+        return !union;
+    }
+
+}
@@ -26,6 +26,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -40,6 +41,7 @@
 public class MaskIntersection extends AbstractMask {
 
     private final Set<Mask> masks = new HashSet<>();
+    @Nullable private volatile FoldedMasks folded;
 
     /**
      * Create a new intersection.
@@ -68,6 +70,7 @@ public MaskIntersection(Mask... mask) {
     public void add(Collection<Mask> masks) {
         checkNotNull(masks);
         this.masks.addAll(masks);
+        this.folded = null;
     }
 
     /**
@@ -82,10 +85,25 @@ public void add(Mask... mask) {
     /**
      * Get the masks that are tested with.
      *
-     * @return the masks
+     * @return an unmodifiable collection of masks
      */
     public Collection<Mask> getMasks() {
-        return masks;
+        return Collections.unmodifiableSet(masks);
+    }
+
+    /**
+     * Get the masks with the block masks among them folded together.
+     *
+     * @param union true to fold the block masks with OR, false for AND
+     * @return the folded masks
+     */
+    FoldedMasks getFoldedMasks(boolean union) {
+        FoldedMasks folded = this.folded;
+        if (folded == null || !folded.isCurrent()) {
+            folded = FoldedMasks.fold(masks, union);
+            this.folded = folded;
+        }
+        return folded;
     }
 
     @Override
@@ -94,13 +112,7 @@ public boolean test(Vector vector) {
             return false;
         }
 
-        for (Mask mask : masks) {
-            if (!mask.test(vector)) {
-                return false;
-            }
-        }
-
-        return true;
+        return getFoldedMasks(false).testAll(vector);
     }
 
     @Nullable
@@ -54,15 +54,7 @@ public MaskUnion(Mask... mask) {
 
     @Override
     public boolean test(Vector vector) {
-        Collection<Mask> masks = getMasks();
-
-        for (Mask mask : masks) {
-            if (mask.test(vector)) {
-                return true;
-            }
-        }
-
-        return false;
+        return getFoldedMasks(true).testAny(vector);
     }
 
     @Nullable
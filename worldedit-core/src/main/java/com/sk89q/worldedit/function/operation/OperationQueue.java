@@ -31,6 +31,10 @@
 
 /**
  * Executes multiple queues in order.
+ *
+ * <p>Further operations are started within the same call to
+ * {@link #resume(RunContext)} for as long as
+ * {@link RunContext#shouldContinue()} returns true.</p>
  */
 public class OperationQueue implements Operation {
 
@@ -85,12 +89,16 @@ public Operation resume(RunContext run) throws WorldEditException {
             current = queue.poll();
         }
 
-        if (current != null) {
+        while (current != null) {
             current = current.resume(run);
 
             if (current == null) {
                 current = queue.poll();
             }
+
+            if (!run.shouldContinue()) {
+                break;
+            }
         }
 
         return current != null ? this : null;
@@ -98,6 +106,10 @@ public Operation resume(RunContext run) throws WorldEditException {
 
     @Override
     public void cancel() {
+        if (current != null) {
+            current.cancel();
+            current = null;
+        }
         for (Operation operation : queue) {
             operation.cancel();
         }
@@ -0,0 +1,217 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sk89q.worldedit.function.operation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.extension.platform.Actor;
+import com.sk89q.worldedit.extension.platform.Capability;
+import com.sk89q.worldedit.extension.platform.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Runs operations a little at a time on every server tick, so that large
+ * operations do not stall the server.
+ *
+ * <p>The scheduler hooks into the tick loop with
+ * {@link Platform#schedule(long, long, Runnable)} of the platform that
+ * provides {@link Capability#GAME_HOOKS}. Each tick, the time budget set by
+ * {@link com.sk89q.worldedit.LocalConfiguration#operationTickBudget} is
+ * shared equally between the running operations. If the platform cannot
+ * schedule tasks, submitted operations are completed immediately.</p>
+ *
+ * <p>As an {@link Executor}, the scheduler runs tasks at the start of the
+ * next tick, on the same thread as the operations. This lets work that
+ * finishes on another thread hand its result back to the game.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class OperationScheduler implements Executor {
+
+    private static final Logger log = Logger.getLogger(OperationScheduler.class.getCanonicalName());
+    private static final long MIN_BUDGET = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final WorldEdit worldEdit;
+    private final List<ScheduledOperation> operations = new ArrayList<>();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    @Nullable private Platform hookedPlatform;
+
+    /**
+     * Create a new scheduler.
+     *
+     * @param worldEdit the WorldEdit instance
+     */
+    public OperationScheduler(WorldEdit worldEdit) {
+        checkNotNull(worldEdit);
+        this.worldEdit = worldEdit;
+    }
+
+    /**
+     * Return whether operations should be submitted to this scheduler
+     * rather than completed immediately, as set in the configuration.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return worldEdit.getConfiguration().operationTickBudget > 0;
+    }
+
+    /**
+     * Submit an operation to be run over the following ticks.
+     *
+     * @param operation the operation
+     * @param owner the actor that started the operation, or null
+     * @return the scheduled operation
+     */
+    public ScheduledOperation submit(Operation operation, @Nullable Actor owner) {
+        checkNotNull(operation);
+        ScheduledOperation scheduled = new ScheduledOperation(nextId.incrementAndGet(), operation, owner);
+        if (hook()) {
+            synchronized (operations) {
+                operations.add(scheduled);
+            }
+        } else {
+            scheduled.run(Long.MAX_VALUE);
+        }
+        return scheduled;
+    }
+
+    /**
+     * Run a task at the start of the next tick. If the platform cannot
+     * schedule tasks, the task is run immediately on the calling thread.
+     *
+     * @param task the task
+     */
+    @Override
+    public void execute(Runnable task) {
+        checkNotNull(task);
+        if (hook()) {
+            tasks.add(task);
+        } else {
+            task.run();
+        }
+    }
+
+    private synchronized boolean hook() {
+        Platform platform = worldEdit.getPlatformManager().queryCapability(Capability.GAME_HOOKS);
+        if (platform != hookedPlatform) {
+            if (platform.schedule(0, 1, this::tick) == -1) {
+                return false;
+            }
+            hookedPlatform = platform;
+        }
+        return true;
+    }
+
+    /**
+     * Run the waiting tasks, then each operation for its share of the time
+     * budget of this tick.
+     */
+    private void tick() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "A scheduled task failed", e);
+            }
+        }
+
+        List<ScheduledOperation> running = getOperations();
+        if (running.isEmpty()) {
+            return;
+        }
+
+        long budget = TimeUnit.MILLISECONDS.toNanos(worldEdit.getConfiguration().operationTickBudget);
+        long share = Math.max(MIN_BUDGET, budget / running.size());
+        for (ScheduledOperation operation : running) {
+            operation.run(share);
+        }
+
+        synchronized (operations) {
+            operations.removeIf(ScheduledOperation::isDone);
+        }
+    }
+
+    /**
+     * Get the operations that have not yet completed.
+     *
+     * @return a list of operations
+     */
+    public List<ScheduledOperation> getOperations() {
+        synchronized (operations) {
+            List<ScheduledOperation> running = new ArrayList<>(operations.size());
+            for (ScheduledOperation operation : operations) {
+                if (!operation.isDone()) {
+                    running.add(operation);
+                }
+            }
+            return running;
+        }
+    }
+
+    /**
+     * Get the operations started by the given actor that have not yet
+     * completed.
+     *
+     * @param owner the actor
+     * @return a list of operations
+     */
+    public List<ScheduledOperation> getOperations(Actor owner) {
+        checkNotNull(owner);
+        List<ScheduledOperation> owned = new ArrayList<>();
+        for (ScheduledOperation operation : getOperations()) {
+            Actor actor = operation.getOwner();
+            if (actor != null && actor.getUniqueId().equals(owner.getUniqueId())) {
+                owned.add(operation);
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Cancel every operation started by the given actor.
+     *
+     * @param owner the actor
+     * @return the number of operations that were cancelled
+     */
+    public int cancel(Actor owner) {
+        int cancelled = 0;
+        for (ScheduledOperation operation : getOperations(owner)) {
+            if (operation.cancel()) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+}
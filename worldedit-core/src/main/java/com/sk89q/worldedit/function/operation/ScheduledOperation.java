@@ -0,0 +1,155 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sk89q.worldedit.function.operation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extension.platform.Actor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * An operation that has been submitted to an {@link OperationScheduler}.
+ */
+public class ScheduledOperation {
+
+    private final int id;
+    @Nullable private final Actor owner;
+    private final Operation original;
+    private final SettableFuture<Void> future = SettableFuture.create();
+    @Nullable private Operation current;
+    private int ticks;
+
+    ScheduledOperation(int id, Operation operation, @Nullable Actor owner) {
+        checkNotNull(operation);
+        this.id = id;
+        this.original = operation;
+        this.current = operation;
+        this.owner = owner;
+    }
+
+    /**
+     * Get the ID of this operation, which is unique within its scheduler.
+     *
+     * @return the ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get the actor that submitted this operation.
+     *
+     * @return the owner, or null if there is none
+     */
+    @Nullable
+    public Actor getOwner() {
+        return owner;
+    }
+
+    /**
+     * Get the number of ticks in which this operation has been run.
+     *
+     * @return the number of ticks
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Return whether this operation has completed, failed or been cancelled.
+     *
+     * @return true if done
+     */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Get a future that completes when the operation completes, fails or
+     * is cancelled.
+     *
+     * @return the future
+     */
+    public ListenableFuture<Void> getFuture() {
+        return future;
+    }
+
+    /**
+     * Get messages that describe the progress of the operation.
+     *
+     * @return a list of messages
+     */
+    public List<String> getStatusMessages() {
+        List<String> messages = new ArrayList<>();
+        original.addStatusMessages(messages);
+        return messages;
+    }
+
+    /**
+     * Cancel the operation if it has not yet completed.
+     *
+     * @return true if the operation was cancelled
+     */
+    public synchronized boolean cancel() {
+        if (current == null) {
+            return false;
+        }
+        current.cancel();
+        current = null;
+        return future.cancel(false);
+    }
+
+    /**
+     * Run the operation for up to the given amount of time.
+     *
+     * @param budget the time budget, in nanoseconds
+     */
+    synchronized void run(long budget) {
+        if (current == null) {
+            return;
+        }
+
+        ticks++;
+        RunContext run = new TimedRunContext(budget, TimeUnit.NANOSECONDS);
+        try {
+            do {
+                current = current.resume(run);
+            } while (current != null && run.shouldContinue());
+        } catch (WorldEditException | RuntimeException e) {
+            Operation failed = current;
+            current = null;
+            failed.cancel();
+            future.setException(e);
+            return;
+        }
+
+        if (current == null) {
+            future.set(null);
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sk89q.worldedit.function.operation;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A run that should stop once a given amount of time has passed.
+ */
+public class TimedRunContext extends RunContext {
+
+    private final long deadline;
+
+    /**
+     * Create a new run that may continue for the given amount of time
+     * from now.
+     *
+     * @param duration the duration
+     * @param unit the unit of the duration
+     */
+    public TimedRunContext(long duration, TimeUnit unit) {
+        checkNotNull(unit);
+        this.deadline = System.nanoTime() + unit.toNanos(duration);
+    }
+
+    @Override
+    public boolean shouldContinue() {
+        return System.nanoTime() - deadline < 0;
+    }
+
+}
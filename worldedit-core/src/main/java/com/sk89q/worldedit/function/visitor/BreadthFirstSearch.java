@@ -27,14 +27,13 @@
 import com.sk89q.worldedit.function.RegionFunction;
 import com.sk89q.worldedit.function.operation.Operation;
 import com.sk89q.worldedit.function.operation.RunContext;
+import com.sk89q.worldedit.math.BlockPositions;
+import com.sk89q.worldedit.util.collection.BlockPositionSet;
+import com.sk89q.worldedit.util.collection.LongArrayQueue;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Queue;
-import java.util.Set;
 
 /**
  * Performs a breadth-first search starting from points added with
@@ -46,13 +45,24 @@
  * <p>As an abstract implementation, this class can be used to implement
  * functionality that starts at certain points and extends outward from
  * those points.</p>
+ *
+ * <p>Visited points are kept in a {@link BlockPositionSet} and queued
+ * points as packed longs, so only points that are tested with
+ * {@link #isVisitable(Vector, Vector)} need a {@link Vector}. Points with
+ * a Y coordinate outside of {@link BlockPositions#MIN_Y} and
+ * {@link BlockPositions#MAX_Y} are never visited.</p>
+ *
+ * <p>The search stops once {@link RunContext#shouldContinue()} returns
+ * false and returns itself so that it can be resumed later. The directions
+ * must not be changed after the search has started.</p>
  */
 public abstract class BreadthFirstSearch implements Operation {
 
     private final RegionFunction function;
-    private final Queue<BlockVector> queue = new ArrayDeque<>();
-    private final Set<BlockVector> visited = new HashSet<>();
+    private final LongArrayQueue queue = new LongArrayQueue();
+    private final BlockPositionSet visited = new BlockPositionSet();
     private final List<Vector> directions = new ArrayList<>();
+    private int[] deltas;
     private int affected = 0;
 
     /**
@@ -119,10 +129,11 @@ protected void addDiagonal() {
      * @param position the position
      */
     public void visit(Vector position) {
-        BlockVector blockVector = position.toBlockVector();
-        if (!visited.contains(blockVector)) {
-            queue.add(blockVector);
-            visited.add(blockVector);
+        int x = position.getBlockX();
+        int y = position.getBlockY();
+        int z = position.getBlockZ();
+        if (y >= BlockPositions.MIN_Y && y <= BlockPositions.MAX_Y && visited.add(x, y, z)) {
+            queue.add(BlockPositions.pack(x, y, z));
         }
     }
 
@@ -130,14 +141,14 @@ public void visit(Vector position) {
      * Try to visit the given 'to' location.
      *
      * @param from the origin block
-     * @param to the block under question
+     * @param x the X coordinate of the block under question
+     * @param y the Y coordinate of the block under question
+     * @param z the Z coordinate of the block under question
      */
-    private void visit(Vector from, Vector to) {
-        BlockVector blockVector = to.toBlockVector();
-        if (!visited.contains(blockVector)) {
-            visited.add(blockVector);
-            if (isVisitable(from, to)) {
-                queue.add(blockVector);
+    private void visit(Vector from, int x, int y, int z) {
+        if (y >= BlockPositions.MIN_Y && y <= BlockPositions.MAX_Y && visited.add(x, y, z)) {
+            if (isVisitable(from, new BlockVector(x, y, z))) {
+                queue.add(BlockPositions.pack(x, y, z));
             }
         }
     }
@@ -163,15 +174,33 @@ public int getAffected() {
 
     @Override
     public Operation resume(RunContext run) throws WorldEditException {
-        Vector position;
-        
-        while ((position = queue.poll()) != null) {
+        if (deltas == null) {
+            deltas = new int[directions.size() * 3];
+            int i = 0;
+            for (Vector dir : directions) {
+                deltas[i++] = dir.getBlockX();
+                deltas[i++] = dir.getBlockY();
+                deltas[i++] = dir.getBlockZ();
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            long packed = queue.remove();
+            int x = BlockPositions.unpackX(packed);
+            int y = BlockPositions.unpackY(packed);
+            int z = BlockPositions.unpackZ(packed);
+            Vector position = new BlockVector(x, y, z);
+
             if (function.apply(position)) {
                 affected++;
             }
 
-            for (Vector dir : directions) {
-                visit(position, position.add(dir));
+            for (int j = 0; j < deltas.length; j += 3) {
+                visit(position, x + deltas[j], y + deltas[j + 1], z + deltas[j + 2]);
+            }
+
+            if (!run.shouldContinue() && !queue.isEmpty()) {
+                return this;
             }
         }
 
@@ -180,6 +209,7 @@ public Operation resume(RunContext run) throws WorldEditException {
 
     @Override
     public void cancel() {
+        queue.clear();
     }
 
     @Override
@@ -67,6 +67,10 @@ public Operation resume(RunContext run) throws WorldEditException {
             if (function.apply(iterator.next())) {
                 affected++;
             }
+
+            if (!run.shouldContinue() && iterator.hasNext()) {
+                return this;
+            }
         }
 
         return null;
@@ -32,6 +32,7 @@
 import com.sk89q.worldedit.function.operation.RunContext;
 import com.sk89q.worldedit.regions.FlatRegion;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -49,6 +50,7 @@ public class LayerVisitor implements Operation {
     private Mask2D mask = Masks.alwaysTrue2D();
     private int minY;
     private int maxY;
+    private Iterator<Vector2D> iterator;
 
     /**
      * Create a new visitor.
@@ -92,7 +94,19 @@ public void setMask(Mask2D mask) {
 
     @Override
     public Operation resume(RunContext run) throws WorldEditException {
-        for (Vector2D column : flatRegion.asFlatRegion()) {
+        if (iterator == null) {
+            iterator = flatRegion.asFlatRegion().iterator();
+        }
+
+        boolean resumed = false;
+        while (iterator.hasNext()) {
+            // Visit at least one column each time so that progress is made
+            if (resumed && !run.shouldContinue()) {
+                return this;
+            }
+            resumed = true;
+
+            Vector2D column = iterator.next();
             if (!mask.test(column)) {
                 continue;
             }
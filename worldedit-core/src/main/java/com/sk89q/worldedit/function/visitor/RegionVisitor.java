@@ -19,22 +19,28 @@
 
 package com.sk89q.worldedit.function.visitor;
 
-import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.BlockVector;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.function.RegionFunction;
 import com.sk89q.worldedit.function.operation.Operation;
 import com.sk89q.worldedit.function.operation.RunContext;
 import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.regions.iterator.RegionCursor;
 
 import java.util.List;
 
 /**
  * Utility class to apply region functions to {@link com.sk89q.worldedit.regions.Region}.
+ *
+ * <p>The visitor stops once {@link RunContext#shouldContinue()} returns
+ * false and returns itself so that it can be resumed later.</p>
  */
 public class RegionVisitor implements Operation {
 
     private final Region region;
     private final RegionFunction function;
+    private RegionCursor cursor;
+    private boolean hasNext;
     private int affected = 0;
 
     public RegionVisitor(Region region, RegionFunction function) {
@@ -53,10 +59,20 @@ public int getAffected() {
 
     @Override
     public Operation resume(RunContext run) throws WorldEditException {
-        for (Vector pt : region) {
-            if (function.apply(pt)) {
+        if (cursor == null) {
+            cursor = region.cursor();
+            hasNext = cursor.next();
+        }
+
+        while (hasNext) {
+            if (function.apply(new BlockVector(cursor.getX(), cursor.getY(), cursor.getZ()))) {
                 affected++;
             }
+
+            hasNext = cursor.next();
+            if (!run.shouldContinue() && hasNext) {
+                return this;
+            }
         }
 
         return null;
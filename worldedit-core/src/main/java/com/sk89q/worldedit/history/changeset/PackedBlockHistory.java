@@ -0,0 +1,385 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.history.changeset;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Iterators;
+import com.sk89q.worldedit.history.change.BlockChange;
+import com.sk89q.worldedit.history.change.Change;
+import com.sk89q.worldedit.math.BlockPositions;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockStatePalette;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores block changes as packed positions and palette ids in primitive
+ * arrays, and other changes in a list.
+ *
+ * <p>Once more than a given number of block changes are held in memory,
+ * they are compressed and appended to a temporary file as one segment.
+ * The palette of blocks always stays in memory. The temporary file is
+ * deleted when this change set is closed. Files left behind by change sets
+ * that were never closed, or by a crash, can be removed with
+ * {@link #deleteFiles(File)}.</p>
+ */
+public class PackedBlockHistory extends ArrayListHistory implements Closeable {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int RECORD_SIZE = 8 + 4 + 4;
+    // The assumed size of a change that is not a block change, such as an entity change
+    private static final int OTHER_CHANGE_SIZE = 64;
+    // The assumed size of the record of a segment on disk
+    private static final int SEGMENT_SIZE = 48;
+    private static final String FILE_PREFIX = "worldedit-history";
+    private static final String FILE_SUFFIX = ".dat";
+
+    private final int spillThreshold;
+    @Nullable private final File directory;
+    private final BlockStatePalette<BlockStateHolder> palette = new BlockStatePalette<>();
+
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private int[] previous = new int[INITIAL_CAPACITY];
+    private int[] current = new int[INITIAL_CAPACITY];
+    private int bufferSize;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private int spilledSize;
+    @Nullable private File file;
+    @Nullable private RandomAccessFile output;
+
+    /**
+     * Create a new instance that never spills to disk.
+     */
+    public PackedBlockHistory() {
+        this(-1);
+    }
+
+    /**
+     * Create a new instance that writes to the system temporary directory.
+     *
+     * @param spillThreshold the number of block changes to keep in memory
+     *                       before writing them to disk, or -1 to never do so
+     */
+    public PackedBlockHistory(int spillThreshold) {
+        this(spillThreshold, null);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param spillThreshold the number of block changes to keep in memory
+     *                       before writing them to disk, or -1 to never do so
+     * @param directory the directory to write to, or null to use the system
+     *                  temporary directory
+     */
+    public PackedBlockHistory(int spillThreshold, @Nullable File directory) {
+        this.spillThreshold = spillThreshold;
+        this.directory = directory;
+    }
+
+    /**
+     * Delete the files written by change sets of this type in the given
+     * directory. Files that are still in use will be deleted as well, so
+     * this should only be called before any change set writes to it.
+     *
+     * @param directory the directory
+     * @return the number of files that were deleted
+     */
+    public static int deleteFiles(File directory) {
+        checkNotNull(directory);
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        int deleted = 0;
+        if (files != null) {
+            for (File file : files) {
+                if (file.delete()) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public void add(Change change) {
+        checkNotNull(change);
+
+        if (change instanceof BlockChange) {
+            BlockChange blockChange = (BlockChange) change;
+            if (bufferSize == positions.length) {
+                int capacity = bufferSize * 2;
+                positions = Arrays.copyOf(positions, capacity);
+                previous = Arrays.copyOf(previous, capacity);
+                current = Arrays.copyOf(current, capacity);
+            }
+            positions[bufferSize] = BlockPositions.pack(blockChange.getPosition());
+            previous[bufferSize] = palette.getId(blockChange.getPrevious());
+            current[bufferSize] = palette.getId(blockChange.getCurrent());
+            bufferSize++;
+
+            if (spillThreshold > 0 && bufferSize >= spillThreshold) {
+                try {
+                    spill();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to write history to disk", e);
+                }
+            }
+        } else {
+            super.add(change);
+        }
+    }
+
+    /**
+     * Compress the block changes held in memory and write them to disk,
+     * even if fewer than the spill threshold have been added.
+     *
+     * @throws IOException thrown on I/O error
+     */
+    public void compact() throws IOException {
+        spill();
+    }
+
+    /**
+     * Compress the block changes held in memory and append them to the
+     * temporary file as a new segment.
+     *
+     * @throws IOException thrown on I/O error
+     */
+    private void spill() throws IOException {
+        if (bufferSize == 0) {
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(bufferSize * RECORD_SIZE / 4);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 8192))) {
+            for (int i = 0; i < bufferSize; i++) {
+                out.writeLong(positions[i]);
+                out.writeInt(previous[i]);
+                out.writeInt(current[i]);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        if (output == null) {
+            file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, directory);
+            output = new RandomAccessFile(file, "rw");
+        }
+        long offset = output.length();
+        output.seek(offset);
+        output.write(bytes.toByteArray());
+
+        segments.add(new Segment(offset, bytes.size(), bufferSize));
+        spilledSize += bufferSize;
+
+        bufferSize = 0;
+        positions = new long[INITIAL_CAPACITY];
+        previous = new int[INITIAL_CAPACITY];
+        current = new int[INITIAL_CAPACITY];
+    }
+
+    private Segment readSegment(Segment segment) throws IOException {
+        byte[] data = new byte[segment.length];
+        synchronized (this) {
+            checkNotNull(output, "History file has been closed");
+            output.seek(segment.offset);
+            output.readFully(data);
+        }
+
+        Segment loaded = new Segment(segment.offset, segment.length, segment.size);
+        loaded.positions = new long[segment.size];
+        loaded.previous = new int[segment.size];
+        loaded.current = new int[segment.size];
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            for (int i = 0; i < segment.size; i++) {
+                loaded.positions[i] = in.readLong();
+                loaded.previous[i] = in.readInt();
+                loaded.current[i] = in.readInt();
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public Iterator<Change> forwardIterator() {
+        return Iterators.concat(super.forwardIterator(), new BlockChangeIterator(false));
+    }
+
+    @Override
+    public Iterator<Change> backwardIterator() {
+        return Iterators.concat(super.backwardIterator(), new BlockChangeIterator(true));
+    }
+
+    @Override
+    public int size() {
+        return super.size() + spilledSize + bufferSize;
+    }
+
+    /**
+     * Get the number of block changes that have been written to disk.
+     *
+     * @return the number of spilled block changes
+     */
+    public int getSpilledSize() {
+        return spilledSize;
+    }
+
+    /**
+     * Get an estimate of the number of bytes of heap used by this change
+     * set, including the palette and the changes that are not block
+     * changes.
+     *
+     * @return the number of bytes
+     */
+    public long getMemoryUsage() {
+        return (long) positions.length * RECORD_SIZE
+                + palette.getMemoryUsage()
+                + (long) super.size() * OTHER_CHANGE_SIZE
+                + (long) segments.size() * SEGMENT_SIZE;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+        if (file != null) {
+            File closed = file;
+            file = null;
+            if (!closed.delete()) {
+                throw new IOException("Failed to delete " + closed);
+            }
+        }
+    }
+
+    /**
+     * A run of block changes that has been written to disk.
+     */
+    private static final class Segment {
+        private final long offset;
+        private final int length;
+        private final int size;
+        private long[] positions;
+        private int[] previous;
+        private int[] current;
+
+        private Segment(long offset, int length, int size) {
+            this.offset = offset;
+            this.length = length;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Iterates through the spilled segments and then the changes in memory,
+     * or in the opposite order when iterating backwards.
+     */
+    private class BlockChangeIterator implements Iterator<Change> {
+        private final boolean reverse;
+        private int segmentIndex;
+        private long[] positions;
+        private int[] previous;
+        private int[] current;
+        private int index;
+        private int end;
+
+        private BlockChangeIterator(boolean reverse) {
+            this.reverse = reverse;
+            this.segmentIndex = reverse ? segments.size() : -1;
+            if (reverse) {
+                useBuffer();
+            } else {
+                advance();
+            }
+        }
+
+        private void useBuffer() {
+            positions = PackedBlockHistory.this.positions;
+            previous = PackedBlockHistory.this.previous;
+            current = PackedBlockHistory.this.current;
+            end = bufferSize;
+            index = reverse ? end - 1 : 0;
+        }
+
+        /**
+         * Move to the next segment (or the in-memory buffer) that has
+         * changes left, if the current one has been exhausted.
+         */
+        private void advance() {
+            while (reverse ? index < 0 : index >= end) {
+                segmentIndex += reverse ? -1 : 1;
+                if (segmentIndex < 0 || segmentIndex > segments.size()) {
+                    return;
+                } else if (segmentIndex == segments.size()) {
+                    useBuffer();
+                } else {
+                    try {
+                        Segment segment = readSegment(segments.get(segmentIndex));
+                        positions = segment.positions;
+                        previous = segment.previous;
+                        current = segment.current;
+                        end = segment.size;
+                        index = reverse ? end - 1 : 0;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read history from disk", e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            advance();
+            return reverse ? index >= 0 : index < end;
+        }
+
+        @Override
+        public Change next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int i = index;
+            index += reverse ? -1 : 1;
+            return new BlockChange(BlockPositions.unpack(positions[i]), palette.get(previous[i]), palette.get(current[i]));
+        }
+    }
+
+}
@@ -19,7 +19,6 @@
 
 package com.sk89q.worldedit.internal.expression;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.internal.expression.lexer.Lexer;
 import com.sk89q.worldedit.internal.expression.lexer.tokens.Token;
@@ -32,17 +31,12 @@
 import com.sk89q.worldedit.internal.expression.runtime.ReturnException;
 import com.sk89q.worldedit.internal.expression.runtime.Variable;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 /**
  * Compiles and evaluates expressions.
@@ -74,18 +68,20 @@
  *
  * <p>Variables are also supported and can be set either by passing values
  * to {@link #evaluate(double...)}.</p>
+ *
+ * <p>Expressions are evaluated on the calling thread. The calculation
+ * timeout is enforced by loops, which check the deadline of the current
+ * evaluation on every iteration.</p>
  */
 public class Expression {
 
-    private static final ThreadLocal<Stack<Expression>> instance = new ThreadLocal<>();
-    private static final ExecutorService evalThread = Executors.newCachedThreadPool(
-            new ThreadFactoryBuilder()
-                    .setDaemon(true)
-                    .setNameFormat("worldedit-expression-eval-%d")
-                    .build());
+    private static final ThreadLocal<Deque<Expression>> instance = new ThreadLocal<>();
 
     private final Map<String, RValue> variables = new HashMap<>();
     private final String[] variableNames;
+    private final Variable[] parameters;
+    private boolean timeLimited;
+    private long deadline;
     private RValue root;
     private final Functions functions = new Functions();
     private ExpressionEnvironment environment;
@@ -106,55 +102,62 @@ private Expression(List<Token> tokens, String... variableNames) throws Expressio
         variables.put("true", new Constant(-1, 1));
         variables.put("false", new Constant(-1, 0));
 
-        for (String variableName : variableNames) {
+        parameters = new Variable[variableNames.length];
+        for (int i = 0; i < variableNames.length; ++i) {
+            String variableName = variableNames[i];
             if (variables.containsKey(variableName)) {
                 throw new ExpressionException(-1, "Tried to overwrite identifier '" + variableName + "'");
             }
-            variables.put(variableName, new Variable(0));
+            Variable variable = new Variable(0);
+            parameters[i] = variable;
+            variables.put(variableName, variable);
         }
 
         root = Parser.parse(tokens, this);
     }
 
     public double evaluate(double... values) throws EvaluationException {
+        return evaluate(values, WorldEdit.getInstance().getConfiguration().calculationTimeout);
+    }
+
+    /**
+     * Evaluate the expression on the calling thread.
+     *
+     * @param values the values of the variables passed to {@link #compile(String, String...)}
+     * @param timeout the time limit in milliseconds, or 0 or less for none
+     * @return the result
+     * @throws EvaluationException if the evaluation fails or exceeds the time limit
+     */
+    public double evaluate(double[] values, int timeout) throws EvaluationException {
         for (int i = 0; i < values.length; ++i) {
-            final String variableName = variableNames[i];
-            final RValue invokable = variables.get(variableName);
-            if (!(invokable instanceof Variable)) {
-                throw new EvaluationException(invokable.getPosition(), "Tried to assign constant " + variableName + ".");
-            }
+            parameters[i].value = values[i];
+        }
 
-            ((Variable) invokable).value = values[i];
+        timeLimited = timeout > 0;
+        if (timeLimited) {
+            deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
         }
 
-        Future<Double> result = evalThread.submit(new Callable<Double>() {
-            @Override
-            public Double call() throws Exception {
-                pushInstance();
-                try {
-                    return root.getValue();
-                } finally {
-                    popInstance();
-                }
-            }
-        });
+        pushInstance();
         try {
-            return result.get(WorldEdit.getInstance().getConfiguration().calculationTimeout, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof ReturnException) {
-                return ((ReturnException) cause).getValue();
-            }
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
-            }
-            throw new RuntimeException(cause);
-        } catch (TimeoutException e) {
-            result.cancel(true);
-            throw new EvaluationException(-1, "Calculations exceeded time limit.");
+            return root.getValue();
+        } catch (ReturnException e) {
+            return e.getValue();
+        } finally {
+            popInstance();
+        }
+    }
+
+    /**
+     * Throw an exception if the current evaluation has exceeded its time
+     * limit. This is called by loops on every iteration.
+     *
+     * @param position the position of the calling node
+     * @throws EvaluationException if the time limit has been exceeded
+     */
+    public void checkDeadline(int position) throws EvaluationException {
+        if (timeLimited && System.nanoTime() - deadline > 0) {
+            throw new EvaluationException(position, "Calculations exceeded time limit.");
         }
     }
 
@@ -181,16 +184,16 @@ public static Expression getInstance() {
     }
 
     private void pushInstance() {
-        Stack<Expression> threadLocalExprStack = instance.get();
+        Deque<Expression> threadLocalExprStack = instance.get();
         if (threadLocalExprStack == null) {
-            instance.set(threadLocalExprStack = new Stack<>());
+            instance.set(threadLocalExprStack = new ArrayDeque<>());
         }
 
         threadLocalExprStack.push(this);
     }
 
     private void popInstance() {
-        Stack<Expression> threadLocalExprStack = instance.get();
+        Deque<Expression> threadLocalExprStack = instance.get();
 
         threadLocalExprStack.pop();
 
@@ -43,6 +43,7 @@ public SimpleFor(int position, LValue counter, RValue first, RValue last, RValue
 
     @Override
     public double getValue() throws EvaluationException {
+        final Expression expression = Expression.getInstance();
         int iterations = 0;
         double ret = 0.0;
 
@@ -53,9 +54,7 @@ public double getValue() throws EvaluationException {
             if (iterations > 256) {
                 throw new EvaluationException(getPosition(), "Loop exceeded 256 iterations.");
             }
-            if (Thread.interrupted()) {
-                throw new EvaluationException(getPosition(), "Calculations exceeded time limit.");
-            }
+            expression.checkDeadline(getPosition());
             ++iterations;
 
             try {
@@ -41,6 +41,7 @@ public While(int position, RValue condition, RValue body, boolean footChecked) {
 
     @Override
     public double getValue() throws EvaluationException {
+        final Expression expression = Expression.getInstance();
         int iterations = 0;
         double ret = 0.0;
 
@@ -49,9 +50,7 @@ public double getValue() throws EvaluationException {
                 if (iterations > 256) {
                     throw new EvaluationException(getPosition(), "Loop exceeded 256 iterations.");
                 }
-                if (Thread.interrupted()) {
-                    throw new EvaluationException(getPosition(), "Calculations exceeded time limit.");
-                }
+                expression.checkDeadline(getPosition());
                 ++iterations;
 
                 try {
@@ -69,9 +68,7 @@ public double getValue() throws EvaluationException {
                 if (iterations > 256) {
                     throw new EvaluationException(getPosition(), "Loop exceeded 256 iterations.");
                 }
-                if (Thread.interrupted()) {
-                    throw new EvaluationException(getPosition(), "Calculations exceeded time limit.");
-                }
+                expression.checkDeadline(getPosition());
                 ++iterations;
 
                 try {
@@ -0,0 +1,109 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.math;
+
+import com.sk89q.worldedit.BlockVector;
+import com.sk89q.worldedit.Vector;
+
+/**
+ * Packs block positions into a single {@code long}.
+ *
+ * <p>X and Z use 26 bits each and Y uses 12 bits, so every position within
+ * the world border and between Y -2048 and 2047 can be represented. This
+ * allows positions to be stored in primitive arrays and hash tables.</p>
+ */
+public final class BlockPositions {
+
+    /**
+     * The lowest Y coordinate that can be packed.
+     */
+    public static final int MIN_Y = -2048;
+
+    /**
+     * The highest Y coordinate that can be packed.
+     */
+    public static final int MAX_Y = 2047;
+
+    private BlockPositions() {
+    }
+
+    /**
+     * Pack a position into a long.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return the packed position
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | (long) y & 0xFFF;
+    }
+
+    /**
+     * Pack a position into a long.
+     *
+     * @param position the position
+     * @return the packed position
+     */
+    public static long pack(Vector position) {
+        return pack(position.getBlockX(), position.getBlockY(), position.getBlockZ());
+    }
+
+    /**
+     * Get the X coordinate of a packed position.
+     *
+     * @param packed the packed position
+     * @return the X coordinate
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    /**
+     * Get the Y coordinate of a packed position.
+     *
+     * @param packed the packed position
+     * @return the Y coordinate
+     */
+    public static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    /**
+     * Get the Z coordinate of a packed position.
+     *
+     * @param packed the packed position
+     * @return the Z coordinate
+     */
+    public static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    /**
+     * Unpack a position into a new vector.
+     *
+     * @param packed the packed position
+     * @return the position
+     */
+    public static BlockVector unpack(long packed) {
+        return new BlockVector(unpackX(packed), unpackY(packed), unpackZ(packed));
+    }
+
+}
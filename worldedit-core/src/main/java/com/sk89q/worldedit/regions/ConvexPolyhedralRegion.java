@@ -22,12 +22,18 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.Vector2D;
+import com.sk89q.worldedit.regions.iterator.ConvexSpanRegionCursor;
+import com.sk89q.worldedit.regions.iterator.IteratorRegionCursor;
+import com.sk89q.worldedit.regions.iterator.RegionCursor;
+import com.sk89q.worldedit.regions.iterator.SpanRegionCursor;
 import com.sk89q.worldedit.regions.polyhedron.Edge;
 import com.sk89q.worldedit.regions.polyhedron.Triangle;
 import com.sk89q.worldedit.world.World;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -291,6 +297,72 @@ public boolean contains(Vector position) {
         return containsRaw(position);
     }
 
+    @Override
+    public RegionCursor cursor() {
+        if (!isDefined()) {
+            return new IteratorRegionCursor(Collections.<Vector>emptyIterator());
+        }
+        return createSpanCursor();
+    }
+
+    @Override
+    public Set<Vector2D> getChunks() {
+        if (!isDefined()) {
+            return Collections.emptySet();
+        }
+        return createSpanCursor().getChunks();
+    }
+
+    @Override
+    public Set<Vector> getChunkCubes() {
+        if (!isDefined()) {
+            return Collections.emptySet();
+        }
+        return createSpanCursor().getChunkCubes();
+    }
+
+    private SpanRegionCursor createSpanCursor() {
+        final int count = triangles.size();
+        final double[] normalX = new double[count];
+        final double[] normalY = new double[count];
+        final double[] normalZ = new double[count];
+        final double[] distance = new double[count];
+        for (int i = 0; i < count; i++) {
+            Triangle triangle = triangles.get(i);
+            normalX[i] = triangle.getNormal().getX();
+            normalY[i] = triangle.getNormal().getY();
+            normalZ[i] = triangle.getNormal().getZ();
+            distance[i] = triangle.getDistance();
+        }
+
+        return new ConvexSpanRegionCursor(getMinimumPoint(), getMaximumPoint()) {
+            @Override
+            protected boolean estimateSpan(int y, int z, double[] estimate) {
+                // Each triangle bounds the row on one side, unless it is parallel to it
+                double min = Double.NEGATIVE_INFINITY;
+                double max = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < count; i++) {
+                    double rest = distance[i] - normalY[i] * y - normalZ[i] * z;
+                    if (normalX[i] > 0) {
+                        max = Math.min(max, rest / normalX[i]);
+                    } else if (normalX[i] < 0) {
+                        min = Math.max(min, rest / normalX[i]);
+                    } else if (rest < -1e-6) {
+                        return false;
+                    }
+                }
+                estimate[0] = min;
+                estimate[1] = max;
+                return true;
+            }
+
+            @Override
+            protected boolean contains(int x, int y, int z) {
+                return containsRaw(new Vector(x, y, z));
+            }
+        };
+    }
+
     private boolean containsRaw(Vector pt) {
         if (lastTriangle != null && lastTriangle.above(pt)) {
             return false;
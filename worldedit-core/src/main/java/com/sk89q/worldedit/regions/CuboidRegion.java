@@ -23,13 +23,14 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.sk89q.worldedit.BlockVector;
-import com.sk89q.worldedit.BlockVector2D;
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.Vector2D;
+import com.sk89q.worldedit.regions.iterator.SpanRegionCursor;
+import com.sk89q.worldedit.util.collection.ChunkCubeSet;
+import com.sk89q.worldedit.util.collection.ChunkSet;
 import com.sk89q.worldedit.world.World;
 import com.sk89q.worldedit.world.storage.ChunkStore;
 
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -290,23 +291,23 @@ public void shift(Vector change) throws RegionOperationException {
 
     @Override
     public Set<Vector2D> getChunks() {
-        Set<Vector2D> chunks = new HashSet<>();
+        ChunkSet.Builder chunks = new ChunkSet.Builder();
 
         Vector min = getMinimumPoint();
         Vector max = getMaximumPoint();
 
         for (int x = min.getBlockX() >> ChunkStore.CHUNK_SHIFTS; x <= max.getBlockX() >> ChunkStore.CHUNK_SHIFTS; ++x) {
             for (int z = min.getBlockZ() >> ChunkStore.CHUNK_SHIFTS; z <= max.getBlockZ() >> ChunkStore.CHUNK_SHIFTS; ++z) {
-                chunks.add(new BlockVector2D(x, z));
+                chunks.add(x, z);
             }
         }
 
-        return chunks;
+        return chunks.build();
     }
 
     @Override
     public Set<Vector> getChunkCubes() {
-        Set<Vector> chunks = new HashSet<>();
+        ChunkCubeSet.Builder chunks = new ChunkCubeSet.Builder();
 
         Vector min = getMinimumPoint();
         Vector max = getMaximumPoint();
@@ -314,12 +315,12 @@ public Set<Vector> getChunkCubes() {
         for (int x = min.getBlockX() >> ChunkStore.CHUNK_SHIFTS; x <= max.getBlockX() >> ChunkStore.CHUNK_SHIFTS; ++x) {
             for (int z = min.getBlockZ() >> ChunkStore.CHUNK_SHIFTS; z <= max.getBlockZ() >> ChunkStore.CHUNK_SHIFTS; ++z) {
                 for (int y = min.getBlockY() >> ChunkStore.CHUNK_SHIFTS; y <= max.getBlockY() >> ChunkStore.CHUNK_SHIFTS; ++y) {
-                    chunks.add(new BlockVector(x, y, z));
+                    chunks.add(x, y, z);
                 }
             }
         }
 
-        return chunks;
+        return chunks.build();
     }
 
     @Override
@@ -373,6 +374,20 @@ public void remove() {
         };
     }
 
+    @Override
+    public SpanRegionCursor cursor() {
+        Vector min = getMinimumPoint();
+        Vector max = getMaximumPoint();
+        return new SpanRegionCursor(min, max) {
+            private final int[] span = { min.getBlockX(), max.getBlockX() };
+
+            @Override
+            protected int[] getSpans(int y, int z) {
+                return span;
+            }
+        };
+    }
+
     @Override
     public Iterable<Vector2D> asFlatRegion() {
         return () -> new Iterator<Vector2D>() {
@@ -27,12 +27,15 @@
 import com.sk89q.worldedit.Vector2D;
 import com.sk89q.worldedit.extent.Extent;
 import com.sk89q.worldedit.math.geom.Polygons;
+import com.sk89q.worldedit.regions.iterator.ConvexSpanRegionCursor;
 import com.sk89q.worldedit.regions.iterator.FlatRegion3DIterator;
 import com.sk89q.worldedit.regions.iterator.FlatRegionIterator;
+import com.sk89q.worldedit.regions.iterator.SpanRegionCursor;
 import com.sk89q.worldedit.world.World;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a cylindrical region.
@@ -319,6 +322,47 @@ public Iterator<BlockVector> iterator() {
         return new FlatRegion3DIterator(this);
     }
 
+    @Override
+    public SpanRegionCursor cursor() {
+        final double centerX = center.getX();
+        final double centerZ = center.getZ();
+        final double radiusX = radius.getX();
+        final double radiusZ = radius.getZ();
+        return new ConvexSpanRegionCursor(getMinimumPoint(), getMaximumPoint()) {
+            @Override
+            protected boolean isFlat() {
+                return true;
+            }
+
+            @Override
+            protected boolean estimateSpan(int y, int z, double[] estimate) {
+                double dz = (z - centerZ) / radiusZ;
+                double halfWidth = radiusX * Math.sqrt(1 - dz * dz);
+                estimate[0] = centerX - halfWidth;
+                estimate[1] = centerX + halfWidth;
+                return halfWidth >= 0;
+            }
+
+            @Override
+            protected boolean contains(int x, int y, int z) {
+                // Matches the arithmetic of contains(Vector)
+                double dx = (x - centerX) / radiusX;
+                double dz = (z - centerZ) / radiusZ;
+                return dx * dx + dz * dz <= 1;
+            }
+        };
+    }
+
+    @Override
+    public Set<Vector2D> getChunks() {
+        return cursor().getChunks();
+    }
+
+    @Override
+    public Set<Vector> getChunkCubes() {
+        return cursor().getChunkCubes();
+    }
+
     @Override
     public Iterable<Vector2D> asFlatRegion() {
         return () -> new FlatRegionIterator(CylinderRegion.this);
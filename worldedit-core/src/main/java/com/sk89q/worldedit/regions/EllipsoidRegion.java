@@ -19,14 +19,12 @@
 
 package com.sk89q.worldedit.regions;
 
-import com.sk89q.worldedit.BlockVector;
-import com.sk89q.worldedit.BlockVector2D;
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.Vector2D;
+import com.sk89q.worldedit.regions.iterator.ConvexSpanRegionCursor;
+import com.sk89q.worldedit.regions.iterator.SpanRegionCursor;
 import com.sk89q.worldedit.world.World;
-import com.sk89q.worldedit.world.storage.ChunkStore;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -178,26 +176,12 @@ public void setRadius(Vector radius) {
 
     @Override
     public Set<Vector2D> getChunks() {
-        final Set<Vector2D> chunks = new HashSet<>();
-
-        final Vector min = getMinimumPoint();
-        final Vector max = getMaximumPoint();
-        final int centerY = getCenter().getBlockY();
-
-        for (int x = min.getBlockX(); x <= max.getBlockX(); ++x) {
-            for (int z = min.getBlockZ(); z <= max.getBlockZ(); ++z) {
-                if (!contains(new BlockVector(x, centerY, z))) {
-                    continue;
-                }
-
-                chunks.add(new BlockVector2D(
-                    x >> ChunkStore.CHUNK_SHIFTS,
-                    z >> ChunkStore.CHUNK_SHIFTS
-                ));
-            }
-        }
+        return cursor().getChunks();
+    }
 
-        return chunks;
+    @Override
+    public Set<Vector> getChunkCubes() {
+        return cursor().getChunkCubes();
     }
 
     @Override
@@ -205,6 +189,36 @@ public boolean contains(Vector position) {
         return position.subtract(center).divide(radius).lengthSq() <= 1;
     }
 
+    @Override
+    public SpanRegionCursor cursor() {
+        final double centerX = center.getX();
+        final double centerY = center.getY();
+        final double centerZ = center.getZ();
+        final double radiusX = radius.getX();
+        final double radiusY = radius.getY();
+        final double radiusZ = radius.getZ();
+        return new ConvexSpanRegionCursor(getMinimumPoint(), getMaximumPoint()) {
+            @Override
+            protected boolean estimateSpan(int y, int z, double[] estimate) {
+                double dy = (y - centerY) / radiusY;
+                double dz = (z - centerZ) / radiusZ;
+                double halfWidth = radiusX * Math.sqrt(1 - dy * dy - dz * dz);
+                estimate[0] = centerX - halfWidth;
+                estimate[1] = centerX + halfWidth;
+                return halfWidth >= 0;
+            }
+
+            @Override
+            protected boolean contains(int x, int y, int z) {
+                // Matches the arithmetic of contains(Vector)
+                double dx = (x - centerX) / radiusX;
+                double dy = (y - centerY) / radiusY;
+                double dz = (z - centerZ) / radiusZ;
+                return dx * dx + dy * dy + dz * dz <= 1;
+            }
+        };
+    }
+
     /**
      * Returns string representation in the format
      * "(centerX, centerY, centerZ) - (radiusX, radiusY, radiusZ)".
@@ -25,12 +25,15 @@
 import com.sk89q.worldedit.Vector2D;
 import com.sk89q.worldedit.regions.iterator.FlatRegion3DIterator;
 import com.sk89q.worldedit.regions.iterator.FlatRegionIterator;
+import com.sk89q.worldedit.regions.iterator.SpanRegionCursor;
 import com.sk89q.worldedit.world.World;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a 2D polygonal region.
@@ -308,17 +311,20 @@ public boolean contains(Vector position) {
      * @return true if the given polygon contains the given point
      */
     public static boolean contains(List<BlockVector2D> points, int minY, int maxY, Vector pt) {
-        if (points.size() < 3) {
-            return false;
-        }
-        int targetX = pt.getBlockX(); //wide
         int targetY = pt.getBlockY(); //height
-        int targetZ = pt.getBlockZ(); //depth
 
         if (targetY < minY || targetY > maxY) {
             return false;
         }
 
+        return contains(points, pt.getBlockX(), pt.getBlockZ());
+    }
+
+    private static boolean contains(List<BlockVector2D> points, int targetX, int targetZ) {
+        if (points.size() < 3) {
+            return false;
+        }
+
         boolean inside = false;
         int npoints = points.size();
         int xNew, zNew;
@@ -402,6 +408,119 @@ public Iterator<BlockVector> iterator() {
         return new FlatRegion3DIterator(this);
     }
 
+    @Override
+    public SpanRegionCursor cursor() {
+        final List<BlockVector2D> points = new ArrayList<>(this.points);
+        final Vector min = getMinimumPoint();
+        final Vector max = getMaximumPoint();
+        final int[][] spansByZ = new int[Math.max(0, max.getBlockZ() - min.getBlockZ() + 1)][];
+        return new SpanRegionCursor(min, max) {
+            @Override
+            protected boolean isFlat() {
+                return true;
+            }
+
+            @Override
+            protected int[] getSpans(int y, int z) {
+                // Rows only differ by Z, so each is worked out once
+                int index = z - min.getBlockZ();
+                int[] spans = spansByZ[index];
+                if (spans == null) {
+                    spans = findSpans(points, z, min.getBlockX(), max.getBlockX());
+                    spansByZ[index] = spans;
+                }
+                return spans;
+            }
+        };
+    }
+
+    @Override
+    public Set<Vector2D> getChunks() {
+        return cursor().getChunks();
+    }
+
+    @Override
+    public Set<Vector> getChunkCubes() {
+        return cursor().getChunkCubes();
+    }
+
+    /**
+     * Find the spans of X coordinates along a row of a polygon.
+     *
+     * <p>Whether {@link #contains(List, int, int)} accepts a position can
+     * only change next to the X coordinate of a vertex or where an edge
+     * crosses the row, so only those positions and one position from each
+     * gap between them are tested.</p>
+     *
+     * @param points the points of the polygon
+     * @param z the Z coordinate of the row
+     * @param minX the minimum X coordinate to include
+     * @param maxX the maximum X coordinate to include
+     * @return the inclusive minimum and maximum X of each span in turn
+     */
+    private static int[] findSpans(List<BlockVector2D> points, int z, int minX, int maxX) {
+        int npoints = points.size();
+        if (npoints < 3) {
+            return new int[0];
+        }
+
+        int[] candidates = new int[npoints * 7];
+        int count = 0;
+        BlockVector2D previous = points.get(npoints - 1);
+        for (BlockVector2D point : points) {
+            int x1 = previous.getBlockX();
+            int z1 = previous.getBlockZ();
+            int x2 = point.getBlockX();
+            int z2 = point.getBlockZ();
+            candidates[count++] = x2 - 1;
+            candidates[count++] = x2;
+            candidates[count++] = x2 + 1;
+            if (z1 != z2 && Math.min(z1, z2) <= z && z <= Math.max(z1, z2)) {
+                int crossing = (int) Math.floor(x1 + (double) (z - z1) * (x2 - x1) / (z2 - z1));
+                candidates[count++] = crossing - 1;
+                candidates[count++] = crossing;
+                candidates[count++] = crossing + 1;
+                candidates[count++] = crossing + 2;
+            }
+            previous = point;
+        }
+        Arrays.sort(candidates, 0, count);
+
+        int[] spans = new int[count * 4];
+        int spanCount = 0;
+        for (int i = 0; i < count; i++) {
+            int x = candidates[i];
+            if (i > 0 && x == candidates[i - 1]) {
+                continue;
+            }
+            int next = i + 1;
+            while (next < count && candidates[next] == x) {
+                next++;
+            }
+
+            // Test the candidate itself, then the gap up to the next one
+            for (int piece = 0; piece < 2; piece++) {
+                int start = piece == 0 ? x : x + 1;
+                int end = piece == 0 ? x : (next < count ? candidates[next] - 1 : x);
+                if (start > end || !contains(points, start, z)) {
+                    continue;
+                }
+                start = Math.max(start, minX);
+                end = Math.min(end, maxX);
+                if (start > end) {
+                    continue;
+                }
+                if (spanCount > 0 && spans[spanCount - 1] == start - 1) {
+                    spans[spanCount - 1] = end;
+                } else {
+                    spans[spanCount++] = start;
+                    spans[spanCount++] = end;
+                }
+            }
+        }
+        return Arrays.copyOf(spans, spanCount);
+    }
+
     @Override
     public Iterable<Vector2D> asFlatRegion() {
         return () -> new FlatRegionIterator(Polygonal2DRegion.this);
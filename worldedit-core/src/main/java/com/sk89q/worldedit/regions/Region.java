@@ -23,6 +23,8 @@
 import com.sk89q.worldedit.BlockVector2D;
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.Vector2D;
+import com.sk89q.worldedit.regions.iterator.IteratorRegionCursor;
+import com.sk89q.worldedit.regions.iterator.RegionCursor;
 import com.sk89q.worldedit.world.World;
 
 import java.util.List;
@@ -118,6 +120,21 @@ public interface Region extends Iterable<BlockVector>, Cloneable {
      */
     boolean contains(Vector position);
 
+    /**
+     * Get a cursor over the positions in the region, which visits the same
+     * positions as {@link #iterator()} but does not create an object for
+     * each one.
+     *
+     * <p>Implementations should visit the positions chunk section by
+     * chunk section where they can. The default implementation wraps
+     * {@link #iterator()}.</p>
+     *
+     * @return a new cursor
+     */
+    default RegionCursor cursor() {
+        return new IteratorRegionCursor(iterator());
+    }
+
     /**
      * Get a list of chunks.
      *
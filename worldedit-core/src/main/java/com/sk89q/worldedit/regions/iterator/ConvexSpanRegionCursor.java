@@ -0,0 +1,122 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.regions.iterator;
+
+import com.sk89q.worldedit.Vector;
+
+/**
+ * A {@link SpanRegionCursor} for regions that have at most one span along
+ * each row, such as cylinders, ellipsoids and convex polyhedra.
+ *
+ * <p>The span of a row is estimated from the shape, and then corrected by
+ * testing the positions at its ends, so that exactly the positions that
+ * {@link #contains(int, int, int)} accepts are visited.</p>
+ */
+public abstract class ConvexSpanRegionCursor extends SpanRegionCursor {
+
+    private final int minX;
+    private final int maxX;
+    private final int[] span = new int[2];
+    private final double[] estimate = new double[2];
+
+    /**
+     * Create a new cursor.
+     *
+     * @param min the minimum point of the region
+     * @param max the maximum point of the region
+     */
+    protected ConvexSpanRegionCursor(Vector min, Vector max) {
+        super(min, max);
+        this.minX = min.getBlockX();
+        this.maxX = max.getBlockX();
+    }
+
+    /**
+     * Estimate the minimum and maximum X coordinates of a row.
+     *
+     * <p>The estimate may be off by a small rounding error, or be larger
+     * than the bounds of the region.</p>
+     *
+     * @param y the Y coordinate of the row
+     * @param z the Z coordinate of the row
+     * @param estimate an array to store the minimum and maximum X in
+     * @return false if the row is certainly empty
+     */
+    protected abstract boolean estimateSpan(int y, int z, double[] estimate);
+
+    /**
+     * Test whether the region contains a position.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return true if the position is in the region
+     */
+    protected abstract boolean contains(int x, int y, int z);
+
+    @Override
+    protected int[] getSpans(int y, int z) {
+        if (!estimateSpan(y, z, estimate)) {
+            return NO_SPANS;
+        }
+        double estimateMin = Math.max(minX, estimate[0]);
+        double estimateMax = Math.min(maxX, estimate[1]);
+        if (!(estimateMin <= estimateMax + 1)) {
+            return NO_SPANS;
+        }
+
+        double centerX = (estimateMin + estimateMax) / 2;
+        int start = (int) Math.ceil(estimateMin);
+        int end = (int) Math.floor(estimateMax);
+        while (start <= end && !contains(start, y, z)) {
+            start++;
+        }
+        while (end >= start && !contains(end, y, z)) {
+            end--;
+        }
+
+        if (start > end) {
+            // Rounding can leave out a narrow row, which is next to the middle
+            start = Math.max(minX, (int) Math.floor(centerX));
+            end = Math.min(maxX, (int) Math.ceil(centerX));
+            while (start <= end && !contains(start, y, z)) {
+                start++;
+            }
+            while (end >= start && !contains(end, y, z)) {
+                end--;
+            }
+            if (start > end) {
+                return NO_SPANS;
+            }
+        }
+
+        while (start > minX && contains(start - 1, y, z)) {
+            start--;
+        }
+        while (end < maxX && contains(end + 1, y, z)) {
+            end++;
+        }
+
+        span[0] = start;
+        span[1] = end;
+        return span;
+    }
+
+}
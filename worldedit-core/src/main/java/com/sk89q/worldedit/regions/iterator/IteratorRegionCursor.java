@@ -0,0 +1,75 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.regions.iterator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.Vector;
+
+import java.util.Iterator;
+
+/**
+ * A {@link RegionCursor} over the positions returned by an iterator.
+ */
+public class IteratorRegionCursor implements RegionCursor {
+
+    private final Iterator<? extends Vector> iterator;
+    private int x;
+    private int y;
+    private int z;
+
+    /**
+     * Create a new cursor.
+     *
+     * @param iterator the iterator
+     */
+    public IteratorRegionCursor(Iterator<? extends Vector> iterator) {
+        checkNotNull(iterator);
+        this.iterator = iterator;
+    }
+
+    @Override
+    public boolean next() {
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        Vector position = iterator.next();
+        x = position.getBlockX();
+        y = position.getBlockY();
+        z = position.getBlockZ();
+        return true;
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int getZ() {
+        return z;
+    }
+
+}
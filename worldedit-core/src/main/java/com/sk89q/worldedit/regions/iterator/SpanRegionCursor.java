@@ -0,0 +1,284 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.regions.iterator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.Vector2D;
+import com.sk89q.worldedit.util.collection.ChunkCubeSet;
+import com.sk89q.worldedit.util.collection.ChunkSet;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * A {@link RegionCursor} for regions whose positions can be described as
+ * spans of X coordinates along each row of Y and Z.
+ *
+ * <p>Positions are visited one 16x16 chunk column at a time, and within a
+ * column one 16 block high section at a time, so that all the positions in
+ * a chunk section are visited together.</p>
+ *
+ * <p>The same spans are used to work out which chunks the region covers,
+ * one row at a time rather than one position at a time.</p>
+ */
+public abstract class SpanRegionCursor implements RegionCursor {
+
+    /**
+     * An empty array of spans.
+     */
+    protected static final int[] NO_SPANS = new int[0];
+
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+
+    private boolean started;
+    private int chunkX;
+    private int chunkZ;
+    private int columnMinX;
+    private int columnMaxX;
+    private int columnMinZ;
+    private int columnMaxZ;
+    private int sectionMaxY;
+
+    private int x;
+    private int y;
+    private int z;
+    private int spanEnd = Integer.MIN_VALUE;
+    private int[] spans = NO_SPANS;
+    private int spanIndex;
+
+    /**
+     * Create a new cursor.
+     *
+     * @param min the minimum point of the region
+     * @param max the maximum point of the region
+     */
+    protected SpanRegionCursor(Vector min, Vector max) {
+        checkNotNull(min);
+        checkNotNull(max);
+        this.minX = min.getBlockX();
+        this.minY = min.getBlockY();
+        this.minZ = min.getBlockZ();
+        this.maxX = max.getBlockX();
+        this.maxY = max.getBlockY();
+        this.maxZ = max.getBlockZ();
+    }
+
+    /**
+     * Get the spans of X coordinates in the region along a row.
+     *
+     * <p>The returned array holds the inclusive minimum and maximum X of
+     * each span in turn, in ascending order. Only rows within the minimum
+     * and maximum points of the region are requested. The cursor does not
+     * keep the array after the next call, so it may be reused.</p>
+     *
+     * @param y the Y coordinate of the row
+     * @param z the Z coordinate of the row
+     * @return the spans
+     */
+    protected abstract int[] getSpans(int y, int z);
+
+    /**
+     * Return whether the spans of a row only depend on its Z coordinate.
+     *
+     * @return true if every Y coordinate has the same rows
+     */
+    protected boolean isFlat() {
+        return false;
+    }
+
+    /**
+     * Get the chunks that contain at least one position of the region.
+     *
+     * @return the chunk coordinates
+     */
+    public Set<Vector2D> getChunks() {
+        ChunkSet.Builder chunks = new ChunkSet.Builder();
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            return chunks.build();
+        }
+
+        int minChunkX = minX >> 4;
+        int lastY = isFlat() ? minY : maxY;
+        BitSet columns = new BitSet();
+        for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+            columns.clear();
+            int rowMaxZ = Math.min(maxZ, (chunkZ << 4) + 15);
+            for (int z = Math.max(minZ, chunkZ << 4); z <= rowMaxZ; z++) {
+                for (int y = minY; y <= lastY; y++) {
+                    markChunks(getSpans(y, z), minChunkX, columns);
+                }
+            }
+            for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                chunks.add(minChunkX + i, chunkZ);
+            }
+        }
+        return chunks.build();
+    }
+
+    /**
+     * Get the 16x16x16 chunk sections that contain at least one position
+     * of the region.
+     *
+     * @return the section coordinates
+     */
+    public Set<Vector> getChunkCubes() {
+        ChunkCubeSet.Builder cubes = new ChunkCubeSet.Builder();
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            return cubes.build();
+        }
+
+        int minChunkX = minX >> 4;
+        BitSet columns = new BitSet();
+        for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+            int rowMaxZ = Math.min(maxZ, (chunkZ << 4) + 15);
+            for (int chunkY = minY >> 4; chunkY <= maxY >> 4; chunkY++) {
+                columns.clear();
+                int sectionMaxY = Math.min(maxY, (chunkY << 4) + 15);
+                for (int y = Math.max(minY, chunkY << 4); y <= sectionMaxY; y++) {
+                    for (int z = Math.max(minZ, chunkZ << 4); z <= rowMaxZ; z++) {
+                        markChunks(getSpans(y, z), minChunkX, columns);
+                    }
+                }
+                for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                    cubes.add(minChunkX + i, chunkY, chunkZ);
+                }
+            }
+        }
+        return cubes.build();
+    }
+
+    private void markChunks(int[] spans, int minChunkX, BitSet columns) {
+        for (int i = 0; i < spans.length; i += 2) {
+            int start = Math.max(spans[i], minX);
+            int end = Math.min(spans[i + 1], maxX);
+            if (start <= end) {
+                columns.set((start >> 4) - minChunkX, (end >> 4) - minChunkX + 1);
+            }
+        }
+    }
+
+    @Override
+    public boolean next() {
+        if (x < spanEnd) {
+            x++;
+            return true;
+        }
+
+        while (true) {
+            for (spanIndex += 2; spanIndex < spans.length; spanIndex += 2) {
+                int start = Math.max(spans[spanIndex], columnMinX);
+                int end = Math.min(spans[spanIndex + 1], columnMaxX);
+                if (start <= end) {
+                    x = start;
+                    spanEnd = end;
+                    return true;
+                }
+            }
+
+            if (!nextRow()) {
+                spans = NO_SPANS;
+                spanEnd = Integer.MIN_VALUE;
+                return false;
+            }
+            spans = getSpans(y, z);
+            spanIndex = -2;
+        }
+    }
+
+    /**
+     * Move to the next row, going through the rows of each section of each
+     * chunk column in turn.
+     *
+     * @return false if there are no rows left
+     */
+    private boolean nextRow() {
+        if (!started) {
+            if (minX > maxX || minY > maxY || minZ > maxZ) {
+                return false;
+            }
+            started = true;
+            chunkX = minX >> 4;
+            chunkZ = minZ >> 4;
+            enterColumn();
+            return true;
+        }
+
+        if (z < columnMaxZ) {
+            z++;
+            return true;
+        }
+        z = columnMinZ;
+
+        if (y < sectionMaxY) {
+            y++;
+            return true;
+        }
+
+        if (y < maxY) {
+            y++;
+            sectionMaxY = Math.min(maxY, y | 15);
+            return true;
+        }
+
+        if (chunkX < maxX >> 4) {
+            chunkX++;
+        } else if (chunkZ < maxZ >> 4) {
+            chunkX = minX >> 4;
+            chunkZ++;
+        } else {
+            return false;
+        }
+        enterColumn();
+        return true;
+    }
+
+    private void enterColumn() {
+        columnMinX = Math.max(minX, chunkX << 4);
+        columnMaxX = Math.min(maxX, (chunkX << 4) + 15);
+        columnMinZ = Math.max(minZ, chunkZ << 4);
+        columnMaxZ = Math.min(maxZ, (chunkZ << 4) + 15);
+        y = minY;
+        sectionMaxY = Math.min(maxY, y | 15);
+        z = columnMinZ;
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int getZ() {
+        return z;
+    }
+
+}
@@ -71,6 +71,25 @@ public Edge getEdge(int index) {
         return new Edge(vertices[index], vertices[index + 1]);
     }
 
+    /**
+     * Get the unit normal of the plane the triangle is in.
+     *
+     * @return the normal
+     */
+    public Vector getNormal() {
+        return normal;
+    }
+
+    /**
+     * Get the dot product of the normal with the points of the plane the
+     * triangle is in. Points above the plane have a greater dot product.
+     *
+     * @return the distance of the plane along its normal
+     */
+    public double getDistance() {
+        return b;
+    }
+
     /**
      * Returns whether the given point is above the plane the triangle is in.
      *
@@ -0,0 +1,391 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.session;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.EditSession;
+import com.sk89q.worldedit.LocalSession;
+import com.sk89q.worldedit.history.changeset.ChangeSet;
+import com.sk89q.worldedit.history.changeset.PackedBlockHistory;
+import com.sk89q.worldedit.util.report.DataReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the undo history of every session within a memory budget.
+ *
+ * <p>Edit sessions are tracked in the order that they were remembered.
+ * When the history of all sessions, or of a single session, uses more
+ * memory than allowed, the oldest edit sessions are first compressed to
+ * disk where their change set supports it, and then forgotten by the
+ * session that remembered them.</p>
+ *
+ * <p>An edit session may still gain changes after it has been remembered,
+ * such as when it is being run over several ticks. The memory used by
+ * every tracked edit session is measured again whenever another edit
+ * session is remembered, and {@link #update(EditSession)} measures a
+ * single edit session again once it has grown.</p>
+ *
+ * <p>Because forgetting an edit session changes the history of its
+ * session, which may belong to another player, this class should only be
+ * used from the thread that handles commands.</p>
+ */
+public class HistoryManager {
+
+    /**
+     * The number of bytes assumed to be used by each change of a change
+     * set that cannot report its own memory usage.
+     */
+    private static final int ESTIMATED_CHANGE_SIZE = 64;
+
+    private static final Logger log = Logger.getLogger(HistoryManager.class.getCanonicalName());
+
+    private final Map<EditSession, Entry> entries = new LinkedHashMap<>();
+    private final Map<LocalSession, Long> sessionUsage = new HashMap<>();
+    private long memoryUsage;
+    private long maxMemory = -1;
+    private long maxSessionMemory = -1;
+    private long compacted;
+    private long forgotten;
+    @Nullable private File spillDirectory;
+
+    /**
+     * Get the number of bytes that the history of all sessions may use.
+     *
+     * @return the number of bytes, or -1 if there is no limit
+     */
+    public synchronized long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Set the number of bytes that the history of all sessions may use.
+     *
+     * @param maxMemory the number of bytes, or -1 for no limit
+     */
+    public synchronized void setMaxMemory(long maxMemory) {
+        this.maxMemory = maxMemory < 0 ? -1 : maxMemory;
+        shrink(null, this.maxMemory);
+    }
+
+    /**
+     * Get the number of bytes that the history of one session may use.
+     *
+     * @return the number of bytes, or -1 if there is no limit
+     */
+    public synchronized long getMaxSessionMemory() {
+        return maxSessionMemory;
+    }
+
+    /**
+     * Set the number of bytes that the history of one session may use.
+     *
+     * @param maxSessionMemory the number of bytes, or -1 for no limit
+     */
+    public synchronized void setMaxSessionMemory(long maxSessionMemory) {
+        this.maxSessionMemory = maxSessionMemory < 0 ? -1 : maxSessionMemory;
+        for (LocalSession session : sessionUsage.keySet().toArray(new LocalSession[0])) {
+            shrink(session, this.maxSessionMemory);
+        }
+    }
+
+    /**
+     * Get the directory that change sets write history to when it does not
+     * fit in memory.
+     *
+     * @return the directory, or null to use the system temporary directory
+     */
+    @Nullable
+    public synchronized File getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Set the directory that change sets write history to when it does not
+     * fit in memory.
+     *
+     * <p>When the directory changes, history files that were left in it
+     * by change sets that were never closed, such as before a crash, are
+     * deleted. The directory should therefore not be shared with another
+     * server.</p>
+     *
+     * @param directory the directory, or null to use the system temporary directory
+     */
+    public synchronized void setSpillDirectory(@Nullable File directory) {
+        if (directory == null || directory.equals(spillDirectory)) {
+            spillDirectory = directory;
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.log(Level.WARNING, "Failed to create the history directory " + directory);
+            spillDirectory = null;
+            return;
+        }
+        int deleted = PackedBlockHistory.deleteFiles(directory);
+        if (deleted > 0) {
+            log.info("Deleted " + deleted + " history file(s) left in " + directory);
+        }
+        spillDirectory = directory;
+    }
+
+    /**
+     * Get the estimated number of bytes used by the history of all
+     * sessions.
+     *
+     * @return the number of bytes
+     */
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * Get the estimated number of bytes used by the history of a session.
+     *
+     * @param session the session
+     * @return the number of bytes
+     */
+    public synchronized long getMemoryUsage(LocalSession session) {
+        checkNotNull(session);
+        return sessionUsage.getOrDefault(session, 0L);
+    }
+
+    /**
+     * Track an edit session that a session has added to its history, and
+     * then make room in the budgets if needed.
+     *
+     * @param session the session
+     * @param editSession the edit session
+     */
+    public synchronized void remember(LocalSession session, EditSession editSession) {
+        checkNotNull(session);
+        checkNotNull(editSession);
+
+        forget(editSession);
+        for (Map.Entry<EditSession, Entry> mapEntry : entries.entrySet()) {
+            measure(mapEntry.getKey(), mapEntry.getValue());
+        }
+        Entry entry = new Entry(session, getMemoryUsage(editSession.getChangeSet()));
+        entries.put(editSession, entry);
+        addUsage(session, entry.memoryUsage);
+
+        shrink(session, maxSessionMemory);
+        shrink(null, maxMemory);
+    }
+
+    /**
+     * Measure the memory used by a tracked edit session again, such as when
+     * changes have been added to it since it was remembered, and then make
+     * room in the budgets if needed.
+     *
+     * @param editSession the edit session
+     */
+    public synchronized void update(EditSession editSession) {
+        checkNotNull(editSession);
+        Entry entry = entries.get(editSession);
+        if (entry == null) {
+            return;
+        }
+
+        measure(editSession, entry);
+
+        shrink(entry.session, maxSessionMemory);
+        shrink(null, maxMemory);
+    }
+
+    private void measure(EditSession editSession, Entry entry) {
+        long memoryUsage = getMemoryUsage(editSession.getChangeSet());
+        if (memoryUsage > entry.memoryUsage) {
+            // Changes added since the last compaction are held in memory again
+            entry.compacted = false;
+        }
+        addUsage(entry.session, memoryUsage - entry.memoryUsage);
+        entry.memoryUsage = memoryUsage;
+    }
+
+    /**
+     * Stop tracking an edit session that is no longer in the history of
+     * its session.
+     *
+     * @param editSession the edit session
+     */
+    public synchronized void forget(EditSession editSession) {
+        checkNotNull(editSession);
+        Entry entry = entries.remove(editSession);
+        if (entry != null) {
+            addUsage(entry.session, -entry.memoryUsage);
+        }
+    }
+
+    /**
+     * Stop tracking every edit session of a session, such as when the
+     * session is no longer kept.
+     *
+     * @param session the session
+     */
+    public synchronized void forget(LocalSession session) {
+        checkNotNull(session);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.session == session) {
+                addUsage(session, -entry.memoryUsage);
+                it.remove();
+            }
+        }
+    }
+
+    private void addUsage(LocalSession session, long bytes) {
+        memoryUsage += bytes;
+        long usage = sessionUsage.getOrDefault(session, 0L) + bytes;
+        if (usage > 0) {
+            sessionUsage.put(session, usage);
+        } else {
+            sessionUsage.remove(session);
+        }
+    }
+
+    /**
+     * Compress and then forget the oldest edit sessions until the usage is
+     * within a budget.
+     *
+     * @param session the session whose history to shrink, or {@code null}
+     *                to shrink the history of all sessions
+     * @param budget the number of bytes, or -1 for no limit
+     */
+    private void shrink(@Nullable LocalSession session, long budget) {
+        if (budget < 0 || getUsage(session) <= budget) {
+            return;
+        }
+
+        for (Map.Entry<EditSession, Entry> mapEntry : entries.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            if (session != null && entry.session != session) {
+                continue;
+            }
+            compact(mapEntry.getKey(), entry);
+            if (getUsage(session) <= budget) {
+                return;
+            }
+        }
+
+        while (getUsage(session) > budget) {
+            Map.Entry<EditSession, Entry> oldest = findOldest(session);
+            if (oldest == null) {
+                return;
+            }
+            int size = entries.size();
+            oldest.getValue().session.discardOldestHistory();
+            if (entries.size() == size) {
+                // The session no longer had the edit session in its history
+                forget(oldest.getKey());
+            }
+            forgotten += size - entries.size();
+        }
+    }
+
+    private long getUsage(@Nullable LocalSession session) {
+        return session != null ? sessionUsage.getOrDefault(session, 0L) : memoryUsage;
+    }
+
+    @Nullable
+    private Map.Entry<EditSession, Entry> findOldest(@Nullable LocalSession session) {
+        for (Map.Entry<EditSession, Entry> mapEntry : entries.entrySet()) {
+            if (session == null || mapEntry.getValue().session == session) {
+                return mapEntry;
+            }
+        }
+        return null;
+    }
+
+    private void compact(EditSession editSession, Entry entry) {
+        ChangeSet changeSet = editSession.getChangeSet();
+        if (entry.compacted || !(changeSet instanceof PackedBlockHistory)) {
+            return;
+        }
+
+        try {
+            ((PackedBlockHistory) changeSet).compact();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to write edit history to disk", e);
+        }
+        entry.compacted = true;
+        compacted++;
+
+        measure(editSession, entry);
+    }
+
+    /**
+     * Create a report of the memory used by history.
+     *
+     * @return a report
+     */
+    public synchronized DataReport createReport() {
+        DataReport report = new DataReport("History");
+        report.append("Memory Usage (KB)", memoryUsage / 1024);
+        report.append("Max Memory (KB)", maxMemory < 0 ? "unlimited" : String.valueOf(maxMemory / 1024));
+        report.append("Max Memory Per Session (KB)", maxSessionMemory < 0 ? "unlimited" : String.valueOf(maxSessionMemory / 1024));
+        report.append("Sessions", sessionUsage.size());
+        report.append("Edit Sessions", entries.size());
+        report.append("Compressed Edit Sessions", compacted);
+        report.append("Forgotten Edit Sessions", forgotten);
+        return report;
+    }
+
+    /**
+     * Get an estimate of the number of bytes of heap used by a change set.
+     *
+     * @param changeSet the change set
+     * @return the number of bytes
+     */
+    public static long getMemoryUsage(ChangeSet changeSet) {
+        checkNotNull(changeSet);
+        if (changeSet instanceof PackedBlockHistory) {
+            return ((PackedBlockHistory) changeSet).getMemoryUsage();
+        } else {
+            return (long) changeSet.size() * ESTIMATED_CHANGE_SIZE;
+        }
+    }
+
+    /**
+     * The session that remembered an edit session, and the memory used by
+     * the edit session's change set.
+     */
+    private static final class Entry {
+        private final LocalSession session;
+        private long memoryUsage;
+        private boolean compacted;
+
+        private Entry(LocalSession session, long memoryUsage) {
+            this.session = session;
+            this.memoryUsage = memoryUsage;
+        }
+    }
+
+}
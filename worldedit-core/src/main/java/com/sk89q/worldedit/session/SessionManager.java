@@ -25,11 +25,13 @@
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.sk89q.worldedit.LocalConfiguration;
 import com.sk89q.worldedit.LocalSession;
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.entity.Player;
 import com.sk89q.worldedit.event.platform.ConfigurationLoadEvent;
+import com.sk89q.worldedit.session.storage.BinaryFileSessionStore;
 import com.sk89q.worldedit.session.storage.JsonFileSessionStore;
 import com.sk89q.worldedit.session.storage.SessionStore;
 import com.sk89q.worldedit.session.storage.VoidStore;
@@ -45,7 +47,7 @@
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
-import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -62,12 +64,18 @@ public class SessionManager {
 
     public static int EXPIRATION_GRACE = 600000;
     private static final int FLUSH_PERIOD = 1000 * 30;
-    private static final ListeningExecutorService executorService = MoreExecutors.listeningDecorator(EvenMoreExecutors.newBoundedCachedThreadPool(0, 1, 5));
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final int IO_THREADS = 4;
+    private static final long UNLOAD_SAVE_TIMEOUT = 1000 * 10;
+    private static final ListeningExecutorService executorService = MoreExecutors.listeningDecorator(EvenMoreExecutors.newBoundedCachedThreadPool(IO_THREADS, IO_THREADS, 4096));
     private static final Logger log = Logger.getLogger(SessionManager.class.getCanonicalName());
     private final Timer timer = new Timer();
     private final WorldEdit worldEdit;
     private final Map<UUID, SessionHolder> sessions = new HashMap<>();
-    private SessionStore store = new VoidStore();
+    private final Map<UUID, PendingLoad> loads = new HashMap<>();
+    private final Map<UUID, PendingSave> saves = new HashMap<>();
+    private final HistoryManager historyManager = new HistoryManager();
+    private volatile SessionStore store = new VoidStore();
 
     /**
      * Create a new session manager.
@@ -82,6 +90,16 @@ public SessionManager(WorldEdit worldEdit) {
         timer.schedule(new SessionTracker(), FLUSH_PERIOD, FLUSH_PERIOD);
     }
 
+    /**
+     * Get the history manager that keeps the history of every session
+     * within a memory budget.
+     *
+     * @return the history manager
+     */
+    public HistoryManager getHistoryManager() {
+        return historyManager;
+    }
+
     /**
      * Get whether a session exists for the given owner.
      *
@@ -143,17 +161,29 @@ public synchronized LocalSession get(SessionOwner owner) {
         LocalConfiguration config = worldEdit.getConfiguration();
         SessionKey sessionKey = owner.getSessionKey();
 
-        // No session exists yet -- create one
+        // No session exists yet -- use the preloaded one or load it now
         if (session == null) {
-            try {
-                session = store.load(getKey(sessionKey));
-                session.postLoad();
-            } catch (IOException e) {
-                log.log(Level.WARNING, "Failed to load saved session", e);
-                session = new LocalSession();
+            UUID key = getKey(sessionKey);
+            PendingLoad pending = loads.remove(key);
+            if (pending != null) {
+                try {
+                    session = Futures.getUnchecked(pending.future);
+                } catch (UncheckedExecutionException e) {
+                    log.log(Level.WARNING, "Failed to load saved session", e.getCause());
+                }
+            }
+
+            if (session == null) {
+                try {
+                    session = load(key);
+                } catch (IOException e) {
+                    log.log(Level.WARNING, "Failed to load saved session", e);
+                    session = new LocalSession();
+                }
             }
 
             session.setConfiguration(config);
+            session.setHistoryManager(historyManager);
             session.setBlockChangeLimit(config.defaultChangeLimit);
 
             // Remember the session if the session is still active
@@ -194,40 +224,142 @@ public synchronized LocalSession get(SessionOwner owner) {
     }
 
     /**
-     * Save a map of sessions to disk.
+     * Start loading the session of a player in the background, such as
+     * when they are about to join, so that {@link #get(SessionOwner)} does
+     * not have to wait for it to be read.
+     *
+     * <p>A preloaded session that is not used is dropped after
+     * {@link #EXPIRATION_GRACE}.</p>
+     *
+     * @param uniqueId the unique ID of the player
+     * @return a future that completes with the session
+     */
+    public synchronized ListenableFuture<LocalSession> preload(UUID uniqueId) {
+        checkNotNull(uniqueId);
+        UUID key = getKey(uniqueId);
+
+        SessionHolder stored = sessions.get(key);
+        if (stored != null) {
+            return Futures.immediateFuture(stored.session);
+        }
+        PendingLoad pending = loads.get(key);
+        if (pending != null) {
+            return pending.future;
+        }
+
+        ListenableFuture<LocalSession> future;
+        try {
+            future = executorService.submit(() -> load(key));
+        } catch (RejectedExecutionException e) {
+            return Futures.immediateFailedFuture(e);
+        }
+        loads.put(key, new PendingLoad(future));
+        return future;
+    }
+
+    /**
+     * Load a session from the store, or use the session that is still
+     * waiting to be saved under the same key.
      *
-     * @param sessions a map of sessions to save
-     * @return a future that completes on save or error
+     * @param key the key
+     * @return the session
+     * @throws IOException thrown on read error
      */
-    private ListenableFuture<?> commit(final Map<SessionKey, LocalSession> sessions) {
-        checkNotNull(sessions);
+    private LocalSession load(UUID key) throws IOException {
+        synchronized (saves) {
+            PendingSave pending = saves.get(key);
+            if (pending != null) {
+                return pending.session;
+            }
+        }
+
+        LocalSession session = store.load(key);
+        session.postLoad();
+        return session;
+    }
 
-        if (sessions.isEmpty()) {
-            return Futures.immediateFuture(sessions);
+    /**
+     * Save a session in the background.
+     *
+     * <p>Saves of the same key happen one after another. If a session is
+     * committed again before its previous save has started, only the
+     * latest session is saved.</p>
+     *
+     * @param key the session key
+     * @param session the session
+     */
+    private void commit(SessionKey key, LocalSession session) {
+        if (!key.isPersistent()) {
+            return;
         }
 
-        return executorService.submit((Callable<Object>) () -> {
-            Exception exception = null;
+        UUID id = getKey(key);
+        synchronized (saves) {
+            PendingSave pending = saves.get(id);
+            if (pending != null) {
+                pending.session = session;
+                pending.queued = true;
+                return;
+            }
+            saves.put(id, new PendingSave(session));
+        }
 
-            for (Map.Entry<SessionKey, LocalSession> entry : sessions.entrySet()) {
-                SessionKey key = entry.getKey();
+        try {
+            executorService.execute(() -> save(id));
+        } catch (RejectedExecutionException e) {
+            save(id);
+        }
+    }
 
-                if (key.isPersistent()) {
-                    try {
-                        store.save(getKey(key), entry.getValue());
-                    } catch (IOException e) {
-                        log.log(Level.WARNING, "Failed to write session for UUID " + getKey(key), e);
-                        exception = e;
-                    }
+    /**
+     * Save the session queued for a key, until no newer one is queued.
+     *
+     * @param id the key
+     */
+    private void save(UUID id) {
+        while (true) {
+            LocalSession session;
+            synchronized (saves) {
+                PendingSave pending = saves.get(id);
+                if (!pending.queued) {
+                    saves.remove(id);
+                    saves.notifyAll();
+                    return;
                 }
+                pending.queued = false;
+                session = pending.session;
             }
 
-            if (exception != null) {
-                throw exception;
+            try {
+                store.save(id, session);
+            } catch (IOException | RuntimeException e) {
+                log.log(Level.WARNING, "Failed to write session for UUID " + id, e);
             }
+        }
+    }
 
-            return sessions;
-        });
+    /**
+     * Wait for the sessions that are being saved in the background.
+     *
+     * @param timeout the maximum time to wait, in milliseconds
+     */
+    private void awaitSaves(long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (saves) {
+            while (!saves.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    log.log(Level.WARNING, "Timed out waiting for " + saves.size() + " session(s) to be saved");
+                    return;
+                }
+                try {
+                    saves.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
     }
 
     /**
@@ -248,11 +380,21 @@ protected UUID getKey(SessionOwner owner) {
      * @return the key object
      */
     protected UUID getKey(SessionKey key) {
+        return getKey(key.getUniqueId());
+    }
+
+    /**
+     * Get the key to use in the map for a unique ID.
+     *
+     * @param uniqueId the unique ID
+     * @return the key object
+     */
+    private UUID getKey(UUID uniqueId) {
         String forcedKey = System.getProperty("worldedit.session.uuidOverride");
         if (forcedKey != null) {
             return UUID.fromString(forcedKey);
         } else {
-            return key.getUniqueId();
+            return uniqueId;
         }
     }
 
@@ -263,7 +405,10 @@ protected UUID getKey(SessionKey key) {
      */
     public synchronized void remove(SessionOwner owner) {
         checkNotNull(owner);
-        sessions.remove(getKey(owner));
+        SessionHolder stored = sessions.remove(getKey(owner));
+        if (stored != null) {
+            release(stored.session);
+        }
     }
 
     /**
@@ -271,6 +416,7 @@ public synchronized void remove(SessionOwner owner) {
      */
     public synchronized void unload() {
         clear();
+        awaitSaves(UNLOAD_SAVE_TIMEOUT);
     }
 
     /**
@@ -278,13 +424,26 @@ public synchronized void unload() {
      */
     public synchronized void clear() {
         saveChangedSessions();
+        for (SessionHolder stored : sessions.values()) {
+            release(stored.session);
+        }
         sessions.clear();
     }
 
+    /**
+     * Close the history of a session that is no longer kept, so that any
+     * files it was written to are deleted.
+     *
+     * @param session the session
+     */
+    private void release(LocalSession session) {
+        session.clearHistory();
+        historyManager.forget(session);
+    }
+
     private synchronized void saveChangedSessions() {
         long now = System.currentTimeMillis();
         Iterator<SessionHolder> it = sessions.values().iterator();
-        Map<SessionKey, LocalSession> saveQueue = new HashMap<>();
 
         while (it.hasNext()) {
             SessionHolder stored = it.next();
@@ -292,29 +451,35 @@ private synchronized void saveChangedSessions() {
                 stored.lastActive = now;
 
                 if (stored.session.compareAndResetDirty()) {
-                    saveQueue.put(stored.key, stored.session);
+                    commit(stored.key, stored.session);
                 }
             } else {
                 if (now - stored.lastActive > EXPIRATION_GRACE) {
                     if (stored.session.compareAndResetDirty()) {
-                        saveQueue.put(stored.key, stored.session);
+                        commit(stored.key, stored.session);
                     }
 
+                    release(stored.session);
                     it.remove();
                 }
             }
         }
 
-        if (!saveQueue.isEmpty()) {
-            commit(saveQueue);
-        }
+        loads.values().removeIf(pending -> now - pending.created > EXPIRATION_GRACE);
     }
 
     @Subscribe
     public void onConfigurationLoad(ConfigurationLoadEvent event) {
         LocalConfiguration config = event.getConfiguration();
         File dir = new File(config.getWorkingDirectory(), "sessions");
-        store = new JsonFileSessionStore(dir);
+        if (config.sessionFormat.equalsIgnoreCase("binary")) {
+            store = new BinaryFileSessionStore(dir);
+        } else {
+            store = new JsonFileSessionStore(dir);
+        }
+        historyManager.setMaxMemory(config.historyMaxMemory < 0 ? -1 : config.historyMaxMemory * BYTES_PER_MEGABYTE);
+        historyManager.setMaxSessionMemory(config.historyMaxSessionMemory < 0 ? -1 : config.historyMaxSessionMemory * BYTES_PER_MEGABYTE);
+        historyManager.setSpillDirectory(new File(config.getWorkingDirectory(), "history-spill"));
     }
 
     /**
@@ -331,6 +496,32 @@ private SessionHolder(SessionKey key, LocalSession session) {
         }
     }
 
+    /**
+     * A session that is being loaded in the background, and when loading
+     * started.
+     */
+    private static class PendingLoad {
+        private final ListenableFuture<LocalSession> future;
+        private final long created = System.currentTimeMillis();
+
+        private PendingLoad(ListenableFuture<LocalSession> future) {
+            this.future = future;
+        }
+    }
+
+    /**
+     * The latest session to save for a key, and whether it still has to be
+     * saved.
+     */
+    private static class PendingSave {
+        private LocalSession session;
+        private boolean queued = true;
+
+        private PendingSave(LocalSession session) {
+            this.session = session;
+        }
+    }
+
     /**
      * Removes inactive sessions after they have been inactive for a period
      * of time. Commits them as well.
@@ -0,0 +1,142 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.session.storage;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.LocalSession;
+import com.sk89q.worldedit.regions.selector.RegionSelectorType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores sessions as small binary files in a directory.
+ *
+ * <p>Only the properties of a session that are saved by
+ * {@link JsonFileSessionStore} are stored. If a session has no binary file
+ * yet, it is read from its JSON file in the same directory if there is
+ * one, so that switching stores keeps existing sessions.</p>
+ */
+public class BinaryFileSessionStore implements SessionStore {
+
+    private static final Logger log = Logger.getLogger(BinaryFileSessionStore.class.getCanonicalName());
+    private static final int MAGIC = 0x57455353;
+    private static final int VERSION = 1;
+
+    private final File dir;
+    private final JsonFileSessionStore jsonStore;
+
+    /**
+     * Create a new session store.
+     *
+     * @param dir the directory
+     */
+    public BinaryFileSessionStore(File dir) {
+        checkNotNull(dir);
+
+        if (!dir.isDirectory()) {
+            if (!dir.mkdirs()) {
+                log.log(Level.WARNING, "Failed to create directory '" + dir.getPath() + "' for sessions");
+            }
+        }
+
+        this.dir = dir;
+        this.jsonStore = new JsonFileSessionStore(dir);
+    }
+
+    /**
+     * Get the path for the given UUID.
+     *
+     * @param id the ID
+     * @return the file
+     */
+    private File getPath(UUID id) {
+        checkNotNull(id);
+        return new File(dir, id + ".dat");
+    }
+
+    @Override
+    public LocalSession load(UUID id) throws IOException {
+        File file = getPath(id);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a session file: " + file.getPath());
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unknown session file version " + version + ": " + file.getPath());
+            }
+
+            LocalSession session = new LocalSession();
+            if (in.readBoolean()) {
+                session.setLastScript(in.readUTF());
+            }
+            if (in.readBoolean()) {
+                String name = in.readUTF();
+                try {
+                    session.setDefaultRegionSelector(RegionSelectorType.valueOf(name));
+                } catch (IllegalArgumentException e) {
+                    log.log(Level.WARNING, "Unknown region selector '" + name + "' in " + file.getPath());
+                }
+            }
+            session.setUseServerCUI(in.readBoolean());
+            session.compareAndResetDirty();
+            return session;
+        } catch (FileNotFoundException e) {
+            return jsonStore.load(id);
+        }
+    }
+
+    @Override
+    public void save(UUID id, LocalSession session) throws IOException {
+        File finalFile = getPath(id);
+        File tempFile = SessionFiles.getTempFile(finalFile);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            String lastScript = session.getLastScript();
+            out.writeBoolean(lastScript != null);
+            if (lastScript != null) {
+                out.writeUTF(lastScript);
+            }
+            RegionSelectorType selector = session.getDefaultRegionSelector();
+            out.writeBoolean(selector != null);
+            if (selector != null) {
+                out.writeUTF(selector.name());
+            }
+            out.writeBoolean(session.shouldUseServerCUI());
+        }
+
+        SessionFiles.replace(tempFile, finalFile);
+    }
+
+}
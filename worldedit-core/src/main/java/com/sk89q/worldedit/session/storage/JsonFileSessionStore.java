@@ -32,10 +32,13 @@
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -43,7 +46,8 @@
 /**
  * Stores sessions as JSON files in a directory.
  *
- * <p>Currently, this implementation doesn't handle thread safety very well.</p>
+ * <p>Sessions are written to a temporary file first, which then replaces
+ * the session's file, so a reader never sees a partially written file.</p>
  */
 public class JsonFileSessionStore implements SessionStore {
 
@@ -86,8 +90,8 @@ private File getPath(UUID id) {
     public LocalSession load(UUID id) throws IOException {
         File file = getPath(id);
         try (Closer closer = Closer.create()) {
-            FileReader fr = closer.register(new FileReader(file));
-            BufferedReader br = closer.register(new BufferedReader(fr));
+            InputStreamReader reader = closer.register(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+            BufferedReader br = closer.register(new BufferedReader(reader));
             return gson.fromJson(br, LocalSession.class);
         } catch (JsonParseException e) {
             throw new IOException(e);
@@ -99,25 +103,17 @@ public LocalSession load(UUID id) throws IOException {
     @Override
     public void save(UUID id, LocalSession session) throws IOException {
         File finalFile = getPath(id);
-        File tempFile = new File(finalFile.getParentFile(), finalFile.getName() + ".tmp");
+        File tempFile = SessionFiles.getTempFile(finalFile);
 
         try (Closer closer = Closer.create()) {
-            FileWriter fr = closer.register(new FileWriter(tempFile));
-            BufferedWriter bw = closer.register(new BufferedWriter(fr));
+            OutputStreamWriter writer = closer.register(new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8));
+            BufferedWriter bw = closer.register(new BufferedWriter(writer));
             gson.toJson(session, bw);
         } catch (JsonIOException e) {
             throw new IOException(e);
         }
 
-        if (finalFile.exists()) {
-            if (!finalFile.delete()) {
-                log.log(Level.WARNING, "Failed to delete " + finalFile.getPath() + " so the .tmp file can replace it");
-            }
-        }
-
-        if (!tempFile.renameTo(finalFile)) {
-            log.log(Level.WARNING, "Failed to rename temporary session file to " + finalFile.getPath());
-        }
+        SessionFiles.replace(tempFile, finalFile);
     }
 
 }
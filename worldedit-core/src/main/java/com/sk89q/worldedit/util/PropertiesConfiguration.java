@@ -110,7 +110,12 @@ public void load() {
         navigationUseGlass = getBool("nav-use-glass", navigationUseGlass);
         scriptTimeout = getInt("scripting-timeout", scriptTimeout);
         calculationTimeout = getInt("calculation-timeout", calculationTimeout);
+        operationTickBudget = Math.max(0, getInt("scheduling-tick-budget", operationTickBudget));
+        metricsEnabled = getBool("metrics-enabled", metricsEnabled);
+        metricsJmx = getBool("metrics-jmx", metricsJmx);
+        metricsFile = getString("metrics-file", metricsFile);
         saveDir = getString("schematic-save-dir", saveDir);
+        schematicThreads = Math.max(0, getInt("schematic-threads", schematicThreads));
         scriptsDir = getString("craftscript-dir", scriptsDir);
         butcherDefaultRadius = getInt("butcher-default-radius", butcherDefaultRadius);
         butcherMaxRadius = getInt("butcher-max-radius", butcherMaxRadius);
@@ -118,11 +123,17 @@ public void load() {
         serverSideCUI = getBool("server-side-cui", serverSideCUI);
 
         LocalSession.MAX_HISTORY_SIZE = Math.max(15, getInt("history-size", 15));
+        historySpillThreshold = getInt("history-spill-threshold", historySpillThreshold);
+        historyMaxMemory = getInt("history-max-memory", historyMaxMemory);
+        historyMaxSessionMemory = getInt("history-max-memory-per-player", historyMaxSessionMemory);
+        sessionFormat = getString("sessions-format", sessionFormat);
 
         String snapshotsDir = getString("snapshots-dir", "");
         if (!snapshotsDir.isEmpty()) {
             snapshotRepo = new SnapshotRepository(snapshotsDir);
         }
+        snapshotRestoreThreads = Math.max(0, getInt("snapshots-restore-threads", snapshotRestoreThreads));
+        snapshotReadAhead = Math.max(1, getInt("snapshots-read-ahead", snapshotReadAhead));
 
         path.getParentFile().mkdirs();
         try (OutputStream output = new FileOutputStream(path)) {
@@ -107,11 +107,22 @@ public void load() {
 
         calculationTimeout = config.getInt("calculation.timeout", calculationTimeout);
 
+        operationTickBudget = Math.max(0, config.getInt("scheduling.tick-budget", operationTickBudget));
+
+        metricsEnabled = config.getBoolean("metrics.enabled", metricsEnabled);
+        metricsJmx = config.getBoolean("metrics.jmx", metricsJmx);
+        metricsFile = config.getString("metrics.file", metricsFile);
+
         saveDir = config.getString("saving.dir", saveDir);
+        schematicThreads = Math.max(0, config.getInt("saving.threads", schematicThreads));
 
         allowSymlinks = config.getBoolean("files.allow-symbolic-links", false);
         LocalSession.MAX_HISTORY_SIZE = Math.max(0, config.getInt("history.size", 15));
         SessionManager.EXPIRATION_GRACE = config.getInt("history.expiration", 10) * 60 * 1000;
+        historySpillThreshold = config.getInt("history.spill-threshold", historySpillThreshold);
+        historyMaxMemory = config.getInt("history.max-memory", historyMaxMemory);
+        historyMaxSessionMemory = config.getInt("history.max-memory-per-player", historyMaxSessionMemory);
+        sessionFormat = config.getString("sessions.format", sessionFormat);
 
         showHelpInfo = config.getBoolean("show-help-on-first-use", true);
         serverSideCUI = config.getBoolean("server-side-cui", true);
@@ -120,6 +131,8 @@ public void load() {
         if (!snapshotsDir.isEmpty()) {
             snapshotRepo = new SnapshotRepository(snapshotsDir);
         }
+        snapshotRestoreThreads = Math.max(0, config.getInt("snapshots.restore-threads", snapshotRestoreThreads));
+        snapshotReadAhead = Math.max(1, config.getInt("snapshots.read-ahead", snapshotReadAhead));
 
         String type = config.getString("shell-save-type", "").trim();
         shellSaveType = type.isEmpty() ? null : type;
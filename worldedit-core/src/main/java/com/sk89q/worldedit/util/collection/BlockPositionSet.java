@@ -0,0 +1,134 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sk89q.worldedit.util.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * A set of block positions that uses one bit per position.
+ *
+ * <p>Positions are grouped into 16x16x16 sections, each of which is a
+ * bitset of 4096 bits that is allocated when the first position in it is
+ * added. Neighbouring positions therefore cost almost nothing, which makes
+ * this set suitable for searches that spread through connected blocks.</p>
+ */
+public class BlockPositionSet {
+
+    private static final int WORDS_PER_SECTION = 4096 / 64;
+
+    private final Map<Long, long[]> sections = new HashMap<>();
+    private int size;
+    @Nullable private long[] lastSection;
+    private long lastKey;
+
+    private static long getKey(int x, int y, int z) {
+        return ((long) (x >> 4) & 0xFFFFFF) << 40 | ((long) (z >> 4) & 0xFFFFFF) << 16 | (y >> 4) & 0xFFFF;
+    }
+
+    private static int getIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    @Nullable
+    private long[] getSection(long key, boolean create) {
+        if (key == lastKey && lastSection != null) {
+            return lastSection;
+        }
+        long[] section = sections.get(key);
+        if (section == null) {
+            if (!create) {
+                return null;
+            }
+            section = new long[WORDS_PER_SECTION];
+            sections.put(key, section);
+        }
+        lastKey = key;
+        lastSection = section;
+        return section;
+    }
+
+    /**
+     * Return whether the set contains the given position.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return true if the position is in the set
+     */
+    public boolean contains(int x, int y, int z) {
+        long[] section = getSection(getKey(x, y, z), false);
+        if (section == null) {
+            return false;
+        }
+        int index = getIndex(x, y, z);
+        return (section[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Add the given position to the set.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return true if the position was not already in the set
+     */
+    public boolean add(int x, int y, int z) {
+        long[] section = getSection(getKey(x, y, z), true);
+        int index = getIndex(x, y, z);
+        long bit = 1L << index;
+        int word = index >>> 6;
+        if ((section[word] & bit) != 0) {
+            return false;
+        }
+        section[word] |= bit;
+        size++;
+        return true;
+    }
+
+    /**
+     * Get the number of positions in the set.
+     *
+     * @return the number of positions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return whether the set is empty.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every position from the set.
+     */
+    public void clear() {
+        sections.clear();
+        lastSection = null;
+        size = 0;
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.util.collection;
+
+import com.sk89q.worldedit.BlockVector;
+import com.sk89q.worldedit.Vector;
+
+/**
+ * An unmodifiable set of the coordinates of 16x16x16 chunk sections, each
+ * packed into a {@code long}.
+ *
+ * <p>X and Z coordinates use 24 bits each and the Y coordinate uses 16
+ * bits, which covers every chunk section that a world can have.</p>
+ */
+public final class ChunkCubeSet extends PackedVectorSet<Vector> {
+
+    private ChunkCubeSet(long[] keys, int count) {
+        super(keys, count);
+    }
+
+    private static long pack(int x, int y, int z) {
+        return (long) x << 40 | ((long) z & 0xFFFFFF) << 16 | (y & 0xFFFF);
+    }
+
+    @Override
+    protected Vector unpack(long key) {
+        return new BlockVector((int) (key >> 40), (int) (key << 48 >> 48), (int) (key << 24 >> 40));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Vector)) {
+            return false;
+        }
+        Vector vector = (Vector) o;
+        int x = vector.getBlockX();
+        int y = vector.getBlockY();
+        int z = vector.getBlockZ();
+        return x == vector.getX() && y == vector.getY() && z == vector.getZ()
+                && containsKey(pack(x, y, z));
+    }
+
+    /**
+     * Builds a {@link ChunkCubeSet}.
+     */
+    public static class Builder extends KeyBuffer {
+
+        /**
+         * Add a chunk section.
+         *
+         * @param x the X coordinate of the section
+         * @param y the Y coordinate of the section
+         * @param z the Z coordinate of the section
+         * @return this builder
+         */
+        public Builder add(int x, int y, int z) {
+            addKey(pack(x, y, z));
+            return this;
+        }
+
+        /**
+         * Create the set.
+         *
+         * @return a new set
+         */
+        public ChunkCubeSet build() {
+            return new ChunkCubeSet(getKeys(), getCount());
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.util.collection;
+
+import com.sk89q.worldedit.BlockVector2D;
+import com.sk89q.worldedit.Vector2D;
+
+/**
+ * An unmodifiable set of chunk coordinates, each packed into a
+ * {@code long}.
+ */
+public final class ChunkSet extends PackedVectorSet<Vector2D> {
+
+    private ChunkSet(long[] keys, int count) {
+        super(keys, count);
+    }
+
+    private static long pack(int x, int z) {
+        return (long) x << 32 | (z & 0xFFFFFFFFL);
+    }
+
+    @Override
+    protected Vector2D unpack(long key) {
+        return new BlockVector2D((int) (key >> 32), (int) key);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Vector2D)) {
+            return false;
+        }
+        Vector2D vector = (Vector2D) o;
+        int x = vector.getBlockX();
+        int z = vector.getBlockZ();
+        return x == vector.getX() && z == vector.getZ() && containsKey(pack(x, z));
+    }
+
+    /**
+     * Builds a {@link ChunkSet}.
+     */
+    public static class Builder extends KeyBuffer {
+
+        /**
+         * Add a chunk.
+         *
+         * @param x the X coordinate of the chunk
+         * @param z the Z coordinate of the chunk
+         * @return this builder
+         */
+        public Builder add(int x, int z) {
+            addKey(pack(x, z));
+            return this;
+        }
+
+        /**
+         * Create the set.
+         *
+         * @return a new set
+         */
+        public ChunkSet build() {
+            return new ChunkSet(getKeys(), getCount());
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sk89q.worldedit.util.collection;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A first-in, first-out queue of primitive {@code long}s stored in a
+ * circular array that doubles in size when full.
+ */
+public class LongArrayQueue {
+
+    private long[] elements;
+    private int head;
+    private int size;
+
+    /**
+     * Create a new, empty queue.
+     */
+    public LongArrayQueue() {
+        this(16);
+    }
+
+    /**
+     * Create a new, empty queue.
+     *
+     * @param initialCapacity the initial capacity, which is rounded up to a power of two
+     */
+    public LongArrayQueue(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1;
+        elements = new long[capacity];
+    }
+
+    /**
+     * Add a value to the tail of the queue.
+     *
+     * @param value the value
+     */
+    public void add(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * Remove and return the value at the head of the queue.
+     *
+     * @return the value
+     * @throws NoSuchElementException thrown if the queue is empty
+     */
+    public long remove() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        long value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    private void grow() {
+        long[] resized = new long[elements.length * 2];
+        int tail = elements.length - head;
+        System.arraycopy(elements, head, resized, 0, tail);
+        System.arraycopy(elements, 0, resized, tail, head);
+        elements = resized;
+        head = 0;
+    }
+
+    /**
+     * Get the number of values in the queue.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return whether the queue is empty.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every value from the queue.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+}
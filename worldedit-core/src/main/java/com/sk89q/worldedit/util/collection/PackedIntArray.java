@@ -0,0 +1,173 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.util.collection;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A fixed-size array of unsigned integers that are packed into a
+ * {@code long[]} using only as many bits per entry as required.
+ *
+ * <p>Entries may span two longs, which is the same layout used by the
+ * {@code BlockStates} array of Minecraft 1.13 chunk sections. The number
+ * of bits per entry can be increased later with {@link #grow(int)} as
+ * the largest stored value increases.</p>
+ */
+public class PackedIntArray {
+
+    private final int size;
+    private int bitsPerEntry;
+    private long mask;
+    private long[] data;
+
+    /**
+     * Create a new array with every entry set to zero.
+     *
+     * @param size the number of entries
+     * @param bitsPerEntry the initial number of bits per entry, between 1 and 32
+     */
+    public PackedIntArray(int size, int bitsPerEntry) {
+        checkArgument(size >= 0, "size must be >= 0");
+        checkArgument(bitsPerEntry >= 1 && bitsPerEntry <= 32, "bitsPerEntry must be between 1 and 32");
+        this.size = size;
+        this.bitsPerEntry = bitsPerEntry;
+        this.mask = (1L << bitsPerEntry) - 1;
+        this.data = new long[dataLength(size, bitsPerEntry)];
+    }
+
+    private static int dataLength(int size, int bitsPerEntry) {
+        long bits = (long) size * bitsPerEntry;
+        long length = (bits + 63) >>> 6;
+        checkArgument(length <= Integer.MAX_VALUE, "Too many entries for a packed array");
+        return (int) length;
+    }
+
+    /**
+     * Get the number of bits required to store the given value.
+     *
+     * @param value the largest value to store
+     * @return the number of bits, at least 1
+     */
+    public static int bitsFor(int value) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of bits used per entry.
+     *
+     * @return the number of bits
+     */
+    public int getBitsPerEntry() {
+        return bitsPerEntry;
+    }
+
+    /**
+     * Get the largest value that can be stored without calling
+     * {@link #grow(int)}.
+     *
+     * @return the largest value
+     */
+    public int getMaxValue() {
+        return (int) mask;
+    }
+
+    /**
+     * Get the value of an entry.
+     *
+     * @param index the index
+     * @return the value
+     */
+    public int get(int index) {
+        long bitIndex = (long) index * bitsPerEntry;
+        int word = (int) (bitIndex >>> 6);
+        int offset = (int) (bitIndex & 63);
+        long value = data[word] >>> offset;
+        int end = offset + bitsPerEntry;
+        if (end > 64) {
+            value |= data[word + 1] << (64 - offset);
+        }
+        return (int) (value & mask);
+    }
+
+    /**
+     * Set the value of an entry.
+     *
+     * @param index the index
+     * @param value the value, which must not be greater than {@link #getMaxValue()}
+     */
+    public void set(int index, int value) {
+        long bitIndex = (long) index * bitsPerEntry;
+        int word = (int) (bitIndex >>> 6);
+        int offset = (int) (bitIndex & 63);
+        long bits = value & mask;
+        data[word] = (data[word] & ~(mask << offset)) | (bits << offset);
+        int end = offset + bitsPerEntry;
+        if (end > 64) {
+            int shift = 64 - offset;
+            data[word + 1] = (data[word + 1] & ~(mask >>> shift)) | (bits >>> shift);
+        }
+    }
+
+    /**
+     * Increase the number of bits per entry, keeping every stored value.
+     *
+     * <p>Nothing happens if the array already uses at least the given
+     * number of bits.</p>
+     *
+     * @param newBitsPerEntry the new number of bits per entry
+     */
+    public void grow(int newBitsPerEntry) {
+        checkArgument(newBitsPerEntry <= 32, "bitsPerEntry must be <= 32");
+        if (newBitsPerEntry <= bitsPerEntry) {
+            return;
+        }
+
+        PackedIntArray resized = new PackedIntArray(size, newBitsPerEntry);
+        for (int i = 0; i < size; i++) {
+            int value = get(i);
+            if (value != 0) {
+                resized.set(i, value);
+            }
+        }
+
+        this.bitsPerEntry = resized.bitsPerEntry;
+        this.mask = resized.mask;
+        this.data = resized.data;
+    }
+
+    /**
+     * Get an estimate of the number of bytes used to store the entries.
+     *
+     * @return the number of bytes
+     */
+    public long getDataSize() {
+        return (long) data.length * 8;
+    }
+
+}
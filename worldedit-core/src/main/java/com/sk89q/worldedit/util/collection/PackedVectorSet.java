@@ -0,0 +1,137 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.util.collection;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An unmodifiable set of vectors that are each packed into a {@code long},
+ * stored as a sorted array.
+ *
+ * @param <E> the type of vector
+ */
+public abstract class PackedVectorSet<E> extends AbstractSet<E> {
+
+    private final long[] keys;
+
+    /**
+     * Create a new set.
+     *
+     * @param keys the packed vectors, which may be unsorted and repeated
+     * @param count the number of packed vectors in the array to use
+     */
+    protected PackedVectorSet(long[] keys, int count) {
+        long[] sorted = Arrays.copyOf(keys, count);
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        this.keys = size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * Return whether the set contains the given packed vector.
+     *
+     * @param key the packed vector
+     * @return true if it is in the set
+     */
+    protected boolean containsKey(long key) {
+        return Arrays.binarySearch(keys, key) >= 0;
+    }
+
+    /**
+     * Unpack a vector.
+     *
+     * @param key the packed vector
+     * @return the vector
+     */
+    protected abstract E unpack(long key);
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < keys.length;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return unpack(keys[index++]);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Collects packed vectors for a new set.
+     */
+    protected static class KeyBuffer {
+        private long[] keys = new long[16];
+        private int count;
+
+        /**
+         * Add a packed vector.
+         *
+         * @param key the packed vector
+         */
+        protected void addKey(long key) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count++] = key;
+        }
+
+        /**
+         * Get the array of packed vectors.
+         *
+         * @return the array, of which only the first {@link #getCount()}
+         *         entries are used
+         */
+        protected long[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * Get the number of packed vectors that have been added.
+         *
+         * @return the number
+         */
+        protected int getCount() {
+            return count;
+        }
+    }
+
+}
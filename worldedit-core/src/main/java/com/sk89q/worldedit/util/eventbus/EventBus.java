@@ -47,9 +47,11 @@
  * and events are dispatched at the time of call, rather than being queued up.
  * This does allow dispatching during an in-progress dispatch.</p>
  *
- * <p>This implementation utilizes naive synchronization on all getter and
- * setter methods. Dispatch does not occur when a lock has been acquired,
- * however.</p>
+ * <p>Subscribing and unsubscribing are synchronized. Posting reads a
+ * copy-on-write cache that holds the sorted handlers of each event class,
+ * which is rebuilt whenever handlers change, so it only acquires a lock
+ * the first time an event class is posted. Dispatch does not occur when a
+ * lock has been acquired.</p>
  */
 public class EventBus {
 
@@ -58,6 +60,12 @@ public class EventBus {
     private final SetMultimap<Class<?>, EventHandler> handlersByType =
             Multimaps.newSetMultimap(new HashMap<>(), this::newHandlerSet);
 
+    /**
+     * The handlers for each posted event class, sorted by priority. The map
+     * is replaced rather than modified.
+     */
+    private volatile Map<Class<?>, EventHandler[]> dispatchCache = Collections.emptyMap();
+
     /**
      * Strategy for finding handler methods in registered objects.  Currently,
      * only the {@link AnnotatedSubscriberFinder} is supported, but this is
@@ -78,6 +86,7 @@ public synchronized void subscribe(Class<?> clazz, EventHandler handler) {
         checkNotNull(clazz);
         checkNotNull(handler);
         handlersByType.put(clazz, handler);
+        rebuildDispatchCache();
     }
 
     /**
@@ -88,6 +97,7 @@ public synchronized void subscribe(Class<?> clazz, EventHandler handler) {
     public synchronized void subscribeAll(Multimap<Class<?>, EventHandler> handlers) {
         checkNotNull(handlers);
         handlersByType.putAll(handlers);
+        rebuildDispatchCache();
     }
 
     /**
@@ -100,6 +110,7 @@ public synchronized void unsubscribe(Class<?> clazz, EventHandler handler) {
         checkNotNull(clazz);
         checkNotNull(handler);
         handlersByType.remove(clazz, handler);
+        rebuildDispatchCache();
     }
 
     /**
@@ -113,10 +124,11 @@ public synchronized void unsubscribeAll(Multimap<Class<?>, EventHandler> handler
             Set<EventHandler> currentHandlers = getHandlersForEventType(entry.getKey());
             Collection<EventHandler> eventMethodsInListener = entry.getValue();
 
-            if (currentHandlers != null &&!currentHandlers.containsAll(entry.getValue())) {
+            if (currentHandlers != null) {
                 currentHandlers.removeAll(eventMethodsInListener);
             }
         }
+        rebuildDispatchCache();
     }
 
     /**
@@ -153,25 +165,65 @@ public void unregister(Object object) {
      * @param event  event to post.
      */
     public void post(Object event) {
-        List<EventHandler> dispatching = new ArrayList<>();
+        for (EventHandler handler : getDispatchHandlers(event.getClass())) {
+            dispatch(event, handler);
+        }
+    }
 
-        synchronized (this) {
-            Set<Class<?>> dispatchTypes = flattenHierarchy(event.getClass());
+    /**
+     * Get the handlers that an event of the given class is dispatched to,
+     * in the order of their priority.
+     *
+     * @param eventClass the class of the event
+     * @return the handlers, which must not be modified
+     */
+    private EventHandler[] getDispatchHandlers(Class<?> eventClass) {
+        EventHandler[] handlers = dispatchCache.get(eventClass);
+        if (handlers == null) {
+            synchronized (this) {
+                handlers = dispatchCache.get(eventClass);
+                if (handlers == null) {
+                    handlers = collectHandlers(eventClass);
+                    Map<Class<?>, EventHandler[]> cache = new HashMap<>(dispatchCache);
+                    cache.put(eventClass, handlers);
+                    dispatchCache = cache;
+                }
+            }
+        }
+        return handlers;
+    }
 
-            for (Class<?> eventType : dispatchTypes) {
-                Set<EventHandler> wrappers = getHandlersForEventType(eventType);
+    /**
+     * Collect and sort the handlers of every type in the hierarchy of an
+     * event class.
+     *
+     * @param eventClass the class of the event
+     * @return the handlers
+     */
+    private synchronized EventHandler[] collectHandlers(Class<?> eventClass) {
+        List<EventHandler> handlers = new ArrayList<>();
+        for (Class<?> eventType : flattenHierarchy(eventClass)) {
+            Set<EventHandler> wrappers = getHandlersForEventType(eventType);
 
-                if (wrappers != null && !wrappers.isEmpty()) {
-                    dispatching.addAll(wrappers);
-                }
+            if (wrappers != null && !wrappers.isEmpty()) {
+                handlers.addAll(wrappers);
             }
         }
 
-        Collections.sort(dispatching);
+        Collections.sort(handlers);
+        return handlers.toArray(new EventHandler[handlers.size()]);
+    }
 
-        for (EventHandler handler : dispatching) {
-            dispatch(event, handler);
+    /**
+     * Rebuild the handlers of every event class that has been posted, after
+     * handlers have been subscribed or unsubscribed.
+     */
+    private synchronized void rebuildDispatchCache() {
+        Map<Class<?>, EventHandler[]> cache = new HashMap<>();
+        for (Class<?> eventClass : dispatchCache.keySet()) {
+            cache.put(eventClass, collectHandlers(eventClass));
         }
+        dispatchCache = cache;
     }
 
     /**
@@ -21,15 +21,24 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
 
 /**
  * Invokes a {@link Method} to dispatch an event.
+ *
+ * <p>The method is called through a {@link MethodHandle} that is bound to
+ * the object, rather than through reflection.</p>
  */
 public class MethodEventHandler extends EventHandler {
 
     private final Object object;
     private final Method method;
+    private final MethodHandle handle;
 
     /**
      * Create a new event handler.
@@ -42,6 +51,27 @@ public MethodEventHandler(Priority priority, Object object, Method method) {
         checkNotNull(method);
         this.object = object;
         this.method = method;
+        this.handle = createHandle(object, method);
+    }
+
+    /**
+     * Create a method handle that takes an event and calls the method.
+     *
+     * @param object the object to call the method on
+     * @param method the method
+     * @return the method handle
+     */
+    private static MethodHandle createHandle(Object object, Method method) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(object);
+            }
+            return handle.asType(MethodType.methodType(void.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Can't access " + method, e);
+        }
     }
 
     /**
@@ -55,7 +85,13 @@ public Method getMethod() {
 
     @Override
     public void dispatch(Object event) throws Exception {
-        method.invoke(object, event);
+        try {
+            handle.invokeExact(event);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
     }
 
     @Override
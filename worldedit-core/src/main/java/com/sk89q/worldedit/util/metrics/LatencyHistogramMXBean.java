@@ -0,0 +1,63 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.util.metrics;
+
+/**
+ * The management interface of a {@link LatencyHistogram}, through which it
+ * is exposed over JMX.
+ */
+public interface LatencyHistogramMXBean {
+
+    /**
+     * Get the number of recorded calls.
+     *
+     * @return the number of calls
+     */
+    long getCount();
+
+    /**
+     * Get the total time of all recorded calls.
+     *
+     * @return the total time in nanoseconds
+     */
+    long getTotalNanos();
+
+    /**
+     * Get the time of the slowest recorded call.
+     *
+     * @return the time in nanoseconds
+     */
+    long getMaxNanos();
+
+    /**
+     * Get the approximate median time of a call.
+     *
+     * @return the time in nanoseconds
+     */
+    long getMedianNanos();
+
+    /**
+     * Get the approximate time within which 99% of calls completed.
+     *
+     * @return the time in nanoseconds
+     */
+    long get99thPercentileNanos();
+
+}
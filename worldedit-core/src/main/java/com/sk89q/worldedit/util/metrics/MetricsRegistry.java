@@ -0,0 +1,284 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.util.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.LocalConfiguration;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.event.platform.ConfigurationLoadEvent;
+import com.sk89q.worldedit.util.eventbus.Subscribe;
+import com.sk89q.worldedit.util.report.DataReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Holds the latency histograms that WorldEdit records while it is running.
+ *
+ * <p>Nothing is recorded unless {@link LocalConfiguration#metricsEnabled} is
+ * set. Histograms can then also be exposed over JMX, and periodically written
+ * to a file in the Prometheus text format.</p>
+ */
+public class MetricsRegistry {
+
+    private static final Logger log = Logger.getLogger(MetricsRegistry.class.getCanonicalName());
+    private static final String DOMAIN = "com.sk89q.worldedit";
+    private static final long WRITE_PERIOD = 1000 * 60;
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private boolean jmx;
+    @Nullable private Timer timer;
+
+    /**
+     * Create a new instance.
+     *
+     * @param worldEdit the WorldEdit instance
+     */
+    public MetricsRegistry(WorldEdit worldEdit) {
+        checkNotNull(worldEdit);
+        worldEdit.getEventBus().register(this);
+    }
+
+    /**
+     * Get whether metrics should be recorded.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the histogram with the given name, creating it if necessary.
+     *
+     * @param name the name
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        checkNotNull(name);
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        return histograms.computeIfAbsent(name, n -> {
+            LatencyHistogram created = new LatencyHistogram(n);
+            synchronized (this) {
+                if (jmx) {
+                    register(created);
+                }
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Get a copy of all histograms, sorted by name.
+     *
+     * @return a map of names to histograms
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Forget everything that has been recorded so far.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Create a report of the histograms that have recorded calls, with
+     * times in microseconds.
+     *
+     * @return a report
+     */
+    public DataReport createReport() {
+        DataReport report = new DataReport("Metrics");
+        for (LatencyHistogram histogram : getHistograms().values()) {
+            long count = histogram.getCount();
+            if (count == 0) {
+                continue;
+            }
+            report.append(histogram.getName(), "%d calls, mean %.1f, p50 %.1f, p99 %.1f, max %.1f",
+                    count,
+                    histogram.getMeanNanos() / 1000.0,
+                    histogram.getMedianNanos() / 1000.0,
+                    histogram.get99thPercentileNanos() / 1000.0,
+                    histogram.getMaxNanos() / 1000.0);
+        }
+        return report;
+    }
+
+    /**
+     * Write all histograms to a file in the Prometheus text format.
+     *
+     * <p>The file is replaced atomically where the file system allows it.</p>
+     *
+     * @param file the file
+     * @throws IOException thrown on I/O error
+     */
+    public void writeTo(File file) throws IOException {
+        checkNotNull(file);
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create folder for metrics");
+        }
+
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+                writer.write("# TYPE worldedit_latency_seconds summary\n");
+                for (LatencyHistogram histogram : getHistograms().values()) {
+                    String label = "name=\"" + escape(histogram.getName()) + "\"";
+                    for (double quantile : QUANTILES) {
+                        writer.write(String.format(Locale.ROOT, "worldedit_latency_seconds{%s,quantile=\"%s\"} %.9f\n",
+                                label, quantile, histogram.getPercentileNanos(quantile) / 1e9));
+                    }
+                    writer.write(String.format(Locale.ROOT, "worldedit_latency_seconds_sum{%s} %.9f\n",
+                            label, histogram.getTotalNanos() / 1e9));
+                    writer.write(String.format(Locale.ROOT, "worldedit_latency_seconds_count{%s} %d\n",
+                            label, histogram.getCount()));
+                }
+            }
+
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            if (temp.exists()) {
+                temp.delete();
+            }
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static ObjectName getObjectName(LatencyHistogram histogram) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Latency,name=" + ObjectName.quote(histogram.getName()));
+    }
+
+    private static void register(LatencyHistogram histogram) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = getObjectName(histogram);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(histogram, name);
+            }
+        } catch (JMException e) {
+            log.log(Level.WARNING, "Failed to register metrics with JMX", e);
+        }
+    }
+
+    private static void unregister(LatencyHistogram histogram) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = getObjectName(histogram);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.log(Level.WARNING, "Failed to unregister metrics from JMX", e);
+        }
+    }
+
+    @Subscribe
+    public synchronized void onConfigurationLoad(ConfigurationLoadEvent event) {
+        LocalConfiguration config = event.getConfiguration();
+        enabled = config.metricsEnabled;
+
+        boolean jmx = enabled && config.metricsJmx;
+        if (jmx != this.jmx) {
+            for (LatencyHistogram histogram : histograms.values()) {
+                if (jmx) {
+                    register(histogram);
+                } else {
+                    unregister(histogram);
+                }
+            }
+            this.jmx = jmx;
+        }
+
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        String path = config.metricsFile == null ? "" : config.metricsFile.trim();
+        if (enabled && !path.isEmpty()) {
+            File file = new File(path);
+            if (!file.isAbsolute()) {
+                file = new File(config.getWorkingDirectory(), path);
+            }
+            timer = new Timer("WorldEdit Metrics Writer", true);
+            timer.schedule(new FileWriterTask(file), WRITE_PERIOD, WRITE_PERIOD);
+        }
+    }
+
+    /**
+     * Periodically writes the histograms to a file.
+     */
+    private class FileWriterTask extends TimerTask {
+        private final File file;
+
+        private FileWriterTask(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public void run() {
+            try {
+                writeTo(file);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to write metrics to " + file.getAbsolutePath(), e);
+            }
+        }
+    }
+
+}
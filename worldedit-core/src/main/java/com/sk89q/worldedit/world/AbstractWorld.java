@@ -25,6 +25,7 @@
 import com.sk89q.worldedit.blocks.BaseItem;
 import com.sk89q.worldedit.blocks.BaseItemStack;
 import com.sk89q.worldedit.extension.platform.Platform;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
 import com.sk89q.worldedit.function.mask.BlockTypeMask;
 import com.sk89q.worldedit.function.mask.Mask;
 import com.sk89q.worldedit.function.operation.Operation;
@@ -55,6 +56,28 @@ public final boolean setBlock(Vector pt, BlockStateHolder block) throws WorldEdi
         return setBlock(pt, block, true);
     }
 
+    @Override
+    public int setBlocks(ChunkSectionBuffer section, boolean notifyAndLight) throws WorldEditException {
+        int changed = 0;
+        for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+            BlockStateHolder block = section.getBlock(i);
+            if (block != null && setBlock(section.getPosition(i), block, notifyAndLight)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void getBlocks(ChunkSectionBuffer section) {
+        for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+            int x = section.getX(i);
+            int y = section.getY(i);
+            int z = section.getZ(i);
+            section.setBlock(x, y, z, getBlock(new Vector(x, y, z)));
+        }
+    }
+
     @Override
     public int getMaxY() {
         return getMaximumPoint().getBlockY();
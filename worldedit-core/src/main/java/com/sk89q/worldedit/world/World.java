@@ -28,6 +28,7 @@
 import com.sk89q.worldedit.blocks.BaseItemStack;
 import com.sk89q.worldedit.extension.platform.Platform;
 import com.sk89q.worldedit.extent.Extent;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
 import com.sk89q.worldedit.function.mask.Mask;
 import com.sk89q.worldedit.regions.Region;
 import com.sk89q.worldedit.util.Direction;
@@ -94,6 +95,32 @@ public interface World extends Extent {
      */
     boolean setBlock(Vector position, BlockStateHolder block, boolean notifyAndLight) throws WorldEditException;
 
+    /**
+     * Apply every pending change in a chunk section buffer.
+     *
+     * <p>This is equivalent to calling
+     * {@link #setBlock(Vector, BlockStateHolder, boolean)} for each change in
+     * the buffer, but implementations may write the whole section at once
+     * and only notify and light once the section has been written.</p>
+     *
+     * @param section the buffered changes
+     * @param notifyAndLight true to to notify and light
+     * @return the number of blocks that were probably changed
+     * @throws WorldEditException thrown on an error
+     */
+    int setBlocks(ChunkSectionBuffer section, boolean notifyAndLight) throws WorldEditException;
+
+    /**
+     * Read every block in a chunk section into a buffer.
+     *
+     * <p>This is equivalent to calling {@link #getBlock(Vector)} for each
+     * position in the section, but implementations may read the whole
+     * section at once.</p>
+     *
+     * @param section the buffer to fill, which decides the section to read
+     */
+    void getBlocks(ChunkSectionBuffer section);
+
     /**
      * Get the light level at the given block.
      *
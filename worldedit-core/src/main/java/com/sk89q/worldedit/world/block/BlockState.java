@@ -28,6 +28,8 @@
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.registry.state.Property;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -38,15 +40,23 @@
 import java.util.Objects;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 /**
  * An immutable class that represents the state a block can be in.
  */
 @SuppressWarnings("unchecked")
 public class BlockState implements BlockStateHolder<BlockState> {
 
+    private static final Object idLock = new Object();
+    private static volatile BlockState[] statesById = new BlockState[1024];
+    private static int stateCount;
+
     private final BlockType blockType;
     private final Map<Property<?>, Object> values;
     private final boolean fuzzy;
+    private int internalId = -1;
+    private int hashCode;
 
     private BaseBlock emptyBaseBlock;
 
@@ -106,9 +116,51 @@ static Map<Map<Property<?>, Object>, BlockState> generateStateMap(BlockType bloc
             state.populate(stateMap);
         }
 
+        assignInternalIds(stateMap.values());
+
         return stateMap;
     }
 
+    private static void assignInternalIds(Collection<BlockState> states) {
+        synchronized (idLock) {
+            BlockState[] byId = statesById;
+            if (stateCount + states.size() > byId.length) {
+                byId = Arrays.copyOf(byId, Math.max(byId.length * 2, stateCount + states.size()));
+            }
+            for (BlockState state : states) {
+                state.internalId = stateCount;
+                byId[stateCount++] = state;
+            }
+            // Publish the new states to threads reading without the lock
+            statesById = byId;
+        }
+    }
+
+    /**
+     * Get the state with the given internal id.
+     *
+     * @param internalId the internal id
+     * @return the state, or null if no state has that id
+     * @see #getInternalId()
+     */
+    @Nullable
+    public static BlockState getByInternalId(int internalId) {
+        BlockState[] byId = statesById;
+        return internalId >= 0 && internalId < byId.length ? byId[internalId] : null;
+    }
+
+    /**
+     * Get the number of internal ids that have been assigned so far. Every
+     * id is less than this number.
+     *
+     * @return the number of ids
+     */
+    public static int getInternalIdCount() {
+        synchronized (idLock) {
+            return stateCount;
+        }
+    }
+
     private void populate(Map<Map<Property<?>, Object>, BlockState> stateMap) {
         final Table<Property<?>, Object, BlockState> states = HashBasedTable.create();
 
@@ -142,6 +194,20 @@ public BlockType getBlockType() {
         return this.blockType;
     }
 
+    /**
+     * Get the internal id of this state.
+     *
+     * <p>Ids are dense, starting from 0, and are given to the states of a
+     * block type when they are first generated. They only identify a state
+     * for the lifetime of the process, so they must never be saved. Fuzzy
+     * states do not have an id.</p>
+     *
+     * @return the id, or -1 if this state is fuzzy
+     */
+    public int getInternalId() {
+        return internalId;
+    }
+
     @Override
     public <V> BlockState with(final Property<V> property, final V value) {
         if (fuzzy) {
@@ -246,11 +312,24 @@ public boolean equals(Object obj) {
             return false;
         }
 
-        return equalsFuzzy((BlockState) obj);
+        BlockState other = (BlockState) obj;
+        if (!fuzzy && !other.fuzzy && blockType == other.blockType) {
+            // There is only one instance of each state of a block type
+            return this == other;
+        }
+        return equalsFuzzy(other);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(blockType, values, fuzzy);
+        if (fuzzy) {
+            return Objects.hash(blockType, values, fuzzy);
+        }
+        int hash = hashCode;
+        if (hash == 0) {
+            hash = Objects.hash(blockType, values, fuzzy);
+            hashCode = hash;
+        }
+        return hash;
     }
 }
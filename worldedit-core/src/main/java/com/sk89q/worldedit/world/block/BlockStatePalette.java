@@ -0,0 +1,148 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.world.block;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns small ids to blocks in the order they are first added.
+ *
+ * <p>Non-fuzzy {@link BlockState}s are looked up by their internal id in an
+ * array, without hashing. Other blocks, such as those with NBT data, are
+ * looked up in a map.</p>
+ *
+ * @param <B> the type of block
+ */
+public class BlockStatePalette<B extends BlockStateHolder> {
+
+    /**
+     * The number of bytes assumed to be used by a block that is looked up
+     * in the map, including the block itself and its map entry.
+     */
+    private static final int OTHER_BLOCK_SIZE = 128;
+
+    private final List<B> blocks = new ArrayList<>();
+    private final Map<B, Integer> otherIds = new HashMap<>();
+    // Palette id + 1 by internal id, so that 0 means absent
+    private int[] stateIds = new int[0];
+
+    /**
+     * Get the id of a block, adding it to the palette if it is not already
+     * in it.
+     *
+     * @param block the block
+     * @return the id
+     */
+    public int getId(B block) {
+        checkNotNull(block);
+        int internalId = getInternalId(block);
+        if (internalId >= 0) {
+            if (internalId >= stateIds.length) {
+                stateIds = Arrays.copyOf(stateIds, Math.max(internalId + 1, stateIds.length * 2));
+            }
+            int id = stateIds[internalId] - 1;
+            if (id == -1) {
+                id = add(block);
+                stateIds[internalId] = id + 1;
+            }
+            return id;
+        }
+
+        Integer id = otherIds.get(block);
+        if (id == null) {
+            id = add(block);
+            otherIds.put(block, id);
+        }
+        return id;
+    }
+
+    /**
+     * Get the id of a block if it is in the palette.
+     *
+     * @param block the block
+     * @return the id, or -1 if it is not in the palette
+     */
+    public int findId(B block) {
+        int internalId = getInternalId(block);
+        if (internalId >= 0) {
+            return internalId < stateIds.length ? stateIds[internalId] - 1 : -1;
+        }
+        Integer id = otherIds.get(block);
+        return id != null ? id : -1;
+    }
+
+    private static int getInternalId(BlockStateHolder block) {
+        return block instanceof BlockState ? ((BlockState) block).getInternalId() : -1;
+    }
+
+    private int add(B block) {
+        blocks.add(block);
+        return blocks.size() - 1;
+    }
+
+    /**
+     * Get the block with the given id.
+     *
+     * @param id the id
+     * @return the block
+     * @throws IndexOutOfBoundsException if there is no block with the id
+     */
+    public B get(int id) {
+        return blocks.get(id);
+    }
+
+    /**
+     * Get the number of blocks in the palette.
+     *
+     * @return the number of blocks
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * Get an estimate of the number of bytes of heap used by the palette.
+     *
+     * <p>Non-fuzzy {@link BlockState}s are shared, so only their references
+     * are counted.</p>
+     *
+     * @return the number of bytes
+     */
+    public long getMemoryUsage() {
+        return (long) stateIds.length * 4 + (long) blocks.size() * 4 + (long) otherIds.size() * OTHER_BLOCK_SIZE;
+    }
+
+    /**
+     * Get the blocks in the palette, ordered by id.
+     *
+     * @return an unmodifiable list of blocks
+     */
+    public List<B> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+}
@@ -83,7 +83,18 @@ private <T> T updateField(AtomicReference<T> field, Supplier<T> value) {
     }
 
     private Map<Map<Property<?>, Object>, BlockState> getBlockStatesMap() {
-        return updateField(blockStatesMap, () -> BlockState.generateStateMap(this));
+        Map<Map<Property<?>, Object>, BlockState> map = blockStatesMap.get();
+        if (map == null) {
+            // Only generate the states once, so that each gets one internal id
+            synchronized (blockStatesMap) {
+                map = blockStatesMap.get();
+                if (map == null) {
+                    map = BlockState.generateStateMap(this);
+                    blockStatesMap.set(map);
+                }
+            }
+        }
+        return map;
     }
 
     /**
@@ -19,33 +19,52 @@
 
 package com.sk89q.worldedit.world.snapshot;
 
+import com.sk89q.worldedit.BlockVector;
 import com.sk89q.worldedit.BlockVector2D;
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.MaxChangedBlocksException;
 import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.Vector2D;
-import com.sk89q.worldedit.world.block.BaseBlock;
+import com.sk89q.worldedit.function.mask.Mask;
 import com.sk89q.worldedit.regions.CuboidRegion;
 import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.util.concurrency.EvenMoreExecutors;
 import com.sk89q.worldedit.world.DataException;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
 import com.sk89q.worldedit.world.chunk.Chunk;
 import com.sk89q.worldedit.world.storage.ChunkStore;
 import com.sk89q.worldedit.world.storage.MissingChunkException;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nullable;
 
 /**
  * A snapshot restore operation.
+ *
+ * <p>The chunks to restore are those that the region reports from
+ * {@link Region#getChunks()}. The positions within each chunk are only
+ * worked out when that chunk is restored, so memory use depends on the
+ * number of chunks rather than the number of blocks.</p>
  */
 public class SnapshotRestore {
 
-    private final Map<BlockVector2D, ArrayList<Vector>> neededChunks = new LinkedHashMap<>();
+    private final List<BlockVector2D> neededChunks = new ArrayList<>();
     private final ChunkStore chunkStore;
     private final EditSession editSession;
+    private final Region region;
+    private final boolean cuboid;
+    private final Vector min;
+    private final Vector max;
     private ArrayList<Vector2D> missingChunks;
     private ArrayList<Vector2D> errorChunks;
     private String lastErrorMessage;
@@ -60,103 +79,179 @@ public class SnapshotRestore {
     public SnapshotRestore(ChunkStore chunkStore, EditSession editSession, Region region) {
         this.chunkStore = chunkStore;
         this.editSession = editSession;
+        this.region = region.clone();
+        this.cuboid = region instanceof CuboidRegion;
+        this.min = region.getMinimumPoint();
+        this.max = region.getMaximumPoint();
+
+        findNeededChunks();
+    }
 
-        if (region instanceof CuboidRegion) {
-            findNeededCuboidChunks(region);
-        } else {
-            findNeededChunks(region);
+    /**
+     * Find the chunks that contain part of the region, ordered by X and
+     * then by Z.
+     */
+    private void findNeededChunks() {
+        for (Vector2D chunk : region.getChunks()) {
+            neededChunks.add(chunk.toBlockVector2D());
         }
+        neededChunks.sort(Comparator.comparingInt(BlockVector2D::getBlockX).thenComparingInt(BlockVector2D::getBlockZ));
     }
 
     /**
-     * Find needed chunks in the axis-aligned bounding box of the region.
+     * Get the number of chunks that are needed.
      *
-     * @param region The {@link Region} to iterate
+     * @return a number of chunks
      */
-    private void findNeededCuboidChunks(Region region) {
-        Vector min = region.getMinimumPoint();
-        Vector max = region.getMaximumPoint();
-
-        // First, we need to group points by chunk so that we only need
-        // to keep one chunk in memory at any given moment
-        for (int x = min.getBlockX(); x <= max.getBlockX(); ++x) {
-            for (int y = min.getBlockY(); y <= max.getBlockY(); ++y) {
-                for (int z = min.getBlockZ(); z <= max.getBlockZ(); ++z) {
-                    Vector pos = new Vector(x, y, z);
-                    checkAndAddBlock(pos);
-                }
-            }
-        }
+    public int getChunksAffected() {
+        return neededChunks.size();
     }
 
     /**
-     * Find needed chunks in the region.
+     * Restores to world.
      *
-     * @param region The {@link Region} to iterate
+     * @throws MaxChangedBlocksException
      */
-    private void findNeededChunks(Region region) {
-        // First, we need to group points by chunk so that we only need
-        // to keep one chunk in memory at any given moment
-        for (Vector pos : region) {
-            checkAndAddBlock(pos);
+    public void restore() throws MaxChangedBlocksException {
+
+        missingChunks = new ArrayList<>();
+        errorChunks = new ArrayList<>();
+
+        // Now let's start restoring!
+        for (BlockVector2D chunkPos : neededChunks) {
+            apply(decode(chunkPos));
         }
     }
 
-    private void checkAndAddBlock(Vector pos) {
-        if (editSession.getMask() != null && !editSession.getMask().test(pos))
+    /**
+     * Restores to world, reading and decoding chunks on worker threads.
+     *
+     * <p>Chunks are decoded by up to the given number of threads, and at
+     * most {@code readAhead} decoded chunks are held in memory at once.
+     * Only the blocks are set on the calling thread, in the same order as
+     * {@link #restore()} sets them.</p>
+     *
+     * @param threads the number of worker threads, or 0 to decode on the calling thread
+     * @param readAhead the number of chunks to decode ahead
+     * @throws MaxChangedBlocksException
+     */
+    public void restore(int threads, int readAhead) throws MaxChangedBlocksException {
+        if (threads <= 0 || readAhead <= 0) {
+            restore();
             return;
+        }
 
-        BlockVector2D chunkPos = ChunkStore.toChunk(pos);
+        missingChunks = new ArrayList<>();
+        errorChunks = new ArrayList<>();
 
-        // Unidentified chunk
-        if (!neededChunks.containsKey(chunkPos)) {
-            neededChunks.put(chunkPos, new ArrayList<>());
-        }
+        ExecutorService executor = EvenMoreExecutors.newBoundedCachedThreadPool(threads, threads, readAhead);
+        Deque<Future<DecodedChunk>> pending = new ArrayDeque<>(readAhead);
+        Iterator<BlockVector2D> it = neededChunks.iterator();
 
-        neededChunks.get(chunkPos).add(pos);
+        try {
+            while (it.hasNext() || !pending.isEmpty()) {
+                while (pending.size() < readAhead && it.hasNext()) {
+                    BlockVector2D chunkPos = it.next();
+                    pending.add(executor.submit(() -> decode(chunkPos)));
+                }
+
+                apply(pending.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while restoring a snapshot", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to decode a chunk from the snapshot", e.getCause());
+        } finally {
+            for (Future<DecodedChunk> future : pending) {
+                future.cancel(false);
+            }
+            executor.shutdown();
+        }
     }
 
     /**
-     * Get the number of chunks that are needed.
+     * Find the positions of the region within a chunk, and if there are
+     * any, load the chunk and look up the blocks at those positions.
      *
-     * @return a number of chunks
+     * <p>This method does not touch the edit session, so it may be called
+     * from any thread.</p>
+     *
+     * @param chunkPos the chunk position
+     * @return the decoded chunk
      */
-    public int getChunksAffected() {
-        return neededChunks.size();
+    private DecodedChunk decode(BlockVector2D chunkPos) {
+        int chunkMinX = chunkPos.getBlockX() << ChunkStore.CHUNK_SHIFTS;
+        int chunkMinZ = chunkPos.getBlockZ() << ChunkStore.CHUNK_SHIFTS;
+        DecodedChunk decoded = new DecodedChunk(chunkPos,
+                Math.max(min.getBlockX(), chunkMinX), min.getBlockY(), Math.max(min.getBlockZ(), chunkMinZ),
+                Math.min(max.getBlockX(), chunkMinX + 15), max.getBlockY(), Math.min(max.getBlockZ(), chunkMinZ + 15));
+
+        Chunk chunk = null;
+        try {
+            int index = 0;
+            for (int y = decoded.minY; y <= decoded.maxY; ++y) {
+                for (int z = decoded.minZ; z <= decoded.maxZ; ++z) {
+                    for (int x = decoded.minX; x <= decoded.maxX; ++x, ++index) {
+                        Vector pos = new BlockVector(x, y, z);
+                        if (!cuboid && !region.contains(pos)) {
+                            continue;
+                        }
+
+                        if (chunk == null) {
+                            chunk = chunkStore.getChunk(chunkPos, editSession.getWorld());
+                            // Good, the chunk could be at least loaded
+                            decoded.blocks = new BlockStateHolder[decoded.getVolume()];
+                        }
+
+                        try {
+                            decoded.blocks[index] = chunk.getBlock(pos);
+                        } catch (DataException e) {
+                            // this is a workaround: just ignore for now
+                        }
+                    }
+                }
+            }
+        } catch (MissingChunkException me) {
+            decoded.missing = true;
+        } catch (IOException | DataException me) {
+            decoded.error = me;
+        }
+        return decoded;
     }
 
     /**
-     * Restores to world.
+     * Set the blocks of a decoded chunk that pass the edit session's mask,
+     * or record why the chunk could not be loaded.
      *
+     * @param decoded the decoded chunk
      * @throws MaxChangedBlocksException
      */
-    public void restore() throws MaxChangedBlocksException {
+    private void apply(DecodedChunk decoded) throws MaxChangedBlocksException {
+        if (decoded.missing) {
+            missingChunks.add(decoded.position);
+        } else if (decoded.error != null) {
+            errorChunks.add(decoded.position);
+            lastErrorMessage = decoded.error.getMessage();
+        } else if (decoded.blocks != null) {
+            Mask mask = editSession.getMask();
 
-        missingChunks = new ArrayList<>();
-        errorChunks = new ArrayList<>();
+            // Now just copy blocks!
+            int index = 0;
+            for (int y = decoded.minY; y <= decoded.maxY; ++y) {
+                for (int z = decoded.minZ; z <= decoded.maxZ; ++z) {
+                    for (int x = decoded.minX; x <= decoded.maxX; ++x, ++index) {
+                        BlockStateHolder block = decoded.blocks[index];
+                        if (block == null) {
+                            continue;
+                        }
 
-        // Now let's start restoring!
-        for (Map.Entry<BlockVector2D, ArrayList<Vector>> entry : neededChunks.entrySet()) {
-            BlockVector2D chunkPos = entry.getKey();
-            Chunk chunk;
-
-            try {
-                chunk = chunkStore.getChunk(chunkPos, editSession.getWorld());
-                // Good, the chunk could be at least loaded
-
-                // Now just copy blocks!
-                for (Vector pos : entry.getValue()) {
-                    try {
-                        editSession.setBlock(pos, chunk.getBlock(pos));
-                    } catch (DataException e) {
-                        // this is a workaround: just ignore for now
+                        Vector pos = new BlockVector(x, y, z);
+                        if (mask == null || mask.test(pos)) {
+                            editSession.setBlock(pos, block);
+                        }
                     }
                 }
-            } catch (MissingChunkException me) {
-                missingChunks.add(chunkPos);
-            } catch (IOException | DataException me) {
-                errorChunks.add(chunkPos);
-                lastErrorMessage = me.getMessage();
             }
         }
     }
@@ -200,4 +295,39 @@ public String getLastErrorMessage() {
         return lastErrorMessage;
     }
 
+    /**
+     * The blocks to restore from the part of one chunk that lies within
+     * the bounding box of the region, or the reason the chunk could not be
+     * loaded.
+     *
+     * <p>Blocks are ordered by Y, then Z, then X, and are {@code null} for
+     * positions that are not within the region.</p>
+     */
+    private static final class DecodedChunk {
+        private final BlockVector2D position;
+        private final int minX;
+        private final int minY;
+        private final int minZ;
+        private final int maxX;
+        private final int maxY;
+        private final int maxZ;
+        @Nullable private BlockStateHolder[] blocks;
+        private boolean missing;
+        @Nullable private Exception error;
+
+        private DecodedChunk(BlockVector2D position, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.position = position;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+
+        private int getVolume() {
+            return (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        }
+    }
+
 }
@@ -19,6 +19,7 @@
 
 package com.sk89q.worldedit.world.storage;
 
+import com.google.common.collect.ImmutableSet;
 import com.sk89q.jnbt.CompoundTag;
 import com.sk89q.jnbt.Tag;
 import com.sk89q.worldedit.BlockVector2D;
@@ -34,6 +35,7 @@
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Represents chunk storage mechanisms.
@@ -51,6 +53,15 @@ public abstract class ChunkStore implements Closeable {
      */
     public static final int CHUNK_SHIFTS = 4;
 
+    /**
+     * The names of chunk tags that {@link #getChunk(Vector2D, World)} does
+     * not need, which may be skipped while reading.
+     */
+    protected static final Set<String> UNUSED_CHUNK_TAGS = ImmutableSet.of(
+            "Entities", "Biomes", "HeightMap", "Heightmaps", "BlockLight", "SkyLight", "Lights",
+            "TileTicks", "LiquidTicks", "ToBeTicked", "LiquidsToBeTicked", "PostProcessing",
+            "Structures", "CarvingMasks");
+
     /**
      * Convert a position to a chunk.
      *
@@ -74,6 +85,24 @@ public static BlockVector2D toChunk(Vector position) {
      */
     public abstract CompoundTag getChunkTag(Vector2D position, World world) throws DataException, IOException;
 
+    /**
+     * Get the tag for a chunk, leaving out the entries with the given names
+     * in the root compound and in the compounds directly inside it.
+     *
+     * <p>The default implementation reads the whole tag. Stores that read
+     * NBT themselves should override this to skip over the named entries
+     * rather than decode them.</p>
+     *
+     * @param position the position of the chunk
+     * @param skippedNames the names of the entries that may be left out
+     * @return tag
+     * @throws DataException thrown on data error
+     * @throws IOException thrown on I/O error
+     */
+    protected CompoundTag getChunkTag(Vector2D position, World world, Set<String> skippedNames) throws DataException, IOException {
+        return getChunkTag(position, world);
+    }
+
     /**
      * Get a chunk at a location.
      *
@@ -84,7 +113,7 @@ public static BlockVector2D toChunk(Vector position) {
      * @throws IOException thrown on I/O error
      */
     public Chunk getChunk(Vector2D position, World world) throws DataException, IOException {
-        CompoundTag rootTag = getChunkTag(position, world);
+        CompoundTag rootTag = getChunkTag(position, world, UNUSED_CHUNK_TAGS);
 
         Map<String, Tag> children = rootTag.getValue();
         CompoundTag tag = null;
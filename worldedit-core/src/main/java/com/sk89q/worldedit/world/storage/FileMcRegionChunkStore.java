@@ -26,10 +26,18 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
 import java.util.regex.Pattern;
 
 public class FileMcRegionChunkStore extends McRegionChunkStore {
 
+    /**
+     * Whether region files are mapped into memory. Windows keeps a mapped
+     * file locked until the mapping is garbage collected, so files are read
+     * as streams there instead.
+     */
+    private static final boolean MAP_FILES = !System.getProperty("os.name", "").startsWith("Windows");
+
     private File path;
 
     /**
@@ -42,10 +50,16 @@ public FileMcRegionChunkStore(File path) {
         this.path = path;
     }
 
-    @Override
-    protected InputStream getInputStream(String name, String world) throws IOException, DataException {
+    /**
+     * Find a region file, allowing either the .mcr or the .mca extension.
+     *
+     * @param name the name of the region file
+     * @return the file
+     * @throws DataException thrown if the file does not exist
+     * @throws FileNotFoundException thrown if the region folder does not exist
+     */
+    private File findFile(String name) throws DataException, FileNotFoundException {
         Pattern ext = Pattern.compile(".*\\.mc[ra]$"); // allow either file extension, both work the same
-        File file = null;
         File[] files = new File(path, "region").listFiles();
 
         if (files == null) {
@@ -56,19 +70,37 @@ protected InputStream getInputStream(String name, String world) throws IOExcepti
             String tempName = f.getName().replaceFirst("mcr$", "mca"); // matcher only does one at a time
             if (ext.matcher(f.getName()).matches() && name.equalsIgnoreCase(tempName)) {
                 // get full original path now
-                file = new File(path + File.separator + "region" + File.separator + f.getName());
-                break;
+                return new File(path + File.separator + "region" + File.separator + f.getName());
             }
         }
 
+        throw new MissingChunkException();
+    }
+
+    @Override
+    protected InputStream getInputStream(String name, String world) throws IOException, DataException {
+        File file = findFile(name);
         try {
-            if (file == null) throw new FileNotFoundException();
             return new FileInputStream(file);
         } catch (FileNotFoundException e) {
             throw new MissingChunkException();
         }
     }
 
+    @Override
+    protected McRegionReader openReader(String filename, String worldName) throws DataException, IOException {
+        if (!MAP_FILES) {
+            return super.openReader(filename, worldName);
+        }
+
+        File file = findFile(filename);
+        try {
+            return new MappedMcRegionReader(file);
+        } catch (NoSuchFileException e) {
+            throw new MissingChunkException();
+        }
+    }
+
     @Override
     public boolean isValid() {
         return new File(path, "region").isDirectory() ||
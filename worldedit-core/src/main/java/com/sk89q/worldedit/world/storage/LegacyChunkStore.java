@@ -29,7 +29,9 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -71,6 +73,11 @@ public static String getFilename(Vector2D position) {
 
     @Override
     public CompoundTag getChunkTag(Vector2D position, World world) throws DataException, IOException {
+        return getChunkTag(position, world, Collections.<String>emptySet());
+    }
+
+    @Override
+    protected CompoundTag getChunkTag(Vector2D position, World world, Set<String> skippedNames) throws DataException, IOException {
         int x = position.getBlockX();
         int z = position.getBlockZ();
 
@@ -83,7 +90,7 @@ public CompoundTag getChunkTag(Vector2D position, World world) throws DataExcept
         Tag tag;
 
         try (NBTInputStream nbt = new NBTInputStream(new GZIPInputStream(stream))) {
-            tag = nbt.readNamedTag().getTag();
+            tag = nbt.readNamedTag(skippedNames).getTag();
             if (!(tag instanceof CompoundTag)) {
                 throw new ChunkStoreException("CompoundTag expected for chunk; got "
                         + tag.getClass().getName());
@@ -0,0 +1,125 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.world.storage;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.sk89q.worldedit.Vector2D;
+import com.sk89q.worldedit.world.DataException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader for a MCRegion file on disk that maps the file into memory, so
+ * that chunks can be read in any order without reopening the file.
+ *
+ * <p>The offset table is read once when the reader is created, after which
+ * reading a chunk jumps straight to its sectors.</p>
+ */
+public class MappedMcRegionReader extends McRegionReader {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Construct the reader.
+     *
+     * @param file the region file
+     * @throws DataException thrown if the file is too short to be a region file
+     * @throws IOException thrown on I/O error
+     */
+    public MappedMcRegionReader(File file) throws DataException, IOException {
+        checkNotNull(file);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < SECTOR_BYTES) {
+                throw new DataException("MCRegion file is too short to contain a header");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new DataException("MCRegion file is too large");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (DataException | IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        offsets = new int[SECTOR_INTS];
+        IntBuffer header = buffer.duplicate().asIntBuffer();
+        header.get(offsets);
+    }
+
+    @Override
+    public InputStream getChunkInputStream(Vector2D position) throws IOException, DataException {
+        int x = position.getBlockX() & 31;
+        int z = position.getBlockZ() & 31;
+        int offset = getGeneratedOffset(x, z);
+
+        int sectorNumber = offset >> 8;
+        int numSectors = offset & 0xFF;
+        long start = (long) sectorNumber * SECTOR_BYTES;
+
+        ByteBuffer chunk = buffer.duplicate();
+        if (start + CHUNK_HEADER_SIZE > chunk.limit()) {
+            throw new DataException("MCRegion chunk at " + x + "," + z + " is outside of the file");
+        }
+        chunk.position((int) start);
+        int length = chunk.getInt();
+
+        if (length < 1 || length > SECTOR_BYTES * numSectors || length > chunk.remaining()) {
+            throw new DataException("MCRegion chunk at "
+                    + x + "," + z + " has an invalid length of " + length);
+        }
+
+        byte version = chunk.get();
+        byte[] data = new byte[length - 1];
+        chunk.get(data);
+        return decompress(x, z, version, data);
+    }
+
+    @Override
+    public boolean canRead(Vector2D position) {
+        return true;
+    }
+
+    /**
+     * Close the file.
+     *
+     * <p>Java offers no way to unmap the file, so the mapping is only
+     * released once the buffer has been garbage collected. Until then, the
+     * file cannot be deleted or replaced on Windows, which is why
+     * {@link FileMcRegionChunkStore} does not map files there.</p>
+     *
+     * @throws IOException thrown on I/O error
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
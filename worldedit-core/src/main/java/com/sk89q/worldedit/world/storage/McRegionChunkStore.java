@@ -28,12 +28,20 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 public abstract class McRegionChunkStore extends ChunkStore {
 
-    protected String curFilename = null;
-    protected McRegionReader cachedReader = null;
+    /**
+     * The number of region readers that are kept open.
+     */
+    public static final int MAX_CACHED_READERS = 16;
+
+    private final Map<String, McRegionReader> readers = new LinkedHashMap<>(16, 0.75f, true);
 
     /**
      * Get the filename of a region file.
@@ -48,33 +56,83 @@ public static String getFilename(Vector2D position) {
         return "r." + (x >> 5) + "." + (z >> 5) + ".mca";
     }
 
-    protected McRegionReader getReader(Vector2D pos, String worldname) throws DataException, IOException {
+    /**
+     * Get a reader for the region file that contains the given chunk.
+     *
+     * <p>Readers are kept open and reused for up to
+     * {@link #MAX_CACHED_READERS} region files, least recently used first.
+     * A reader that cannot seek back to the chunk is reopened.</p>
+     *
+     * @param pos chunk position
+     * @param worldname the world name
+     * @return a reader
+     * @throws DataException
+     * @throws IOException
+     */
+    protected synchronized McRegionReader getReader(Vector2D pos, String worldname) throws DataException, IOException {
         String filename = getFilename(pos);
-        if (curFilename != null) {
-            if (curFilename.equals(filename)) {
-                return cachedReader;
-            } else {
-                try {
-                    cachedReader.close();
-                } catch (IOException ignored) {
-                }
+        McRegionReader reader = readers.get(filename);
+        if (reader != null) {
+            if (reader.canRead(pos)) {
+                return reader;
             }
+            readers.remove(filename);
+            closeQuietly(reader);
+        }
+
+        reader = openReader(filename, worldname);
+        readers.put(filename, reader);
+
+        if (readers.size() > MAX_CACHED_READERS) {
+            Iterator<McRegionReader> it = readers.values().iterator();
+            closeQuietly(it.next());
+            it.remove();
+        }
+
+        return reader;
+    }
+
+    /**
+     * Open a reader for a region file.
+     *
+     * <p>The default implementation reads from
+     * {@link #getInputStream(String, String)}.</p>
+     *
+     * @param filename the name of the region file
+     * @param worldName the world name
+     * @return a reader
+     * @throws DataException
+     * @throws IOException
+     */
+    protected McRegionReader openReader(String filename, String worldName) throws DataException, IOException {
+        return new McRegionReader(getInputStream(filename, worldName));
+    }
+
+    private static void closeQuietly(McRegionReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
         }
-        InputStream stream = getInputStream(filename, worldname);
-        cachedReader = new McRegionReader(stream);
-        //curFilename = filename;
-        return cachedReader;
     }
 
     @Override
     public CompoundTag getChunkTag(Vector2D position, World world) throws DataException, IOException {
-        McRegionReader reader = getReader(position, world.getName());
+        return getChunkTag(position, world, Collections.<String>emptySet());
+    }
 
-        InputStream stream = reader.getChunkInputStream(position);
+    @Override
+    protected CompoundTag getChunkTag(Vector2D position, World world, Set<String> skippedNames) throws DataException, IOException {
+        InputStream stream;
+        // Readers may be closed once they leave the cache, so only hold on
+        // to the chunk's data, which is decompressed outside of the lock
+        synchronized (this) {
+            McRegionReader reader = getReader(position, world.getName());
+            stream = reader.getChunkInputStream(position);
+        }
         Tag tag;
 
         try (NBTInputStream nbt = new NBTInputStream(stream)) {
-            tag = nbt.readNamedTag().getTag();
+            tag = nbt.readNamedTag(skippedNames).getTag();
             if (!(tag instanceof CompoundTag)) {
                 throw new ChunkStoreException("CompoundTag expected for chunk; got " + tag.getClass().getName());
             }
@@ -94,10 +152,11 @@ public CompoundTag getChunkTag(Vector2D position, World world) throws DataExcept
     protected abstract InputStream getInputStream(String name, String worldName) throws IOException, DataException;
 
     @Override
-    public void close() throws IOException {
-        if (cachedReader != null) {
-            cachedReader.close();
+    public synchronized void close() throws IOException {
+        for (McRegionReader reader : readers.values()) {
+            closeQuietly(reader);
         }
+        readers.clear();
     }
 
 }
@@ -61,6 +61,7 @@ counts. The chunk offset for a chunk (x, z) begins at byte 4*(x+z*32) in the
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
@@ -83,6 +84,16 @@ public class McRegionReader {
 
     protected int[] offsets;
 
+    /**
+     * Construct a reader for subclasses that do not read from a stream.
+     *
+     * <p>Subclasses must set {@link #offsets} and override
+     * {@link #getChunkInputStream(Vector2D)}, {@link #canRead(Vector2D)}
+     * and {@link #close()}.</p>
+     */
+    protected McRegionReader() {
+    }
+
     /**
      * Construct the reader.
      * 
@@ -123,17 +134,7 @@ private void readHeader() throws DataException, IOException {
     public synchronized InputStream getChunkInputStream(Vector2D position) throws IOException, DataException {
         int x = position.getBlockX() & 31;
         int z = position.getBlockZ() & 31;
-
-        if (x < 0 || x >= 32 || z < 0 || z >= 32) {
-            throw new DataException("MCRegion file does not contain " + x + "," + z);
-        }
-
-        int offset = getOffset(x, z);
-
-        // The chunk hasn't been generated
-        if (offset == 0) {
-            throw new DataException("The chunk at " + x + "," + z + " is not generated");
-        }
+        int offset = getGeneratedOffset(x, z);
 
         int sectorNumber = offset >> 8;
         int numSectors = offset & 0xFF;
@@ -148,19 +149,50 @@ public synchronized InputStream getChunkInputStream(Vector2D position) throws IO
 
         byte version = dataStream.readByte();
 
+        byte[] data = new byte[length - 1];
+        try {
+            dataStream.readFully(data);
+        } catch (EOFException e) {
+            throw new DataException("MCRegion file does not contain "
+                    + x + "," + z + " in full");
+        }
+        return decompress(x, z, version, data);
+    }
+
+    /**
+     * Get the offset for a chunk, checking that the chunk is generated.
+     *
+     * @param x the X coordinate within the region
+     * @param z the Z coordinate within the region
+     * @return the offset
+     * @throws DataException thrown if the chunk is not generated
+     */
+    protected int getGeneratedOffset(int x, int z) throws DataException {
+        int offset = getOffset(x, z);
+
+        // The chunk hasn't been generated
+        if (offset == 0) {
+            throw new DataException("The chunk at " + x + "," + z + " is not generated");
+        }
+
+        return offset;
+    }
+
+    /**
+     * Get an input stream that decompresses the data of a chunk.
+     *
+     * @param x the X coordinate within the region
+     * @param z the Z coordinate within the region
+     * @param version the compression version of the chunk
+     * @param data the compressed data
+     * @return an input stream
+     * @throws IOException
+     * @throws DataException
+     */
+    protected InputStream decompress(int x, int z, byte version, byte[] data) throws IOException, DataException {
         if (version == VERSION_GZIP) {
-            byte[] data = new byte[length - 1];
-            if (dataStream.read(data) < length - 1) {
-                throw new DataException("MCRegion file does not contain "
-                        + x + "," + z + " in full");
-            }
             return new GZIPInputStream(new ByteArrayInputStream(data));
         } else if (version == VERSION_DEFLATE) {
-            byte[] data = new byte[length - 1];
-            if (dataStream.read(data) < length - 1) {
-                throw new DataException("MCRegion file does not contain "
-                        + x + "," + z + " in full");
-            }
             return new InflaterInputStream(new ByteArrayInputStream(data));
         } else {
             throw new DataException("MCRegion chunk at "
@@ -168,6 +200,20 @@ public synchronized InputStream getChunkInputStream(Vector2D position) throws IO
         }
     }
 
+    /**
+     * Returns whether the chunk at the given position can still be read.
+     *
+     * <p>As the underlying stream can only seek forward, chunks that are
+     * stored before the last chunk that was read cannot be read.</p>
+     *
+     * @param position chunk position
+     * @return true if the chunk can be read
+     */
+    public synchronized boolean canRead(Vector2D position) {
+        int offset = getOffset(position.getBlockX() & 31, position.getBlockZ() & 31);
+        return (long) (offset >> 8) * SECTOR_BYTES >= stream.getPosition();
+    }
+
     /**
      * Get the offset for a chunk. May return 0 if it doesn't exist.
      * 
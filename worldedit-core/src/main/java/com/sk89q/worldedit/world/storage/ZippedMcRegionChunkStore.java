@@ -127,6 +127,7 @@ private ZipEntry getEntry(String file) {
 
     @Override
     public void close() throws IOException {
+        super.close();
         zip.close();
     }
 
@@ -0,0 +1,146 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.jnbt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+public class NBTStreamReaderTest {
+
+    private static byte[] writeSample() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTStreamWriter writer = new NBTStreamWriter(bytes);
+        writer.beginCompound("Root");
+        writer.writeInt("Version", 2);
+        writer.beginList("Entities", NBTConstants.TYPE_COMPOUND, 2);
+        for (int i = 0; i < 2; i++) {
+            writer.writeString("id", "minecraft:pig");
+            writer.writeLongArray("UUID", new long[]{i, i});
+            writer.endCompound();
+        }
+        writer.beginCompound("Level");
+        writer.writeLongArray("BlockStates", new long[]{1, 2, 3});
+        OutputStream data = writer.beginByteArray("Data", 300);
+        for (int i = 0; i < 300; i++) {
+            data.write(i);
+        }
+        writer.writeTag("Heights", new IntArrayTag(new int[]{4, 5}));
+        writer.endCompound();
+        writer.writeShort("After", (short) 7);
+        writer.endCompound();
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testPullFields() throws IOException {
+        NBTStreamReader reader = new NBTStreamReader(new ByteArrayInputStream(writeSample()));
+        assertEquals("Root", reader.beginRootCompound());
+
+        assertTrue(reader.nextField());
+        assertEquals("Version", reader.getFieldName());
+        assertEquals(2, reader.readInt());
+
+        assertTrue(reader.nextField());
+        assertEquals("Entities", reader.getFieldName());
+        assertEquals(2, reader.beginList());
+        assertEquals(NBTConstants.TYPE_COMPOUND, reader.getFieldType());
+        reader.beginCompound();
+        assertTrue(reader.nextField());
+        assertEquals("minecraft:pig", reader.readString());
+        assertTrue(reader.nextField());
+        reader.skipValue();
+        assertFalse(reader.nextField());
+        // The second element is skipped by ending the list early
+        reader.endList();
+
+        assertTrue(reader.nextField());
+        assertEquals("Level", reader.getFieldName());
+        reader.beginCompound();
+        assertTrue(reader.nextField());
+        assertArrayEquals(new long[]{1, 2, 3}, reader.readLongArray());
+        assertTrue(reader.nextField());
+        try (InputStream data = reader.readByteArrayStream()) {
+            assertEquals(0, data.read());
+            assertEquals(1, data.read());
+        }
+        assertTrue(reader.nextField());
+        assertEquals("Heights", reader.getFieldName());
+        assertArrayEquals(new int[]{4, 5}, ((IntArrayTag) reader.readTag()).getValue());
+        assertFalse(reader.nextField());
+
+        assertTrue(reader.nextField());
+        assertEquals(7, reader.readShort());
+        assertFalse(reader.nextField());
+    }
+
+    @Test
+    public void testSkippedNames() throws IOException {
+        NBTInputStream input = new NBTInputStream(new ByteArrayInputStream(writeSample()));
+        NamedTag tag = input.readNamedTag(ImmutableSet.of("Entities", "Data"));
+        Map<String, Tag> root = ((CompoundTag) tag.getTag()).getValue();
+        assertEquals(ImmutableSet.of("Version", "Level", "After"), root.keySet());
+        Map<String, Tag> level = ((CompoundTag) root.get("Level")).getValue();
+        assertEquals(ImmutableSet.of("BlockStates", "Heights"), level.keySet());
+        assertArrayEquals(new long[]{1, 2, 3}, ((LongArrayTag) level.get("BlockStates")).getValue());
+    }
+
+    @Test
+    public void testSkippedNamesKeepNestedEntries() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTStreamWriter writer = new NBTStreamWriter(bytes);
+        writer.beginCompound("");
+        writer.beginCompound("Level");
+        writer.writeInt("Entities", 1);
+        writer.beginList("TileEntities", NBTConstants.TYPE_COMPOUND, 1);
+        writer.writeString("id", "mod:machine");
+        writer.writeInt("Entities", 2);
+        writer.beginCompound("Lights");
+        writer.writeInt("Entities", 3);
+        writer.endCompound();
+        writer.endCompound();
+        writer.endCompound();
+        writer.endCompound();
+        writer.close();
+
+        NBTInputStream input = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        NamedTag tag = input.readNamedTag(ImmutableSet.of("Entities", "Lights"));
+        Map<String, Tag> level = ((CompoundTag) ((CompoundTag) tag.getTag()).getValue().get("Level")).getValue();
+        assertEquals(ImmutableSet.of("TileEntities"), level.keySet());
+
+        CompoundTag tileEntity = (CompoundTag) ((ListTag) level.get("TileEntities")).getValue().get(0);
+        assertEquals(ImmutableSet.of("id", "Entities", "Lights"), tileEntity.getValue().keySet());
+        assertEquals(2, tileEntity.getInt("Entities"));
+        assertEquals(3, ((CompoundTag) tileEntity.getValue().get("Lights")).getInt("Entities"));
+    }
+
+}
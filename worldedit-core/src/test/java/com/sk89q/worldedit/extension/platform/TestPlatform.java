@@ -0,0 +1,203 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extension.platform;
+
+import com.sk89q.worldedit.LocalConfiguration;
+import com.sk89q.worldedit.WorldEdit;
+import com.sk89q.worldedit.entity.Player;
+import com.sk89q.worldedit.registry.Category;
+import com.sk89q.worldedit.registry.state.BooleanProperty;
+import com.sk89q.worldedit.registry.state.DirectionalProperty;
+import com.sk89q.worldedit.registry.state.EnumProperty;
+import com.sk89q.worldedit.registry.state.Property;
+import com.sk89q.worldedit.util.Direction;
+import com.sk89q.worldedit.util.command.Dispatcher;
+import com.sk89q.worldedit.world.World;
+import com.sk89q.worldedit.world.block.BlockType;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import com.sk89q.worldedit.world.registry.BlockCategoryRegistry;
+import com.sk89q.worldedit.world.registry.BlockRegistry;
+import com.sk89q.worldedit.world.registry.BundledBlockRegistry;
+import com.sk89q.worldedit.world.registry.BundledRegistries;
+import com.sk89q.worldedit.world.registry.NullBlockCategoryRegistry;
+import com.sk89q.worldedit.world.registry.Registries;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A platform without a game, which provides the bundled registries and a
+ * default configuration so that tests can create blocks and edit
+ * sessions.
+ *
+ * <p>The bundled block registry does not know the properties of blocks,
+ * so tests may only use block types that have none. The exceptions are
+ * the oak door and the rail, which are given their properties here and
+ * are the only members of the doors and rails categories.</p>
+ */
+public final class TestPlatform extends AbstractPlatform {
+
+    private static boolean installed;
+
+    private final LocalConfiguration configuration = new LocalConfiguration() {
+        @Override
+        public void load() {
+        }
+    };
+
+    private TestPlatform() {
+    }
+
+    /**
+     * Register the platform with WorldEdit, unless it has already been.
+     *
+     * <p>This must be called before any block type is used.</p>
+     */
+    public static synchronized void install() {
+        if (!installed) {
+            WorldEdit.getInstance().getPlatformManager().register(new TestPlatform());
+            installed = true;
+        }
+    }
+
+    @Override
+    public Registries getRegistries() {
+        return TestRegistries.INSTANCE;
+    }
+
+    @Override
+    public boolean isValidMobType(String type) {
+        return false;
+    }
+
+    @Override
+    public void reload() {
+    }
+
+    @Nullable
+    @Override
+    public Player matchPlayer(Player player) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public World matchWorld(World world) {
+        return world;
+    }
+
+    @Override
+    public void registerCommands(Dispatcher dispatcher) {
+    }
+
+    @Override
+    public void registerGameHooks() {
+    }
+
+    @Override
+    public LocalConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public String getVersion() {
+        return "test";
+    }
+
+    @Override
+    public String getPlatformName() {
+        return "Test";
+    }
+
+    @Override
+    public String getPlatformVersion() {
+        return "test";
+    }
+
+    @Override
+    public Map<Capability, Preference> getCapabilities() {
+        Map<Capability, Preference> capabilities = new EnumMap<>(Capability.class);
+        capabilities.put(Capability.CONFIGURATION, Preference.NORMAL);
+        capabilities.put(Capability.GAME_HOOKS, Preference.NORMAL);
+        capabilities.put(Capability.WORLD_EDITING, Preference.NORMAL);
+        return capabilities;
+    }
+
+    private static final class TestRegistries extends BundledRegistries {
+        private static final TestRegistries INSTANCE = new TestRegistries();
+
+        private final BlockRegistry blockRegistry = new BundledBlockRegistry() {
+            @Override
+            public Map<String, ? extends Property> getProperties(BlockType blockType) {
+                Map<String, Property<?>> properties = new HashMap<>();
+                if (blockType == BlockTypes.OAK_DOOR) {
+                    add(properties, new DirectionalProperty("facing", Arrays.asList(Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST)));
+                    add(properties, new EnumProperty("half", Arrays.asList("upper", "lower")));
+                    add(properties, new EnumProperty("hinge", Arrays.asList("left", "right")));
+                    add(properties, new BooleanProperty("open", Arrays.asList(false, true)));
+                    add(properties, new BooleanProperty("powered", Arrays.asList(false, true)));
+                } else if (blockType == BlockTypes.RAIL) {
+                    add(properties, new EnumProperty("shape", Arrays.asList("north_south", "east_west")));
+                }
+                return properties;
+            }
+
+            private void add(Map<String, Property<?>> properties, Property<?> property) {
+                properties.put(property.getName(), property);
+            }
+        };
+
+        private final BlockCategoryRegistry blockCategoryRegistry = new NullBlockCategoryRegistry() {
+            @Override
+            public Set<BlockType> getCategorisedByName(String category) {
+                switch (category) {
+                    case "minecraft:doors":
+                        return Collections.singleton(BlockTypes.OAK_DOOR);
+                    case "minecraft:rails":
+                        return Collections.singleton(BlockTypes.RAIL);
+                    default:
+                        return Collections.emptySet();
+                }
+            }
+
+            @Override
+            public Set<BlockType> getAll(Category<BlockType> category) {
+                return getCategorisedByName(category.getId());
+            }
+        };
+
+        @Override
+        public BlockRegistry getBlockRegistry() {
+            return blockRegistry;
+        }
+
+        @Override
+        public BlockCategoryRegistry getBlockCategoryRegistry() {
+            return blockCategoryRegistry;
+        }
+    }
+
+}
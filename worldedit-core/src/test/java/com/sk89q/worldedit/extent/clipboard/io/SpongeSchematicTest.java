@@ -0,0 +1,98 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.clipboard.io;
+
+import static org.junit.Assert.assertEquals;
+
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extension.platform.TestPlatform;
+import com.sk89q.worldedit.extent.clipboard.BlockArrayClipboard;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.regions.CuboidRegion;
+import com.sk89q.worldedit.regions.Region;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class SpongeSchematicTest {
+
+    private static BlockState[] blocks;
+
+    @BeforeClass
+    public static void setUp() {
+        TestPlatform.install();
+        blocks = new BlockState[] {
+                BlockTypes.AIR.getDefaultState(),
+                BlockTypes.STONE.getDefaultState(),
+                BlockTypes.DIRT.getDefaultState(),
+                BlockTypes.SAND.getDefaultState(),
+                BlockTypes.GRAVEL.getDefaultState(),
+                BlockTypes.COAL_ORE.getDefaultState(),
+                BlockTypes.IRON_ORE.getDefaultState(),
+                BlockTypes.BEDROCK.getDefaultState(),
+        };
+    }
+
+    @Test
+    public void testRoundTripLargerThanBuffer() throws IOException, WorldEditException {
+        // 32 * 16 * 32 one-byte block ids do not fit in one 8 KB buffer
+        Region region = new CuboidRegion(new Vector(-10, 5, 20), new Vector(21, 20, 51));
+        BlockArrayClipboard clipboard = new BlockArrayClipboard(region);
+        clipboard.setOrigin(new Vector(0, 5, 20));
+        for (Vector position : region) {
+            clipboard.setBlock(position, getBlock(position));
+        }
+
+        Clipboard read = read(write(clipboard));
+
+        assertEquals(region.getMinimumPoint(), read.getRegion().getMinimumPoint());
+        assertEquals(region.getMaximumPoint(), read.getRegion().getMaximumPoint());
+        assertEquals(clipboard.getOrigin(), read.getOrigin());
+        for (Vector position : region) {
+            assertEquals(getBlock(position), read.getBlock(position));
+        }
+    }
+
+    private static BlockState getBlock(Vector position) {
+        int hash = (position.getBlockX() * 73856093) ^ (position.getBlockY() * 19349663) ^ (position.getBlockZ() * 83492791);
+        return blocks[Math.floorMod(hash, blocks.length)];
+    }
+
+    private static byte[] write(Clipboard clipboard) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ClipboardWriter writer = BuiltInClipboardFormat.SPONGE_SCHEMATIC.getWriter(bytes)) {
+            writer.write(clipboard);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Clipboard read(byte[] data) throws IOException {
+        try (ClipboardReader reader = BuiltInClipboardFormat.SPONGE_SCHEMATIC.getReader(new ByteArrayInputStream(data))) {
+            return reader.read();
+        }
+    }
+
+}
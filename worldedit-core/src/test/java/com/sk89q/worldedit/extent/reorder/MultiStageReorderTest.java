@@ -0,0 +1,180 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.extent.reorder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sk89q.worldedit.BlockVector;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extension.platform.TestPlatform;
+import com.sk89q.worldedit.extent.NullExtent;
+import com.sk89q.worldedit.function.operation.Operations;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MultiStageReorderTest {
+
+    private static BlockState stone;
+    private static BlockState dirt;
+    private static BlockState grass;
+    private static BlockState lowerDoor;
+    private static BlockState upperDoor;
+    private static BlockState rail;
+
+    private RecordingExtent recorder;
+    private MultiStageReorder reorder;
+
+    @BeforeClass
+    public static void setUpBlocks() {
+        TestPlatform.install();
+        stone = BlockTypes.STONE.getDefaultState();
+        dirt = BlockTypes.DIRT.getDefaultState();
+        grass = BlockTypes.GRASS.getDefaultState();
+        lowerDoor = BlockTypes.OAK_DOOR.getDefaultState();
+        upperDoor = lowerDoor.with(BlockTypes.OAK_DOOR.getProperty("half"), "upper");
+        rail = BlockTypes.RAIL.getDefaultState();
+    }
+
+    @Before
+    public void setUp() {
+        recorder = new RecordingExtent();
+        reorder = new MultiStageReorder(recorder);
+    }
+
+    @Test
+    public void testStageOrder() throws WorldEditException {
+        reorder.setBlock(new BlockVector(0, 11, 0), upperDoor);
+        reorder.setBlock(new BlockVector(1, 10, 0), grass);
+        reorder.setBlock(new BlockVector(2, 10, 0), stone);
+        assertTrue(recorder.blocks.isEmpty());
+
+        Operations.complete(reorder.commit());
+
+        assertEquals(3, recorder.blocks.size());
+        assertEquals(stone, recorder.blocks.get(0));
+        assertEquals(grass, recorder.blocks.get(1));
+        assertEquals(upperDoor, recorder.blocks.get(2));
+    }
+
+    @Test
+    public void testLastWriteWins() throws WorldEditException {
+        Vector position = new BlockVector(5, 64, 5);
+        reorder.setBlock(position, stone);
+        reorder.setBlock(position, dirt);
+        Vector doorPosition = new BlockVector(6, 64, 5);
+        reorder.setBlock(doorPosition, upperDoor);
+        reorder.setBlock(doorPosition, lowerDoor);
+
+        Operations.complete(reorder.commit());
+
+        Map<Vector, BlockStateHolder> world = recorder.getWorld();
+        assertEquals(dirt, world.get(position));
+        assertEquals(lowerDoor, world.get(doorPosition));
+        assertEquals(lowerDoor, recorder.blocks.get(recorder.blocks.size() - 1));
+    }
+
+    @Test
+    public void testLowerDoorPlacedAfterUpperHalf() throws WorldEditException {
+        reorder.setBlock(new BlockVector(3, 10, 7), lowerDoor);
+        reorder.setBlock(new BlockVector(3, 11, 7), upperDoor);
+
+        Operations.complete(reorder.commit());
+
+        assertEquals(2, recorder.blocks.size());
+        assertEquals(new BlockVector(3, 11, 7), recorder.positions.get(0));
+        assertEquals(upperDoor, recorder.blocks.get(0));
+        assertEquals(new BlockVector(3, 10, 7), recorder.positions.get(1));
+        assertEquals(lowerDoor, recorder.blocks.get(1));
+    }
+
+    @Test
+    public void testRailPlacedAfterBlockBelow() throws WorldEditException {
+        reorder.setBlock(new BlockVector(4, 21, 4), rail);
+        reorder.setBlock(new BlockVector(4, 20, 4), stone);
+
+        Operations.complete(reorder.commit());
+
+        assertEquals(2, recorder.blocks.size());
+        assertEquals(new BlockVector(4, 20, 4), recorder.positions.get(0));
+        assertEquals(new BlockVector(4, 21, 4), recorder.positions.get(1));
+        assertEquals(rail, recorder.blocks.get(1));
+    }
+
+    @Test
+    public void testNegativeCoordinates() throws WorldEditException {
+        Vector[] positions = {
+                new BlockVector(-1, 0, -1),
+                new BlockVector(-16, 5, -17),
+                new BlockVector(-17, 255, 16),
+                new BlockVector(15, 7, -33),
+        };
+        for (Vector position : positions) {
+            reorder.setBlock(position, stone);
+        }
+        reorder.setBlock(new BlockVector(-33, 40, -1), lowerDoor);
+        reorder.setBlock(new BlockVector(-33, 41, -1), upperDoor);
+
+        Operations.complete(reorder.commit());
+
+        Map<Vector, BlockStateHolder> world = recorder.getWorld();
+        assertEquals(positions.length + 2, world.size());
+        for (Vector position : positions) {
+            assertEquals(stone, world.get(position));
+        }
+        assertEquals(lowerDoor, world.get(new BlockVector(-33, 40, -1)));
+        assertEquals(upperDoor, world.get(new BlockVector(-33, 41, -1)));
+        assertEquals(new BlockVector(-33, 41, -1), recorder.positions.get(recorder.positions.size() - 2));
+    }
+
+    /**
+     * Records the blocks that are set, in order.
+     */
+    private static class RecordingExtent extends NullExtent {
+        private final List<Vector> positions = new ArrayList<>();
+        private final List<BlockStateHolder> blocks = new ArrayList<>();
+
+        @Override
+        public boolean setBlock(Vector position, BlockStateHolder block) throws WorldEditException {
+            positions.add(position.toBlockVector());
+            blocks.add(block);
+            return true;
+        }
+
+        private Map<Vector, BlockStateHolder> getWorld() {
+            Map<Vector, BlockStateHolder> world = new HashMap<>();
+            for (int i = 0; i < positions.size(); i++) {
+                world.put(positions.get(i), blocks.get(i));
+            }
+            return world;
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.function.mask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.sk89q.worldedit.BlockVector;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.extension.platform.TestPlatform;
+import com.sk89q.worldedit.extent.NullExtent;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockType;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MaskFoldingTest {
+
+    private static final Vector LOW = new BlockVector(0, 5, 0);
+    private static final Vector HIGH = new BlockVector(0, 50, 0);
+
+    private static List<BlockState> candidates;
+    private static BlockState stone;
+    private static BlockState dirt;
+    private static BlockState lowerDoor;
+    private static BlockState upperDoor;
+
+    @BeforeClass
+    public static void setUpBlocks() {
+        TestPlatform.install();
+        stone = BlockTypes.STONE.getDefaultState();
+        dirt = BlockTypes.DIRT.getDefaultState();
+        lowerDoor = BlockTypes.OAK_DOOR.getDefaultState();
+        upperDoor = lowerDoor.with(BlockTypes.OAK_DOOR.getProperty("half"), "upper");
+
+        candidates = new ArrayList<>();
+        candidates.add(stone);
+        candidates.add(dirt);
+        candidates.add(BlockTypes.GRASS.getDefaultState());
+        candidates.addAll(BlockTypes.OAK_DOOR.getAllStates());
+        candidates.addAll(BlockTypes.RAIL.getAllStates());
+    }
+
+    @Test
+    public void testFuzzyExpansion() {
+        SingleBlockExtent extent = new SingleBlockExtent();
+        BlockMask mask = new BlockMask(extent, lowerDoor.toFuzzy(), stone);
+        for (BlockState candidate : candidates) {
+            extent.block = candidate;
+            boolean expected = candidate.getBlockType() == BlockTypes.OAK_DOOR || candidate.equals(stone);
+            assertEquals(candidate.toString(), expected, mask.test(LOW));
+        }
+        assertEquals(BlockTypes.OAK_DOOR.getAllStates().size() + 1, mask.getStateIds().cardinality());
+    }
+
+    @Test
+    public void testIntersection() {
+        SingleBlockExtent extent = new SingleBlockExtent();
+        List<BlockStateHolder> first = Arrays.asList(lowerDoor.toFuzzy(), stone);
+        List<BlockStateHolder> second = Arrays.asList(upperDoor, stone, dirt);
+        Mask mask = new MaskIntersection(
+                new BlockMask(extent, first),
+                new BlockMask(extent, second),
+                new BlockTypeMask(extent, BlockTypes.OAK_DOOR, BlockTypes.STONE, BlockTypes.GRASS),
+                new BoundedHeightMask(0, 10));
+
+        for (BlockState candidate : candidates) {
+            extent.block = candidate;
+            boolean expected = matches(first, candidate) && matches(second, candidate)
+                    && isType(candidate, BlockTypes.OAK_DOOR, BlockTypes.STONE, BlockTypes.GRASS);
+            assertEquals(candidate.toString(), expected, mask.test(LOW));
+            assertFalse(candidate.toString(), mask.test(HIGH));
+        }
+    }
+
+    @Test
+    public void testUnion() {
+        SingleBlockExtent extent = new SingleBlockExtent();
+        List<BlockStateHolder> first = Arrays.asList(upperDoor, stone);
+        Mask mask = new MaskUnion(
+                new BlockMask(extent, first),
+                new BlockTypeMask(extent, BlockTypes.RAIL),
+                new BoundedHeightMask(40, 60));
+
+        for (BlockState candidate : candidates) {
+            extent.block = candidate;
+            boolean expected = matches(first, candidate) || isType(candidate, BlockTypes.RAIL);
+            assertEquals(candidate.toString(), expected, mask.test(LOW));
+            assertTrue(candidate.toString(), mask.test(HIGH));
+        }
+    }
+
+    @Test
+    public void testMasksFromDifferentExtents() {
+        SingleBlockExtent extent = new SingleBlockExtent();
+        SingleBlockExtent other = new SingleBlockExtent();
+        extent.block = stone;
+        other.block = dirt;
+
+        assertTrue(new MaskIntersection(new BlockMask(extent, stone), new BlockMask(other, dirt)).test(LOW));
+        assertFalse(new MaskIntersection(new BlockMask(extent, stone), new BlockMask(other, stone)).test(LOW));
+        assertTrue(new MaskUnion(new BlockMask(extent, dirt), new BlockMask(other, dirt)).test(LOW));
+    }
+
+    @Test
+    public void testChangesAfterFolding() {
+        SingleBlockExtent extent = new SingleBlockExtent();
+        extent.block = dirt;
+        BlockMask blockMask = new BlockMask(extent, stone);
+        MaskUnion union = new MaskUnion(blockMask);
+        assertFalse(union.test(LOW));
+
+        blockMask.add(dirt);
+        assertTrue(union.test(LOW));
+
+        MaskIntersection intersection = new MaskIntersection(new BlockMask(extent, dirt));
+        assertTrue(intersection.test(LOW));
+        intersection.add(new BlockMask(extent, stone));
+        assertFalse(intersection.test(LOW));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMasksAreUnmodifiable() {
+        new MaskIntersection(Masks.alwaysTrue()).getMasks().clear();
+    }
+
+    private static boolean matches(List<BlockStateHolder> blocks, BlockState block) {
+        for (BlockStateHolder testBlock : blocks) {
+            if (testBlock.equalsFuzzy(block)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isType(BlockState block, BlockType... types) {
+        return Arrays.asList(types).contains(block.getBlockType());
+    }
+
+    private static final class SingleBlockExtent extends NullExtent {
+        private BlockState block = BlockTypes.AIR.getDefaultState();
+
+        @Override
+        public BlockState getBlock(Vector position) {
+            return block;
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.history.changeset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.sk89q.worldedit.BlockVector;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.extension.platform.TestPlatform;
+import com.sk89q.worldedit.extent.NullExtent;
+import com.sk89q.worldedit.function.operation.ChangeSetExecutor;
+import com.sk89q.worldedit.function.operation.Operations;
+import com.sk89q.worldedit.history.UndoContext;
+import com.sk89q.worldedit.history.change.BlockChange;
+import com.sk89q.worldedit.history.change.Change;
+import com.sk89q.worldedit.world.block.BlockState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import com.sk89q.worldedit.world.block.BlockTypes;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests {@link PackedBlockHistory}.
+ */
+public class PackedBlockHistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static BlockState stone;
+    private static BlockState dirt;
+    private static BlockState grass;
+
+    @BeforeClass
+    public static void setUpBlocks() {
+        TestPlatform.install();
+        stone = BlockTypes.STONE.getDefaultState();
+        dirt = BlockTypes.DIRT.getDefaultState();
+        grass = BlockTypes.GRASS.getDefaultState();
+    }
+
+    private static List<BlockChange> createChanges(int count) {
+        BlockState[] blocks = { stone, dirt, grass };
+        List<BlockChange> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BlockVector position = new BlockVector(i - 5, i % 7, -i * 3);
+            changes.add(new BlockChange(position, blocks[i % 3], blocks[(i + 1) % 3]));
+        }
+        return changes;
+    }
+
+    private static void assertSameChanges(List<BlockChange> expected, List<Change> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            BlockChange change = (BlockChange) actual.get(i);
+            assertEquals(expected.get(i).getPosition(), change.getPosition());
+            assertEquals(expected.get(i).getPrevious(), change.getPrevious());
+            assertEquals(expected.get(i).getCurrent(), change.getCurrent());
+        }
+    }
+
+    @Test
+    public void testSpillAndReadBack() throws Exception {
+        List<BlockChange> changes = createChanges(10);
+        try (PackedBlockHistory history = new PackedBlockHistory(4, folder.getRoot())) {
+            for (BlockChange change : changes) {
+                history.add(change);
+            }
+
+            assertEquals(10, history.size());
+            assertEquals(8, history.getSpilledSize());
+            assertEquals(1, folder.getRoot().listFiles().length);
+
+            assertSameChanges(changes, Lists.newArrayList(history.forwardIterator()));
+            assertSameChanges(Lists.reverse(changes), Lists.newArrayList(history.backwardIterator()));
+        }
+        assertEquals(0, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void testUndoAndRedo() throws Exception {
+        List<BlockChange> changes = createChanges(25);
+        RecordingExtent extent = new RecordingExtent();
+        UndoContext context = new UndoContext();
+        context.setExtent(extent);
+
+        try (PackedBlockHistory history = new PackedBlockHistory(10, folder.getRoot())) {
+            for (BlockChange change : changes) {
+                history.add(change);
+            }
+            assertEquals(20, history.getSpilledSize());
+
+            Operations.complete(ChangeSetExecutor.createUndo(history, context));
+            for (BlockChange change : changes) {
+                assertEquals(change.getPrevious(), extent.blocks.get(change.getPosition()));
+            }
+
+            Operations.complete(ChangeSetExecutor.createRedo(history, context));
+            for (BlockChange change : changes) {
+                assertEquals(change.getCurrent(), extent.blocks.get(change.getPosition()));
+            }
+        }
+    }
+
+    @Test
+    public void testDeleteFiles() throws Exception {
+        File left = folder.newFile("worldedit-history123.dat");
+        File other = folder.newFile("other.dat");
+
+        assertEquals(1, PackedBlockHistory.deleteFiles(folder.getRoot()));
+        assertFalse(left.exists());
+        assertTrue(other.exists());
+    }
+
+    private static final class RecordingExtent extends NullExtent {
+        private final Map<Vector, BlockStateHolder> blocks = new HashMap<>();
+
+        @Override
+        public boolean setBlock(Vector position, BlockStateHolder block) throws WorldEditException {
+            blocks.put(position.toBlockVector(), block);
+            return true;
+        }
+    }
+
+}
@@ -190,6 +190,73 @@ public void testTimeout() throws Exception {
         }
     }
 
+    @Test
+    public void testLoopTimeouts() throws Exception {
+        assertTimesOut("a=0; while (a < 256) { b=0; while (b < 256) { c=0; while (c < 256) { ++c; } ++b; } ++a; }");
+        assertTimesOut("a=0; do { b=0; do { c=0; do { ++c; } while (c < 256); ++b; } while (b < 256); ++a; } while (a < 256);");
+        assertTimesOut("for (a=0; a<256; ++a) { for (b=0; b<256; ++b) { for (c=0; c<256; ++c) { ln(pi) } } }");
+        assertTimesOut("for (a=1,256) { for (b=1,256) { for (c=1,256) { ln(pi) } } }");
+    }
+
+    @Test
+    public void testCheckDeadline() throws Exception {
+        final Expression limited = compile("x", "x");
+        limited.evaluate(new double[] { 1 }, 1);
+        Thread.sleep(10);
+        try {
+            limited.checkDeadline(3);
+            fail("Deadline was not enforced.");
+        } catch (EvaluationException e) {
+            assertEquals("Error position", 3, e.getPosition());
+        }
+
+        final Expression unlimited = compile("x", "x");
+        unlimited.evaluate(new double[] { 1 }, 0);
+        Thread.sleep(10);
+        unlimited.checkDeadline(3);
+
+        // loops check the deadline without touching the interrupt flag
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals(5, compile("a=0; while (a < 5) { ++a; } a").evaluate(new double[0], 1000), 0);
+        } finally {
+            assertTrue("Interrupt flag was cleared", Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void testParameterSlots() throws ExpressionException {
+        final Expression expression = compile("x*100 + y*10 + z", "x", "y", "z");
+        assertEquals(123, expression.evaluate(1, 2, 3), 0);
+        assertEquals(456, expression.evaluate(4, 5, 6), 0);
+
+        // parameters without a value keep the one from the previous call
+        assertEquals(756, expression.evaluate(7), 0);
+        assertEquals(7, expression.getVariable("x", false).getValue(), 0);
+        assertEquals(5, expression.getVariable("y", false).getValue(), 0);
+        assertEquals(6, expression.getVariable("z", false).getValue(), 0);
+
+        // assignments in the expression write to the same slot
+        final Expression assign = compile("x = x + y; x", "x", "y");
+        assertEquals(5, assign.evaluate(2, 3), 0);
+        assertEquals(5, assign.getVariable("x", false).getValue(), 0);
+        assertEquals(3, assign.evaluate(1, 2), 0);
+
+        try {
+            compile("pi", "pi");
+            fail("Error expected");
+        } catch (ExpressionException ignored) {}
+    }
+
+    private void assertTimesOut(String expressionString) throws ExpressionException {
+        try {
+            compile(expressionString).evaluate(new double[0], 1);
+            fail("Loop was not stopped: " + expressionString);
+        } catch (EvaluationException e) {
+            assertTrue(e.getMessage().contains("Calculations exceeded time limit"));
+        }
+    }
+
     private double simpleEval(String expressionString) throws ExpressionException {
         final Expression expression = compile(expressionString);
 
@@ -0,0 +1,117 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.regions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sk89q.worldedit.BlockVector;
+import com.sk89q.worldedit.BlockVector2D;
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.Vector2D;
+import com.sk89q.worldedit.regions.iterator.RegionCursor;
+import com.sk89q.worldedit.world.World;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class RegionCursorTest {
+
+    private static void assertSamePositions(Region region) {
+        Set<BlockVector> expected = new HashSet<>();
+        for (BlockVector position : region) {
+            expected.add(position);
+        }
+
+        Set<BlockVector> actual = new HashSet<>();
+        RegionCursor cursor = region.cursor();
+        int lastChunk = Integer.MIN_VALUE;
+        Set<Integer> finishedChunks = new HashSet<>();
+        while (cursor.next()) {
+            assertTrue(actual.add(new BlockVector(cursor.getX(), cursor.getY(), cursor.getZ())));
+
+            // Each chunk section is only entered once
+            int chunk = ((cursor.getX() >> 4) * 1031 + (cursor.getZ() >> 4)) * 1031 + (cursor.getY() >> 4);
+            if (chunk != lastChunk) {
+                assertTrue(finishedChunks.add(chunk));
+                lastChunk = chunk;
+            }
+        }
+
+        assertEquals(expected, actual);
+
+        Set<Vector2D> chunks = new HashSet<>();
+        Set<Vector> chunkCubes = new HashSet<>();
+        for (BlockVector position : expected) {
+            chunks.add(new BlockVector2D(position.getBlockX() >> 4, position.getBlockZ() >> 4));
+            chunkCubes.add(new BlockVector(position.getBlockX() >> 4, position.getBlockY() >> 4, position.getBlockZ() >> 4));
+        }
+        assertEquals(chunks, new HashSet<>(region.getChunks()));
+        assertEquals(chunkCubes, new HashSet<>(region.getChunkCubes()));
+        for (Vector2D chunk : chunks) {
+            assertTrue(region.getChunks().contains(chunk));
+        }
+    }
+
+    @Test
+    public void testCuboid() {
+        assertSamePositions(new CuboidRegion(new Vector(-20, 3, 5), new Vector(17, 40, 33)));
+        assertSamePositions(new CuboidRegion(new Vector(1, 1, 1), new Vector(1, 1, 1)));
+    }
+
+    @Test
+    public void testCylinder() {
+        assertSamePositions(new CylinderRegion(new Vector(3, 0, -7), new Vector2D(12.5, 5.5), 10, 30));
+        assertSamePositions(new CylinderRegion(new Vector(0, 0, 0), new Vector2D(0.5, 0.5), 0, 0));
+        assertSamePositions(new CylinderRegion(new Vector(100, 0, 100), new Vector2D(20, 33), -5, 5));
+    }
+
+    @Test
+    public void testEllipsoid() {
+        assertSamePositions(new EllipsoidRegion(null, new Vector(5, 64, -9), new Vector(10.5, 7.5, 20.5)));
+        assertSamePositions(new EllipsoidRegion(null, new Vector(0, 0, 0), new Vector(17, 17, 17)));
+    }
+
+    @Test
+    public void testPolygon() {
+        assertSamePositions(new Polygonal2DRegion(null, Arrays.asList(
+                new BlockVector2D(0, 0), new BlockVector2D(40, 3), new BlockVector2D(20, 20),
+                new BlockVector2D(35, 45), new BlockVector2D(-7, 30), new BlockVector2D(5, 18)), 2, 20));
+        assertSamePositions(new Polygonal2DRegion(null, Arrays.asList(
+                new BlockVector2D(0, 0), new BlockVector2D(10, 0), new BlockVector2D(10, 10),
+                new BlockVector2D(0, 10)), 0, 0));
+        assertSamePositions(new Polygonal2DRegion(null, Arrays.asList(
+                new BlockVector2D(-3, -3), new BlockVector2D(50, 17), new BlockVector2D(-20, 9)), 5, 40));
+    }
+
+    @Test
+    public void testConvexPolyhedron() {
+        ConvexPolyhedralRegion region = new ConvexPolyhedralRegion((World) null);
+        region.addVertex(new Vector(0, 0, 0));
+        region.addVertex(new Vector(40, 5, 3));
+        region.addVertex(new Vector(-10, 30, 25));
+        region.addVertex(new Vector(12, -20, 40));
+        region.addVertex(new Vector(20, 10, -17));
+        assertSamePositions(region);
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.session.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sk89q.worldedit.LocalSession;
+import com.sk89q.worldedit.regions.selector.RegionSelectorType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.UUID;
+
+/**
+ * Tests {@link BinaryFileSessionStore}.
+ */
+public class BinaryFileSessionStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        BinaryFileSessionStore store = new BinaryFileSessionStore(folder.getRoot());
+        UUID id = UUID.randomUUID();
+
+        LocalSession session = new LocalSession();
+        session.setLastScript("maze.js");
+        session.setDefaultRegionSelector(RegionSelectorType.POLYGON);
+        session.setUseServerCUI(true);
+        store.save(id, session);
+
+        LocalSession loaded = store.load(id);
+        assertEquals("maze.js", loaded.getLastScript());
+        assertEquals(RegionSelectorType.POLYGON, loaded.getDefaultRegionSelector());
+        assertTrue(loaded.shouldUseServerCUI());
+        assertFalse(loaded.isDirty());
+        assertFalse(new File(folder.getRoot(), id + ".dat.tmp").exists());
+    }
+
+    @Test
+    public void testMissingSession() throws Exception {
+        BinaryFileSessionStore store = new BinaryFileSessionStore(folder.getRoot());
+
+        LocalSession loaded = store.load(UUID.randomUUID());
+        assertNull(loaded.getLastScript());
+        assertNull(loaded.getDefaultRegionSelector());
+        assertFalse(loaded.shouldUseServerCUI());
+    }
+
+    @Test
+    public void testReadsJsonSession() throws Exception {
+        UUID id = UUID.randomUUID();
+        LocalSession session = new LocalSession();
+        session.setLastScript("maze.js");
+        new JsonFileSessionStore(folder.getRoot()).save(id, session);
+
+        LocalSession loaded = new BinaryFileSessionStore(folder.getRoot()).load(id);
+        assertEquals("maze.js", loaded.getLastScript());
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sk89q.worldedit.util.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BlockPositionSetTest {
+
+    @Test
+    public void testAddAndContains() {
+        BlockPositionSet set = new BlockPositionSet();
+        int[][] positions = {{0, 0, 0}, {-1, 0, 0}, {15, 255, -16}, {-30000000, -64, 29999999}, {16, 16, 16}};
+        for (int[] p : positions) {
+            assertFalse(set.contains(p[0], p[1], p[2]));
+            assertTrue(set.add(p[0], p[1], p[2]));
+            assertFalse(set.add(p[0], p[1], p[2]));
+        }
+        for (int[] p : positions) {
+            assertTrue(set.contains(p[0], p[1], p[2]));
+        }
+        assertFalse(set.contains(1, 0, 0));
+        assertFalse(set.contains(-1, 0, -1));
+        assertEquals(positions.length, set.size());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0, 0, 0));
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.sk89q.worldedit.util.collection;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LongArrayQueueTest {
+
+    @Test
+    public void testQueueWrapsAround() {
+        LongArrayQueue queue = new LongArrayQueue(4);
+        long next = 0;
+        long expected = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < round * 3; i++) {
+                queue.add(next++);
+            }
+            for (int i = 0; i < round * 2; i++) {
+                assertEquals(expected++, queue.remove());
+            }
+        }
+        assertEquals(next - expected, queue.size());
+        while (!queue.isEmpty()) {
+            assertEquals(expected++, queue.remove());
+        }
+        assertEquals(next, expected);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.util.collection;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class PackedIntArrayTest {
+
+    @Test
+    public void testSetAndGet() {
+        for (int bits = 1; bits <= 32; bits++) {
+            PackedIntArray array = new PackedIntArray(200, bits);
+            int[] expected = fill(array, new Random(bits));
+            assertContents(expected, array);
+        }
+    }
+
+    @Test
+    public void testGrowKeepsValues() {
+        PackedIntArray array = new PackedIntArray(1000, 3);
+        int[] expected = fill(array, new Random(0));
+        for (int bits = 4; bits <= 32; bits += 7) {
+            array.grow(bits);
+            assertEquals(bits, array.getBitsPerEntry());
+            assertContents(expected, array);
+        }
+    }
+
+    @Test
+    public void testBitsFor() {
+        assertEquals(1, PackedIntArray.bitsFor(0));
+        assertEquals(1, PackedIntArray.bitsFor(1));
+        assertEquals(2, PackedIntArray.bitsFor(2));
+        assertEquals(8, PackedIntArray.bitsFor(255));
+        assertEquals(9, PackedIntArray.bitsFor(256));
+    }
+
+    private static int[] fill(PackedIntArray array, Random random) {
+        int[] values = new int[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt() & array.getMaxValue();
+            array.set(i, values[i]);
+        }
+        return values;
+    }
+
+    private static void assertContents(int[] expected, PackedIntArray array) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], array.get(i));
+        }
+    }
+
+}
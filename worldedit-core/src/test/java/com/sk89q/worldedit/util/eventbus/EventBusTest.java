@@ -0,0 +1,116 @@
+/*
+ * WorldEdit, a Minecraft world manipulation toolkit
+ * Copyright (C) sk89q <http://www.sk89q.com>
+ * Copyright (C) WorldEdit team and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.sk89q.worldedit.util.eventbus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.sk89q.worldedit.util.eventbus.EventHandler.Priority;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests {@link EventBus}.
+ */
+public class EventBusTest {
+
+    @Test
+    public void testPriorityAndHierarchy() throws Exception {
+        EventBus bus = new EventBus();
+        Listener listener = new Listener();
+        bus.register(listener);
+
+        bus.post(new Event());
+        assertEquals(Arrays.asList("early", "object", "late"), listener.calls);
+
+        listener.calls.clear();
+        bus.post("text");
+        assertEquals(Arrays.asList("object"), listener.calls);
+    }
+
+    @Test
+    public void testChangesAfterPost() throws Exception {
+        EventBus bus = new EventBus();
+        Listener first = new Listener();
+        bus.register(first);
+        bus.post(new Event());
+
+        Listener second = new Listener();
+        bus.register(second);
+        bus.unregister(first);
+        first.calls.clear();
+        bus.post(new Event());
+
+        assertTrue(first.calls.isEmpty());
+        assertEquals(Arrays.asList("early", "object", "late"), second.calls);
+    }
+
+    @Test
+    public void testExceptionDoesNotStopDispatch() throws Exception {
+        EventBus bus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        bus.subscribe(Event.class, new EventHandler(Priority.EARLY) {
+            @Override
+            public void dispatch(Object event) throws Exception {
+                throw new IllegalStateException("expected");
+            }
+
+            @Override
+            public int hashCode() {
+                return 0;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                return obj == this;
+            }
+        });
+        bus.subscribe(Event.class, new MethodEventHandler(Priority.LATE, calls, List.class.getMethod("add", Object.class)));
+
+        bus.post(new Event());
+        assertEquals(1, calls.size());
+    }
+
+    private static class Event {
+    }
+
+    public static class Listener {
+        private final List<String> calls = new ArrayList<>();
+
+        @Subscribe(priority = Priority.EARLY)
+        public void onEarly(Event event) {
+            calls.add("early");
+        }
+
+        @Subscribe
+        public void onObject(Object event) {
+            calls.add("object");
+        }
+
+        @Subscribe(priority = Priority.LATE)
+        public void onLate(Event event) {
+            calls.add("late");
+        }
+    }
+
+}
@@ -44,6 +44,8 @@
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
@@ -51,6 +53,9 @@ class ForgePlatform extends AbstractPlatform implements MultiUserPlatform {
 
     private final ForgeWorldEdit mod;
     private final MinecraftServer server;
+    private final List<ScheduledTask> tasks = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextTaskId = new AtomicInteger();
+    private volatile long currentTick = 0;
     private boolean hookingEvents = false;
 
     ForgePlatform(ForgeWorldEdit mod) {
@@ -79,7 +84,29 @@ public void reload() {
 
     @Override
     public int schedule(long delay, long period, Runnable task) {
-        return -1;
+        tasks.add(new ScheduledTask(currentTick + Math.max(0, delay), period, task));
+        return nextTaskId.getAndIncrement();
+    }
+
+    /**
+     * Run the tasks that are due this tick. Called at the end of every
+     * server tick.
+     */
+    void tick() {
+        currentTick++;
+        for (ScheduledTask task : tasks) {
+            if (task.nextRun <= currentTick) {
+                try {
+                    task.runnable.run();
+                } finally {
+                    if (task.period > 0) {
+                        task.nextRun = currentTick + task.period;
+                    } else {
+                        tasks.remove(task);
+                    }
+                }
+            }
+        }
     }
 
     @Override
@@ -185,4 +212,17 @@ public Collection<Actor> getConnectedUsers() {
         }
         return users;
     }
+
+    private static final class ScheduledTask {
+        private final long period;
+        private final Runnable runnable;
+        private long nextRun;
+
+        private ScheduledTask(long nextRun, long period, Runnable runnable) {
+            this.nextRun = nextRun;
+            this.period = period;
+            this.runnable = runnable;
+        }
+    }
+
 }
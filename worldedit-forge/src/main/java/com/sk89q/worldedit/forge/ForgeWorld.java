@@ -34,6 +34,7 @@
 import com.sk89q.worldedit.blocks.BaseItemStack;
 import com.sk89q.worldedit.entity.BaseEntity;
 import com.sk89q.worldedit.entity.Entity;
+import com.sk89q.worldedit.extent.buffer.ChunkSectionBuffer;
 import com.sk89q.worldedit.internal.Constants;
 import com.sk89q.worldedit.regions.CuboidRegion;
 import com.sk89q.worldedit.regions.Region;
@@ -103,6 +104,7 @@
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -183,23 +185,13 @@ public boolean setBlock(Vector position, BlockStateHolder block, boolean notifyA
         Chunk chunk = world.getChunkFromChunkCoords(x >> 4, z >> 4);
         BlockPos pos = new BlockPos(x, y, z);
         IBlockState old = chunk.getBlockState(pos);
-        Block mcBlock = Block.getBlockFromName(block.getBlockType().getId());
-        IBlockState newState = mcBlock.getDefaultState();
-        @SuppressWarnings("unchecked")
-        Map<Property<?>, Object> states = block.getStates();
-        newState = applyProperties(mcBlock.getBlockState(), newState, states);
+        IBlockState newState = getNativeState(block);
         IBlockState successState = chunk.setBlockState(pos, newState);
         boolean successful = successState != null;
 
         // Create the TileEntity
         if (successful) {
-            if (block instanceof BaseBlock && ((BaseBlock) block).hasNbtData()) {
-                // Kill the old TileEntity
-                world.removeTileEntity(pos);
-                NBTTagCompound nativeTag = NBTConverter.toNative(((BaseBlock) block).getNbtData());
-                nativeTag.setString("id", ((BaseBlock) block).getNbtId());
-                TileEntityUtils.setTileEntity(world, position, nativeTag);
-            }
+            setTileEntity(world, pos, block);
         }
 
         if (notifyAndLight) {
@@ -213,6 +205,85 @@ public boolean setBlock(Vector position, BlockStateHolder block, boolean notifyA
         return successful;
     }
 
+    @Override
+    public int setBlocks(ChunkSectionBuffer section, boolean notifyAndLight) throws WorldEditException {
+        checkNotNull(section);
+
+        World world = getWorldChecked();
+        Chunk chunk = world.getChunkFromChunkCoords(section.getChunkX(), section.getChunkZ());
+        IBlockState[] oldStates = notifyAndLight ? new IBlockState[ChunkSectionBuffer.SIZE] : null;
+        int changed = 0;
+
+        // Set every block first, so that lighting is done once the whole section is in place
+        for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+            BlockStateHolder block = section.getBlock(i);
+            if (block == null) {
+                continue;
+            }
+            BlockPos pos = new BlockPos(section.getX(i), section.getY(i), section.getZ(i));
+            IBlockState old = chunk.getBlockState(pos);
+            if (chunk.setBlockState(pos, getNativeState(block)) != null) {
+                setTileEntity(world, pos, block);
+                changed++;
+            }
+            if (oldStates != null) {
+                oldStates[i] = old;
+            }
+        }
+
+        if (notifyAndLight) {
+            for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+                IBlockState old = oldStates[i];
+                if (old == null) {
+                    continue;
+                }
+                BlockPos pos = new BlockPos(section.getX(i), section.getY(i), section.getZ(i));
+                IBlockState newState = chunk.getBlockState(pos);
+                // Only blocks that let through or give off a different amount of light need relighting
+                if (old.getLightOpacity(world, pos) != newState.getLightOpacity(world, pos)
+                        || old.getLightValue(world, pos) != newState.getLightValue(world, pos)) {
+                    world.checkLight(pos);
+                }
+                world.markAndNotifyBlock(pos, chunk, old, newState, UPDATE | NOTIFY);
+            }
+        }
+
+        return changed;
+    }
+
+    @Override
+    public void getBlocks(ChunkSectionBuffer section) {
+        checkNotNull(section);
+
+        Chunk chunk = getWorldChecked().getChunkFromChunkCoords(section.getChunkX(), section.getChunkZ());
+        Map<IBlockState, BlockState> adapted = new IdentityHashMap<>();
+        for (int i = 0; i < ChunkSectionBuffer.SIZE; i++) {
+            int x = section.getX(i);
+            int y = section.getY(i);
+            int z = section.getZ(i);
+            IBlockState mcState = chunk.getBlockState(new BlockPos(x, y, z));
+            section.setBlock(x, y, z, adapted.computeIfAbsent(mcState, this::adapt));
+        }
+    }
+
+    private IBlockState getNativeState(BlockStateHolder block) {
+        Block mcBlock = Block.getBlockFromName(block.getBlockType().getId());
+        IBlockState newState = mcBlock.getDefaultState();
+        @SuppressWarnings("unchecked")
+        Map<Property<?>, Object> states = block.getStates();
+        return applyProperties(mcBlock.getBlockState(), newState, states);
+    }
+
+    private void setTileEntity(World world, BlockPos pos, BlockStateHolder block) {
+        if (block instanceof BaseBlock && ((BaseBlock) block).hasNbtData()) {
+            // Kill the old TileEntity
+            world.removeTileEntity(pos);
+            NBTTagCompound nativeTag = NBTConverter.toNative(((BaseBlock) block).getNbtData());
+            nativeTag.setString("id", ((BaseBlock) block).getNbtId());
+            TileEntityUtils.setTileEntity(world, new Vector(pos.getX(), pos.getY(), pos.getZ()), nativeTag);
+        }
+    }
+
     // Can't get the "Object" to be right for withProperty w/o this
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private IBlockState applyProperties(BlockStateContainer stateContainer, IBlockState newState, Map<Property<?>, Object> states) {
@@ -466,8 +537,10 @@ public void setWeather(WeatherType weatherType, long duration) {
     public BlockState getBlock(Vector position) {
         World world = getWorld();
         BlockPos pos = new BlockPos(position.getBlockX(), position.getBlockY(), position.getBlockZ());
-        IBlockState mcState = world.getBlockState(pos);
+        return adapt(world.getBlockState(pos));
+    }
 
+    private BlockState adapt(IBlockState mcState) {
         BlockType blockType = BlockType.REGISTRY.get(Block.REGISTRY.getNameForObject(mcState.getBlock()).toString());
         return blockType.getState(adaptProperties(blockType, mcState.getProperties()));
     }
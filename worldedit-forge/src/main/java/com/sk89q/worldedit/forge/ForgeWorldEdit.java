@@ -57,6 +57,7 @@
 import net.minecraftforge.fml.common.event.FMLServerStoppingEvent;
 import net.minecraftforge.fml.common.eventhandler.Event.Result;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
@@ -153,6 +154,13 @@ public void serverStarted(FMLServerStartedEvent event) {
         WorldEdit.getInstance().getEventBus().post(new PlatformReadyEvent());
     }
 
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (platform != null && event.phase == TickEvent.Phase.END) {
+            platform.tick();
+        }
+    }
+
     @SubscribeEvent
     public void onCommandEvent(CommandEvent event) {
         if ((event.getSender() instanceof EntityPlayerMP)) {
@@ -52,6 +52,7 @@
 import org.spongepowered.api.event.game.state.GamePreInitializationEvent;
 import org.spongepowered.api.event.game.state.GameStartedServerEvent;
 import org.spongepowered.api.event.game.state.GameStoppingServerEvent;
+import org.spongepowered.api.event.network.ClientConnectionEvent;
 import org.spongepowered.api.item.ItemType;
 import org.spongepowered.api.item.inventory.ItemStack;
 import org.spongepowered.api.plugin.Plugin;
@@ -199,6 +200,12 @@ public SpongeImplAdapter getAdapter() {
         return this.spongeAdapter;
     }
 
+    @Listener
+    public void onClientAuth(ClientConnectionEvent.Auth event) {
+        // Start reading the session in the background before the player joins
+        WorldEdit.getInstance().getSessionManager().preload(event.getProfile().getUniqueId());
+    }
+
     @Listener
     public void onPlayerInteract(InteractBlockEvent event, @Root Player spongePlayer) {
         if (platform == null) {
@@ -113,11 +113,22 @@ public void load() {
         scriptTimeout = node.getNode("scripting", "timeout").getInt(scriptTimeout);
         scriptsDir = node.getNode("scripting", "dir").getString(scriptsDir);
 
+        operationTickBudget = Math.max(0, node.getNode("scheduling", "tick-budget").getInt(operationTickBudget));
+
+        metricsEnabled = node.getNode("metrics", "enabled").getBoolean(metricsEnabled);
+        metricsJmx = node.getNode("metrics", "jmx").getBoolean(metricsJmx);
+        metricsFile = node.getNode("metrics", "file").getString(metricsFile);
+
         saveDir = node.getNode("saving", "dir").getString(saveDir);
+        schematicThreads = Math.max(0, node.getNode("saving", "threads").getInt(schematicThreads));
 
         allowSymlinks = node.getNode("files", "allow-symbolic-links").getBoolean(false);
         LocalSession.MAX_HISTORY_SIZE = Math.max(0, node.getNode("history", "size").getInt(15));
         SessionManager.EXPIRATION_GRACE = node.getNode("history", "expiration").getInt(10) * 60 * 1000;
+        historySpillThreshold = node.getNode("history", "spill-threshold").getInt(historySpillThreshold);
+        historyMaxMemory = node.getNode("history", "max-memory").getInt(historyMaxMemory);
+        historyMaxSessionMemory = node.getNode("history", "max-memory-per-player").getInt(historyMaxSessionMemory);
+        sessionFormat = node.getNode("sessions", "format").getString(sessionFormat);
 
         showHelpInfo = node.getNode("show-help-on-first-use").getBoolean(true);
         serverSideCUI = node.getNode("server-side-cui").getBoolean(true);
@@ -126,6 +137,8 @@ public void load() {
         if (!snapshotsDir.isEmpty()) {
             snapshotRepo = new SnapshotRepository(snapshotsDir);
         }
+        snapshotRestoreThreads = Math.max(0, node.getNode("snapshots", "restore-threads").getInt(snapshotRestoreThreads));
+        snapshotReadAhead = Math.max(1, node.getNode("snapshots", "read-ahead").getInt(snapshotReadAhead));
 
         String type = node.getNode("shell-save-type").getString("").trim();
         shellSaveType = type.equals("") ? null : type;